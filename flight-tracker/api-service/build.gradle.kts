@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 dependencies {
@@ -10,4 +11,19 @@ dependencies {
 
     // WebFlux (SSE / streaming)
     implementation("org.springframework.boot:spring-boot-starter-webflux")
+
+    // Actuator (metrics, /actuator/flightcache)
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.1")
+    testImplementation("io.projectreactor:reactor-test:3.6.1")
+    testImplementation("org.assertj:assertj-core:3.24.2")
+    testImplementation("org.mockito:mockito-core:5.7.0")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+// Microbenchmarks live in src/jmh/java; run with ./gradlew :api-service:jmh
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
 }
@@ -0,0 +1,84 @@
+package com.flighttracker.api.codec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.Flight;
+import com.flighttracker.api.domain.FlightSnapshot;
+import com.flighttracker.api.integration.opensky.OpenSkyStateParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares FlightBatchCodec with the Jackson JSON the SSE stream sends today,
+ * on the fleet parsed from the sample {@code opensky.json}.
+ * Payload sizes are printed once during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlightBatchCodecBenchmark {
+
+    @Param("../../opensky.json")
+    private String samplePath;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private FleetColumns fleet;
+    private List<Flight> flights;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void loadSample() throws IOException {
+        fleet = new OpenSkyStateParser().parse(Files.readAllBytes(Path.of(samplePath)));
+        flights = new FlightSnapshot(fleet, 0L).getFlights();
+        json = objectMapper.writeValueAsBytes(flights);
+        binary = FlightBatchCodec.encode(flights);
+        System.out.printf("%n%d flights: json=%d bytes, binary=%d bytes (%.1fx smaller)%n",
+                flights.size(), json.length, binary.length, (double) json.length / binary.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(flights);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return FlightBatchCodec.encode(flights);
+    }
+
+    @Benchmark
+    public byte[] encodeBinaryFromColumns() {
+        return FlightBatchCodec.encode(fleet);
+    }
+
+    @Benchmark
+    public List<Flight> decodeJson() throws IOException {
+        return objectMapper.readValue(json, new TypeReference<List<Flight>>() {});
+    }
+
+    @Benchmark
+    public List<Flight> decodeBinary() {
+        return FlightBatchCodec.decode(binary);
+    }
+}
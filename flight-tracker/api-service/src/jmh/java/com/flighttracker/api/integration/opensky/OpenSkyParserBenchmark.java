@@ -0,0 +1,142 @@
+package com.flighttracker.api.integration.opensky;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.Flight;
+import com.flighttracker.common.model.FlightStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming state-vector parser with the previous Map-based decoding
+ * on the sample {@code opensky.json} snapshot.
+ * Run with {@code ./gradlew :api-service:jmh}; the gc profiler reports allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenSkyParserBenchmark {
+
+    @Param("../../opensky.json")
+    private String samplePath;
+
+    @Param("8192")
+    private int chunkSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private final OpenSkyStateParser streamingParser = new OpenSkyStateParser();
+
+    private byte[] body;
+
+    @Setup
+    public void loadSample() throws IOException {
+        body = Files.readAllBytes(Path.of(samplePath));
+    }
+
+    @Benchmark
+    public List<Flight> mapDecoding() throws IOException {
+        Map<?, ?> response = objectMapper.readValue(body, Map.class);
+        return parseFlightStates(response);
+    }
+
+    @Benchmark
+    public FleetColumns streamingChunks() {
+        return streamingParser.parse(chunks()).block();
+    }
+
+    @Benchmark
+    public FleetColumns streamingArray() {
+        return streamingParser.parse(body);
+    }
+
+    /**
+     * Splits the body into network-sized buffers without copying, like a response arriving in pieces.
+     */
+    private Flux<DataBuffer> chunks() {
+        int count = (body.length + chunkSize - 1) / chunkSize;
+        return Flux.range(0, count)
+                .map(i -> {
+                    int offset = i * chunkSize;
+                    int length = Math.min(chunkSize, body.length - offset);
+                    return bufferFactory.wrap(ByteBuffer.wrap(body, offset, length).slice());
+                });
+    }
+
+    // Previous OpenSkyFlightProvider decoding path, kept here as the baseline
+
+    @SuppressWarnings("unchecked")
+    private List<Flight> parseFlightStates(Map<?, ?> response) {
+        List<Flight> flights = new ArrayList<>();
+        List<List<Object>> states = (List<List<Object>>) response.get("states");
+
+        if (states == null) {
+            return flights;
+        }
+
+        for (List<Object> state : states) {
+            Flight flight = parseStateVector(state);
+            if (flight != null && flight.hasPosition()) {
+                flights.add(flight);
+            }
+        }
+        return flights;
+    }
+
+    private Flight parseStateVector(List<Object> state) {
+        if (state == null || state.size() < 17) {
+            return null;
+        }
+
+        Flight flight = new Flight();
+        flight.setFlightId(getString(state, 0));
+        flight.setCallsign(getString(state, 1));
+        flight.setLongitude(getDouble(state, 5));
+        flight.setLatitude(getDouble(state, 6));
+        flight.setAltitude(getDouble(state, 7));
+        flight.setSpeed(getDouble(state, 9));
+
+        boolean onGround = state.get(8) instanceof Boolean b && b;
+        flight.setStatus(onGround ? FlightStatus.LANDED : FlightStatus.IN_FLIGHT);
+        flight.setLastUpdated(System.currentTimeMillis());
+
+        return flight;
+    }
+
+    private String getString(List<Object> state, int index) {
+        Object val = state.get(index);
+        return val != null ? val.toString().trim() : null;
+    }
+
+    private double getDouble(List<Object> state, int index) {
+        Object val = state.get(index);
+        if (val instanceof Number) {
+            return ((Number) val).doubleValue();
+        }
+        return 0.0;
+    }
+}
@@ -0,0 +1,390 @@
+package com.flighttracker.api.codec;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.FleetColumns.StringField;
+import com.flighttracker.api.domain.Flight;
+import com.flighttracker.api.index.IntList;
+import com.flighttracker.common.model.FlightStatus;
+import org.springframework.http.MediaType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact columnar binary encoding for a batch of flights.
+ *
+ * Layout (version 1, big-endian):
+ * <pre>
+ * magic "FB" | version u8 | count varint | baseTime i64
+ * dictionary: size varint, then size x (length varint, UTF-8 bytes)
+ * icao24:     count x u24 (0xFFFFFF = not a 6-digit hex code, see exceptions)
+ * exceptions: size varint, then size x (ordinal varint, length varint, UTF-8 bytes)
+ * strings:    10 columns x count x varint dictionary index (0 = null), in
+ *             {@link StringField} order: flightNumber, callsign, departure/destination ICAO,
+ *             departure/destination name, scheduled/actual departure, scheduled/estimated arrival
+ * latitude:   count x i32, degrees x 1e5
+ * longitude:  count x i32, degrees x 1e5
+ * altitude:   count x zigzag varint, centimetres
+ * speed:      count x zigzag varint, centimetres per second
+ * status:     count x u8 ordinal (0xFF = null)
+ * updated:    count x zigzag varint, milliseconds after baseTime
+ * </pre>
+ * Coordinates keep five decimals and altitude/speed two, which covers what OpenSky
+ * reports; strings, ids and timestamps round-trip exactly.
+ */
+public final class FlightBatchCodec {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-flight-batch";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final byte MAGIC_0 = 'F';
+    private static final byte MAGIC_1 = 'B';
+    private static final int VERSION = 1;
+    private static final int NO_ICAO24 = 0xFFFFFF;
+    private static final int NO_STATUS = 0xFF;
+    private static final double COORDINATE_SCALE = 1e5;
+    private static final double METRIC_SCALE = 100.0;
+    private static final int STRING_COLUMNS = StringField.values().length;
+    private static final FlightStatus[] STATUSES = FlightStatus.values();
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    // Smallest encoding of one flight: icao24, one byte per string column and number, two coordinates
+    private static final int MIN_FLIGHT_BYTES = 3 + STRING_COLUMNS + 4 + 4 + 1 + 1 + 1 + 1;
+
+    private FlightBatchCodec() {
+    }
+
+    public static byte[] encode(List<Flight> flights) {
+        return encode(FleetColumns.of(flights));
+    }
+
+    /**
+     * Encodes straight from the columns. The fleet's own string dictionary becomes the
+     * batch dictionary, so no per-flight objects or extra hashing are needed.
+     */
+    public static byte[] encode(FleetColumns fleet) {
+        int count = fleet.size();
+        ByteWriter out = new ByteWriter(64 + count * 24);
+
+        long[] lastUpdated = fleet.lastUpdatedTimes();
+        long baseTime = Long.MAX_VALUE;
+        for (long updated : lastUpdated) {
+            baseTime = Math.min(baseTime, updated);
+        }
+        if (count == 0) {
+            baseTime = 0;
+        }
+
+        out.writeByte(MAGIC_0);
+        out.writeByte(MAGIC_1);
+        out.writeByte(VERSION);
+        out.writeVarint(count);
+        out.writeLong(baseTime);
+
+        // Index 0 is null in both the fleet dictionary and the wire format
+        String[] dictionary = fleet.dictionary();
+        out.writeVarint(dictionary.length - 1);
+        for (int i = 1; i < dictionary.length; i++) {
+            out.writeString(dictionary[i]);
+        }
+
+        IntList exceptions = new IntList();
+        for (int i = 0; i < count; i++) {
+            int code = icao24Code(fleet.flightId(i));
+            if (code == NO_ICAO24) {
+                exceptions.add(i);
+            }
+            out.writeByte(code >>> 16);
+            out.writeByte(code >>> 8);
+            out.writeByte(code);
+        }
+        out.writeVarint(exceptions.size());
+        for (int e = 0; e < exceptions.size(); e++) {
+            int ordinal = exceptions.get(e);
+            String flightId = fleet.flightId(ordinal);
+            out.writeVarint(ordinal);
+            out.writeString(flightId != null ? flightId : "");
+        }
+
+        for (StringField field : StringField.values()) {
+            for (int index : fleet.stringIds(field)) {
+                out.writeVarint(index);
+            }
+        }
+
+        for (double latitude : fleet.latitudes()) {
+            out.writeInt((int) Math.round(latitude * COORDINATE_SCALE));
+        }
+        for (double longitude : fleet.longitudes()) {
+            out.writeInt((int) Math.round(longitude * COORDINATE_SCALE));
+        }
+        for (double altitude : fleet.altitudes()) {
+            out.writeZigzag(Math.round(altitude * METRIC_SCALE));
+        }
+        for (double speed : fleet.speeds()) {
+            out.writeZigzag(Math.round(speed * METRIC_SCALE));
+        }
+        for (int i = 0; i < count; i++) {
+            FlightStatus status = fleet.status(i);
+            out.writeByte(status != null ? status.ordinal() : NO_STATUS);
+        }
+        for (long updated : lastUpdated) {
+            out.writeZigzag(updated - baseTime);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a batch prefixed with its length as a 4-byte big-endian int,
+     * so consecutive batches can be written to one response stream.
+     */
+    public static byte[] encodeFrame(FleetColumns fleet) {
+        byte[] payload = encode(fleet);
+        return ByteBuffer.allocate(4 + payload.length)
+                .putInt(payload.length)
+                .put(payload)
+                .array();
+    }
+
+    public static List<Flight> decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Decodes one batch from the buffer's position, which is left after the batch.
+     * Works on heap and direct buffers, so batches can be read straight from a mapped file.
+     */
+    public static List<Flight> decode(ByteBuffer in) {
+        try {
+            if (in.get() != MAGIC_0 || in.get() != MAGIC_1) {
+                throw new IllegalArgumentException("Not a flight batch");
+            }
+            int version = in.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported flight batch version: " + version);
+            }
+
+            int count = readLength(in, MIN_FLIGHT_BYTES);
+            long baseTime = in.getLong();
+
+            int dictionarySize = readLength(in, 1);
+            String[] dictionary = new String[dictionarySize + 1];
+            for (int i = 1; i <= dictionarySize; i++) {
+                dictionary[i] = readString(in);
+            }
+
+            Flight[] flights = new Flight[count];
+            for (int i = 0; i < count; i++) {
+                int code = (in.get() & 0xFF) << 16 | (in.get() & 0xFF) << 8 | (in.get() & 0xFF);
+                flights[i] = new Flight();
+                if (code != NO_ICAO24) {
+                    flights[i].setFlightId(icao24(code));
+                }
+            }
+            int exceptionCount = readLength(in, 2);
+            for (int e = 0; e < exceptionCount; e++) {
+                int ordinal = readVarint(in);
+                String flightId = readString(in);
+                flights[ordinal].setFlightId(flightId.isEmpty() ? null : flightId);
+            }
+
+            String[][] stringColumns = new String[STRING_COLUMNS][count];
+            for (int c = 0; c < STRING_COLUMNS; c++) {
+                for (int i = 0; i < count; i++) {
+                    stringColumns[c][i] = dictionary[readVarint(in)];
+                }
+            }
+
+            for (int i = 0; i < count; i++) {
+                flights[i].setLatitude(in.getInt() / COORDINATE_SCALE);
+            }
+            for (int i = 0; i < count; i++) {
+                flights[i].setLongitude(in.getInt() / COORDINATE_SCALE);
+            }
+            for (int i = 0; i < count; i++) {
+                flights[i].setAltitude(readZigzag(in) / METRIC_SCALE);
+            }
+            for (int i = 0; i < count; i++) {
+                flights[i].setSpeed(readZigzag(in) / METRIC_SCALE);
+            }
+            for (int i = 0; i < count; i++) {
+                int status = in.get() & 0xFF;
+                flights[i].setStatus(status == NO_STATUS ? null : STATUSES[status]);
+            }
+            for (int i = 0; i < count; i++) {
+                flights[i].setLastUpdated(baseTime + readZigzag(in));
+            }
+
+            for (int i = 0; i < count; i++) {
+                Flight flight = flights[i];
+                flight.setFlightNumber(stringColumns[0][i]);
+                flight.setCallsign(stringColumns[1][i]);
+                flight.setDepartureAirportIcao(stringColumns[2][i]);
+                flight.setDestinationAirportIcao(stringColumns[3][i]);
+                flight.setDepartureAirportName(stringColumns[4][i]);
+                flight.setDestinationAirportName(stringColumns[5][i]);
+                flight.setScheduledDepartureTime(stringColumns[6][i]);
+                flight.setActualDepartureTime(stringColumns[7][i]);
+                flight.setScheduledArrivalTime(stringColumns[8][i]);
+                flight.setEstimatedArrivalTime(stringColumns[9][i]);
+            }
+            return Arrays.asList(flights);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Truncated or corrupt flight batch", e);
+        }
+    }
+
+    /**
+     * Packs a lowercase 6-digit hex icao24 code into 24 bits, or returns NO_ICAO24.
+     */
+    private static int icao24Code(String flightId) {
+        if (flightId == null || flightId.length() != 6) {
+            return NO_ICAO24;
+        }
+        int code = 0;
+        for (int i = 0; i < 6; i++) {
+            char c = flightId.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            } else {
+                return NO_ICAO24; // uppercase or non-hex ids go through the exception list to round-trip exactly
+            }
+            code = code << 4 | digit;
+        }
+        return code; // "ffffff" collides with NO_ICAO24 and lands in the exception list, which is fine
+    }
+
+    /**
+     * Inverse of {@link #icao24Code}: six lowercase hex digits.
+     */
+    private static String icao24(int code) {
+        char[] digits = new char[6];
+        for (int i = 5; i >= 0; i--) {
+            digits[i] = HEX_DIGITS[code & 0xF];
+            code >>>= 4;
+        }
+        return new String(digits);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * Reads a count or length, rejecting one the rest of the buffer can't hold, so a
+     * corrupt batch fails before anything is allocated for it.
+     */
+    private static int readLength(ByteBuffer in, int minBytesEach) {
+        int length = readVarint(in);
+        if (length < 0 || (long) length * minBytesEach > in.remaining()) {
+            throw new IllegalArgumentException("Length " + length + " exceeds the remaining " + in.remaining() + " bytes");
+        }
+        return length;
+    }
+
+    private static long readZigzag(ByteBuffer in) {
+        long raw = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.get() & 0xFF;
+            raw |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (raw >>> 1) ^ -(raw & 1);
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readLength(in, 1);
+        if (!in.hasArray()) {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * Growable big-endian byte sink with varint helpers.
+     */
+    private static final class ByteWriter {
+
+        private byte[] buffer;
+        private int size;
+
+        ByteWriter(int capacity) {
+            this.buffer = new byte[Math.max(16, capacity)];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            buffer[size++] = (byte) (value >>> 24);
+            buffer[size++] = (byte) (value >>> 16);
+            buffer[size++] = (byte) (value >>> 8);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeZigzag(long value) {
+            long raw = (value << 1) ^ (value >> 63);
+            ensure(10);
+            while ((raw & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((raw & 0x7F) | 0x80);
+                raw >>>= 7;
+            }
+            buffer[size++] = (byte) raw;
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, buffer, size, utf8.length);
+            size += utf8.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+}
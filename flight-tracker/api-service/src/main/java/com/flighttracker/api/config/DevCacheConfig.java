@@ -1,12 +1,22 @@
 package com.flighttracker.api.config;
 
 import com.flighttracker.common.cache.FlightCache;
+import com.flighttracker.common.cache.FlightCacheInvalidationBus;
 import com.flighttracker.common.cache.InMemoryFlightCache;
+import com.flighttracker.common.cache.KeyInvalidationSource;
+import com.flighttracker.common.cache.TrackingInMemoryFlightCache;
+import com.flighttracker.common.service.FlightCacheService;
+import com.flighttracker.common.service.NearCacheSync;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
+import java.time.Duration;
+
 /**
  * Development cache configuration.
  * Uses only in-memory caching (Caffeine) for both L1 and L2.
@@ -19,23 +29,56 @@ public class DevCacheConfig {
     /**
      * Creates the local cache bean (L1).
      * In dev profile, this is backed by Caffeine.
+     * Entries are refreshed from the L2 bean in the background, as in prod.
      */
     @Bean("inMemoryFlightCache")
     public FlightCache inMemoryFlightCache(
+            @Qualifier("redisFlightCache") FlightCache remoteCache,
             @Value("${flight.cache.local.max-size:10000}") int maxSize,
-            @Value("${flight.cache.local.ttl-minutes:10}") int ttlMinutes) {
-        return new InMemoryFlightCache(maxSize, ttlMinutes);
+            @Value("${flight.cache.local.ttl-minutes:10}") int ttlMinutes,
+            @Value("${flight.cache.local.refresh-after-seconds:480}") int refreshAfterSeconds,
+            @Value("${flight.cache.local.stale-seconds:120}") int staleSeconds,
+            MeterRegistry meterRegistry) {
+        InMemoryFlightCache cache = new InMemoryFlightCache(maxSize, Duration.ofMinutes(ttlMinutes),
+                Duration.ofSeconds(refreshAfterSeconds), Duration.ofSeconds(staleSeconds), remoteCache::load);
+        cache.bindMetrics(meterRegistry, "l1");
+        return cache;
     }
 
     /**
      * Creates the remote cache bean (L2).
      * In dev profile, we use another in-memory cache instead of Redis.
      * This allows the two-tier caching architecture to work without Redis.
+     * With near-cache tracking on, it also reports its key changes the way Redis
+     * client tracking would.
      */
     @Bean("redisFlightCache")
     public FlightCache redisFlightCache(
             @Value("${flight.cache.local.max-size:10000}") int maxSize,
-            @Value("${flight.cache.local.ttl-minutes:10}") int ttlMinutes) {
-        return new InMemoryFlightCache(maxSize, ttlMinutes);
+            @Value("${flight.cache.local.ttl-minutes:10}") int ttlMinutes,
+            @Value("${flight.cache.near-cache.tracking:false}") boolean tracking,
+            MeterRegistry meterRegistry) {
+        InMemoryFlightCache cache = new InMemoryFlightCache(maxSize, ttlMinutes);
+        cache.bindMetrics(meterRegistry, "l2");
+        return tracking ? new TrackingInMemoryFlightCache(cache) : cache;
+    }
+
+    /**
+     * Applies the in-memory L2's key changes to L1, standing in for Redis client tracking.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "flight.cache.near-cache.tracking", havingValue = "true")
+    public NearCacheSync nearCacheSync(
+            @Qualifier("redisFlightCache") FlightCache remoteCache,
+            FlightCacheService cacheService) {
+        return new NearCacheSync((KeyInvalidationSource) remoteCache, cacheService);
+    }
+
+    /**
+     * Dev runs a single node, so there are no other L1 caches to invalidate.
+     */
+    @Bean
+    public FlightCacheInvalidationBus flightCacheInvalidationBus() {
+        return FlightCacheInvalidationBus.NONE;
     }
 }
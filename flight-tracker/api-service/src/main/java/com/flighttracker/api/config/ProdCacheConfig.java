@@ -1,19 +1,32 @@
 package com.flighttracker.api.config;
 
 import com.flighttracker.common.cache.FlightCache;
+import com.flighttracker.common.cache.FlightCacheInvalidationBus;
+import com.flighttracker.common.cache.FlightRedisSerializer;
 import com.flighttracker.common.cache.InMemoryFlightCache;
+import com.flighttracker.common.cache.LettuceKeyTrackingSource;
 import com.flighttracker.common.cache.RedisFlightCache;
+import com.flighttracker.common.cache.RedisFlightCacheInvalidationBus;
 import com.flighttracker.common.model.Flight;
+import com.flighttracker.common.service.FlightCacheService;
+import com.flighttracker.common.service.NearCacheSync;
+import io.lettuce.core.RedisClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 /**
  * Production cache configuration.
  * Uses in-memory cache (Caffeine) for L1 and Redis for L2.
@@ -26,12 +39,20 @@ public class ProdCacheConfig {
     /**
      * Creates the local cache bean (L1).
      * In prod profile, this is backed by Caffeine for fast local access.
+     * Hot entries are refreshed from Redis in the background before they expire.
      */
     @Bean("inMemoryFlightCache")
     public FlightCache inMemoryFlightCache(
+            @Qualifier("redisFlightCache") FlightCache remoteCache,
             @Value("${flight.cache.local.max-size:10000}") int maxSize,
-            @Value("${flight.cache.local.ttl-minutes:10}") int ttlMinutes) {
-        return new InMemoryFlightCache(maxSize, ttlMinutes);
+            @Value("${flight.cache.local.ttl-minutes:10}") int ttlMinutes,
+            @Value("${flight.cache.local.refresh-after-seconds:480}") int refreshAfterSeconds,
+            @Value("${flight.cache.local.stale-seconds:120}") int staleSeconds,
+            MeterRegistry meterRegistry) {
+        InMemoryFlightCache cache = new InMemoryFlightCache(maxSize, Duration.ofMinutes(ttlMinutes),
+                Duration.ofSeconds(refreshAfterSeconds), Duration.ofSeconds(staleSeconds), remoteCache::load);
+        cache.bindMetrics(meterRegistry, "l1");
+        return cache;
     }
 
     /**
@@ -42,21 +63,81 @@ public class ProdCacheConfig {
     public FlightCache redisFlightCache(
             ReactiveRedisTemplate<String, Flight> redisTemplate,
             @Value("${flight.cache.redis.ttl-minutes:30}") int ttlMinutes,
-            @Value("${flight.cache.redis.timeout-seconds:2}") int timeoutSeconds) {
-        return new RedisFlightCache(redisTemplate, ttlMinutes, timeoutSeconds);
+            @Value("${flight.cache.redis.timeout-seconds:2}") int timeoutSeconds,
+            @Value("${flight.cache.redis.clear.page-size:1000}") int clearPageSize,
+            @Value("${flight.cache.redis.clear.concurrency:4}") int clearConcurrency,
+            MeterRegistry meterRegistry) {
+        return new RedisFlightCache(redisTemplate, ttlMinutes, timeoutSeconds, clearPageSize, clearConcurrency,
+                meterRegistry);
+    }
+
+    /**
+     * Creates the bus that keeps L1 caches on all nodes in step with writes.
+     * Messages go over Redis pub/sub. With it enabled, the L1 TTL only bounds how long a
+     * missed message can leave an entry stale, so it can be much longer.
+     * <p>
+     * Not used with near-cache tracking: Redis already reports every write to every
+     * node, so pub/sub messages would only evict each entry a second time.
+     */
+    @Bean
+    public FlightCacheInvalidationBus flightCacheInvalidationBus(
+            ReactiveStringRedisTemplate stringRedisTemplate,
+            @Qualifier("inMemoryFlightCache") FlightCache localCache,
+            @Qualifier("redisFlightCache") FlightCache remoteCache,
+            @Value("${flight.cache.invalidation.enabled:true}") boolean enabled,
+            @Value("${flight.cache.near-cache.tracking:false}") boolean tracking,
+            @Value("${flight.cache.invalidation.mode:evict}") String mode,
+            @Value("${flight.cache.invalidation.batch-window-ms:50}") long batchWindowMs,
+            @Value("${flight.cache.invalidation.max-batch-size:500}") int maxBatchSize) {
+        if (!enabled || tracking) {
+            return FlightCacheInvalidationBus.NONE;
+        }
+        return new RedisFlightCacheInvalidationBus(stringRedisTemplate, localCache, remoteCache,
+                RedisFlightCacheInvalidationBus.Mode.valueOf(mode.trim().toUpperCase()),
+                Duration.ofMillis(batchWindowMs), maxBatchSize);
+    }
+
+    /**
+     * Creates the Redis client-tracking feed for the near-cache mode.
+     * It needs its own connection from the Lettuce client behind the template; Redis
+     * Cluster is not supported, since tracking would have to be enabled on every shard.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "flight.cache.near-cache.tracking", havingValue = "true")
+    public LettuceKeyTrackingSource keyTrackingSource(ReactiveRedisConnectionFactory connectionFactory) {
+        if (connectionFactory instanceof LettuceConnectionFactory lettuce
+                && lettuce.getRequiredNativeClient() instanceof RedisClient redisClient) {
+            return new LettuceKeyTrackingSource(redisClient);
+        }
+        throw new IllegalStateException("flight.cache.near-cache.tracking needs a standalone Lettuce Redis connection");
+    }
+
+    /**
+     * Applies client-tracking invalidations to L1, keeping it coherent with Redis
+     * including writes made outside this service.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "flight.cache.near-cache.tracking", havingValue = "true")
+    public NearCacheSync nearCacheSync(LettuceKeyTrackingSource keyTrackingSource, FlightCacheService cacheService) {
+        return new NearCacheSync(keyTrackingSource, cacheService);
     }
 
     /**
      * Configures ReactiveRedisTemplate for Flight objects.
-     * Uses JSON serialization for Flight values and String for keys.
+     * Keys are Strings; values are written as compact binary or JSON depending on
+     * flight.cache.redis.serializer, and either format is read back.
      */
     @Bean
     public ReactiveRedisTemplate<String, Flight> reactiveRedisTemplate(
-            ReactiveRedisConnectionFactory connectionFactory) {
+            ReactiveRedisConnectionFactory connectionFactory,
+            @Value("${flight.cache.redis.serializer:binary}") String serializerFormat,
+            @Value("${flight.cache.redis.compress-above-bytes:512}") int compressAboveBytes,
+            MeterRegistry meterRegistry) {
 
         StringRedisSerializer keySerializer = new StringRedisSerializer();
-        Jackson2JsonRedisSerializer<Flight> valueSerializer =
-                new Jackson2JsonRedisSerializer<>(Flight.class);
+        FlightRedisSerializer valueSerializer = new FlightRedisSerializer(
+                FlightRedisSerializer.Format.valueOf(serializerFormat.trim().toUpperCase()), compressAboveBytes,
+                meterRegistry);
 
         RedisSerializationContext<String, Flight> serializationContext =
                 RedisSerializationContext.<String, Flight>newSerializationContext()
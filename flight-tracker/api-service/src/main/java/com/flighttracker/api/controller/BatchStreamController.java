@@ -0,0 +1,52 @@
+package com.flighttracker.api.controller;
+
+import com.flighttracker.api.codec.FlightBatchCodec;
+import com.flighttracker.api.service.FlightService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Binary variant of /stream/flights, selected with {@code Accept: application/x-flight-batch}.
+ * Each refresh is written as a 4-byte length followed by one FlightBatchCodec batch.
+ * <p>
+ * Servlet stack only: Spring MVC would collect a Flux of frames into one list, so
+ * frames are pushed through an emitter instead. See ReactiveBatchStreamController
+ * for the WebFlux version.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BatchStreamController {
+
+    private final FlightService flightService;
+
+    public BatchStreamController(FlightService flightService) {
+        this.flightService = flightService;
+    }
+
+    @GetMapping(value = "/stream/flights", produces = FlightBatchCodec.MEDIA_TYPE_VALUE)
+    public ResponseBodyEmitter streamFlightBatches() {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L); // no timeout, like the SSE stream
+
+        Disposable subscription = flightService.streamFlightBatches()
+                .publishOn(Schedulers.boundedElastic(), 1) // socket writes must not block the shared feed
+                .subscribe(frame -> {
+                    try {
+                        emitter.send(frame, FlightBatchCodec.MEDIA_TYPE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, emitter::completeWithError, emitter::complete);
+
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(e -> subscription.dispose());
+        return emitter;
+    }
+}
@@ -0,0 +1,108 @@
+package com.flighttracker.api.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint ({@code /actuator/flightcache}) summarizing every cache meter in
+ * one response: how reads were answered, tier latencies, Redis errors, payload sizes,
+ * and L1 evictions by cause. Meant for sizing {@code flight.cache.*.max-size} and
+ * TTLs; the same meters are available individually under {@code /actuator/metrics}.
+ */
+@Component
+@Endpoint(id = "flightcache")
+public class FlightCacheEndpoint {
+
+    // Caffeine's cache.* meters are tagged with the name passed to InMemoryFlightCache.bindMetrics
+    private static final Set<String> CACHE_NAMES = Set.of("l1", "l2");
+
+    private final MeterRegistry meterRegistry;
+
+    public FlightCacheEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> cacheMetrics() {
+        Map<String, List<Map<String, Object>>> meters = new TreeMap<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            if (isCacheMeter(meter.getId())) {
+                meters.computeIfAbsent(meter.getId().getName(), name -> new ArrayList<>()).add(describe(meter));
+            }
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("reads", readBreakdown());
+        response.put("meters", meters);
+        return response;
+    }
+
+    private static boolean isCacheMeter(Meter.Id id) {
+        return id.getName().startsWith("flight.cache")
+                || (id.getName().startsWith("cache.") && CACHE_NAMES.contains(id.getTag("cache")));
+    }
+
+    /**
+     * Share of single-key reads answered by each tier, from the flight.cache.get timers.
+     */
+    private Map<String, Object> readBreakdown() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Timer timer : meterRegistry.find("flight.cache.get").timers()) {
+            counts.merge(timer.getId().getTag("result"), timer.count(), Long::sum);
+        }
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+
+        Map<String, Object> breakdown = new LinkedHashMap<>();
+        breakdown.put("total", total);
+        counts.forEach((result, count) -> breakdown.put(result, total == 0 ? 0.0 : (double) count / total));
+        return breakdown;
+    }
+
+    private static Map<String, Object> describe(Meter meter) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Tag tag : meter.getId().getTags()) {
+            values.put(tag.getKey(), tag.getValue());
+        }
+
+        if (meter instanceof Timer timer) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            values.put("count", snapshot.count());
+            values.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+            values.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                values.put("p" + Math.round(percentile.percentile() * 100) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+            }
+        } else if (meter instanceof DistributionSummary summary) {
+            HistogramSnapshot snapshot = summary.takeSnapshot();
+            values.put("count", snapshot.count());
+            values.put("mean", snapshot.mean());
+            values.put("max", snapshot.max());
+        } else if (meter instanceof Counter counter) {
+            values.put("count", counter.count());
+        } else if (meter instanceof FunctionCounter counter) {
+            values.put("count", counter.count());
+        } else if (meter instanceof Gauge gauge) {
+            values.put("value", gauge.value());
+        }
+        return values;
+    }
+}
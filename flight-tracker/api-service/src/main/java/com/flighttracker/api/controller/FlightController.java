@@ -1,11 +1,13 @@
 package com.flighttracker.api.controller;
 
 import com.flighttracker.api.domain.Flight;
+import com.flighttracker.api.domain.FlightTrack;
 import com.flighttracker.api.service.FlightService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
@@ -42,6 +44,20 @@ public class FlightController {
         return ResponseEntity.ok(Map.of("flightId", id, "status", status));
     }
 
+    /**
+     * Recorded trail of a flight for drawing on the map, oldest point first.
+     * {@code since} (epoch millis) limits it to newer points, so a client can fetch
+     * the whole trail once and then only what was added.
+     */
+    @GetMapping("/{id}/track")
+    public ResponseEntity<FlightTrack> getFlightTrack(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") long since) {
+        return flightService.getTrack(id, since)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/{id}/metadata")
     public ResponseEntity<Map<String, Object>> getFlightMetadata(@PathVariable String id) {
         Map<String, Object> metadata = flightService.getFlightMetadata(id);
@@ -0,0 +1,32 @@
+package com.flighttracker.api.controller;
+
+import com.flighttracker.api.codec.FlightBatchCodec;
+import com.flighttracker.api.service.FlightService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux version of BatchStreamController. Frames are written and flushed one by
+ * one straight from the shared feed; a slow client only holds back its own
+ * connection, since the feed skips it to the newest batch.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBatchStreamController {
+
+    private final FlightService flightService;
+
+    public ReactiveBatchStreamController(FlightService flightService) {
+        this.flightService = flightService;
+    }
+
+    @GetMapping(value = "/stream/flights", produces = FlightBatchCodec.MEDIA_TYPE_VALUE)
+    public Mono<Void> streamFlightBatches(ServerHttpResponse response) {
+        response.getHeaders().setContentType(FlightBatchCodec.MEDIA_TYPE);
+        return response.writeAndFlushWith(flightService.streamFlightBatches()
+                .map(frame -> Mono.just(response.bufferFactory().wrap(frame))));
+    }
+}
@@ -1,6 +1,7 @@
 package com.flighttracker.api.controller;
 
 import com.flighttracker.api.domain.Flight;
+import com.flighttracker.api.domain.FlightPage;
 import com.flighttracker.api.service.FlightService;
 import com.flighttracker.common.dto.FlightResponse;
 import com.flighttracker.common.dto.FlightSearchResponse;
@@ -37,19 +38,15 @@ public class SearchController {
             size = 100;
         }
 
-        List<Flight> allFlights = flightService.searchFlights(query);
+        FlightPage result = flightService.searchFlights(query, page, size);
 
-        int totalResults = allFlights.size();
-        int fromIndex = Math.min(page * size, totalResults);
-        int toIndex = Math.min(fromIndex + size, totalResults);
-
-        List<FlightResponse> pagedFlights = allFlights.subList(fromIndex, toIndex).stream()
+        List<FlightResponse> pagedFlights = result.flights().stream()
                 .map(this::toFlightResponse)
                 .toList();
 
         FlightSearchResponse response = new FlightSearchResponse(
                 pagedFlights,
-                totalResults,
+                result.totalResults(),
                 page,
                 size,
                 query
@@ -93,6 +90,72 @@ public class SearchController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/flights/area")
+    public ResponseEntity<List<FlightResponse>> searchInArea(
+            @RequestParam double minLat,
+            @RequestParam double maxLat,
+            @RequestParam double minLon,
+            @RequestParam double maxLon) {
+
+        validateLatitude("minLat", minLat);
+        validateLatitude("maxLat", maxLat);
+        if (minLat > maxLat) {
+            throw new BadRequestException("minLat", "minLat cannot be greater than maxLat");
+        }
+
+        List<FlightResponse> response = flightService.searchInArea(minLat, maxLat, minLon, maxLon).stream()
+                .map(this::toFlightResponse)
+                .toList();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/flights/nearby")
+    public ResponseEntity<List<FlightResponse>> searchNearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        validateLatitude("lat", lat);
+        validateLongitude("lon", lon);
+        if (limit <= 0) {
+            throw new BadRequestException("limit", "Limit must be positive");
+        }
+        if (limit > 100) {
+            limit = 100;
+        }
+
+        List<Flight> flights;
+        if (radiusKm != null) {
+            if (!(radiusKm > 0)) {
+                throw new BadRequestException("radiusKm", "Radius must be positive");
+            }
+            flights = flightService.findNearest(lat, lon, limit, radiusKm);
+        } else {
+            flights = flightService.findNearest(lat, lon, limit);
+        }
+
+        List<FlightResponse> response = flights.stream()
+                .map(this::toFlightResponse)
+                .toList();
+
+        return ResponseEntity.ok(response);
+    }
+
+    private void validateLatitude(String field, double latitude) {
+        // Negated so NaN fails too
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new BadRequestException(field, "Latitude must be between -90 and 90");
+        }
+    }
+
+    private void validateLongitude(String field, double longitude) {
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new BadRequestException(field, "Longitude must be between -180 and 180");
+        }
+    }
+
     private FlightResponse toFlightResponse(Flight flight) {
         FlightResponse response = new FlightResponse();
         response.setFlightId(flight.getFlightId());
@@ -1,14 +1,24 @@
 package com.flighttracker.api.controller;
 
 import com.flighttracker.api.domain.Flight;
+import com.flighttracker.api.domain.Viewport;
+import com.flighttracker.api.service.FlightDeltaService;
+import com.flighttracker.api.service.FlightExtrapolationService;
 import com.flighttracker.api.service.FlightService;
+import com.flighttracker.api.service.ViewportStreamService;
+import com.flighttracker.common.exception.BadRequestException;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import reactor.core.publisher.Flux;
 
-import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -29,36 +39,144 @@ import java.util.List;
  *
  * As long as the client is connected, this method will keep pushing
  * updated flight positions until the stream is closed.
+ *
+ * With a {@code from} time (ISO-8601), /stream/flights and /stream/flights/area
+ * replay recorded snapshots from the snapshot log instead, e.g.
+ * {@code ?from=2024-05-01T14:00:00Z&to=2024-05-01T15:00:00Z&speed=10}.
+ * The stream completes at {@code to}, or at the newest recorded snapshot.
  */
 @RestController
 public class StreamController {
 
     private final FlightService flightService;
+    private final FlightDeltaService flightDeltaService;
+    private final FlightExtrapolationService flightExtrapolationService;
+    private final ViewportStreamService viewportStreamService;
 
-    public StreamController(FlightService flightService) {
+    public StreamController(FlightService flightService, FlightDeltaService flightDeltaService,
+                            FlightExtrapolationService flightExtrapolationService,
+                            ViewportStreamService viewportStreamService) {
         this.flightService = flightService;
+        this.flightDeltaService = flightDeltaService;
+        this.flightExtrapolationService = flightExtrapolationService;
+        this.viewportStreamService = viewportStreamService;
     }
 
     /**
-     * Streams all flight positions globally at 5-second intervals.
-     * OpenSky API has rate limits, so we use a longer interval.
+     * Streams all flight positions globally each time the shared snapshot refreshes.
+     * Connected clients share one upstream poll, so OpenSky rate limits don't scale with viewers.
      */
     @GetMapping(value = "/stream/flights", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<List<Flight>> streamFlights() {
-        return flightService.streamFlightUpdates(Duration.ofSeconds(5));
+    public Flux<List<Flight>> streamFlights(
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "1") double speed) {
+        if (from != null) {
+            long end = validateReplay(from, to, speed);
+            return flightService.replayFlightUpdates(from.toEpochMilli(), end, speed);
+        }
+        return flightService.streamFlightUpdates();
+    }
+
+    /**
+     * Streams the global fleet as deltas: a "snapshot" event with every flight on connect,
+     * then "delta" events listing only added, changed and removed flights per refresh.
+     * Event ids carry the sequence number so clients can detect gaps.
+     */
+    @GetMapping(value = "/stream/flights/delta", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamFlightDeltas() {
+        return flightDeltaService.streamDeltas();
+    }
+
+    /**
+     * Streams estimated positions of the global fleet several times a second, dead-reckoned
+     * between snapshots: a "fleet" event with the flight ids, then "frame" events whose
+     * position arrays follow that order. Positions snap back to reported data on every refresh.
+     */
+    @GetMapping(value = "/stream/flights/extrapolated", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamExtrapolatedFlights() {
+        return flightExtrapolationService.streamFrames();
     }
 
     /**
      * Streams flight positions within a geographic bounding box.
-     * Useful for tracking flights in a specific region.
+     * Useful for tracking flights in a specific region. Filtered locally from the shared feed;
+     * minLon greater than maxLon selects a box that crosses the antimeridian.
      */
     @GetMapping(value = "/stream/flights/area", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<List<Flight>> streamFlightsInArea(
             @RequestParam double minLat,
             @RequestParam double maxLat,
             @RequestParam double minLon,
-            @RequestParam double maxLon) {
-        return flightService.streamFlightsInArea(
-                Duration.ofSeconds(5), minLat, maxLat, minLon, maxLon);
+            @RequestParam double maxLon,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "1") double speed) {
+        if (from != null) {
+            long end = validateReplay(from, to, speed);
+            return flightService.replayFlightsInArea(from.toEpochMilli(), end, speed, minLat, maxLat, minLon, maxLon);
+        }
+        return flightService.streamFlightsInArea(minLat, maxLat, minLon, maxLon);
+    }
+
+    /**
+     * Streams only what the client's map can show: a "session" event with the session id,
+     * then a "view" event per refresh with the flights in the viewport, or cluster counts
+     * when zoomed out or crowded. The viewport starts as given here (default: whole world)
+     * and follows updates posted to /stream/flights/viewport/{sessionId}.
+     */
+    @GetMapping(value = "/stream/flights/viewport", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamViewport(
+            @RequestParam(defaultValue = "-90") double minLat,
+            @RequestParam(defaultValue = "90") double maxLat,
+            @RequestParam(defaultValue = "-180") double minLon,
+            @RequestParam(defaultValue = "180") double maxLon,
+            @RequestParam(defaultValue = "0") int zoom) {
+        Viewport viewport = new Viewport(minLat, maxLat, minLon, maxLon, zoom);
+        validateViewport(viewport);
+        return viewportStreamService.streamViewport(viewport);
+    }
+
+    /**
+     * Moves a connected viewport stream after the client pans or zooms.
+     * 204 when applied, 404 when the session has disconnected.
+     */
+    @PostMapping("/stream/flights/viewport/{sessionId}")
+    public ResponseEntity<Void> updateViewport(@PathVariable String sessionId, @RequestBody Viewport viewport) {
+        validateViewport(viewport);
+        return viewportStreamService.updateViewport(sessionId, viewport)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    private void validateViewport(Viewport viewport) {
+        if (viewport.minLat() < -90 || viewport.maxLat() > 90) {
+            throw new BadRequestException("minLat", "Latitude must be between -90 and 90");
+        }
+        if (viewport.minLat() > viewport.maxLat()) {
+            throw new BadRequestException("minLat", "minLat cannot be greater than maxLat");
+        }
+        if (Math.abs(viewport.minLon()) > 180 || Math.abs(viewport.maxLon()) > 180) {
+            throw new BadRequestException("minLon", "Longitude must be between -180 and 180");
+        }
+        if (viewport.zoom() < 0 || viewport.zoom() > Viewport.MAX_ZOOM) {
+            throw new BadRequestException("zoom", "Zoom must be between 0 and " + Viewport.MAX_ZOOM);
+        }
+    }
+
+    /**
+     * Checks replay parameters and returns the end of the range in epoch millis.
+     */
+    private long validateReplay(Instant from, Instant to, double speed) {
+        if (!flightService.isReplayAvailable()) {
+            throw new BadRequestException("from", "Replay needs flight.snapshot-log.enabled=true");
+        }
+        if (to != null && to.isBefore(from)) {
+            throw new BadRequestException("to", "to cannot be before from");
+        }
+        if (!(speed > 0) || Double.isInfinite(speed)) {
+            throw new BadRequestException("speed", "Speed must be positive");
+        }
+        return to != null ? to.toEpochMilli() : System.currentTimeMillis();
     }
 }
\ No newline at end of file
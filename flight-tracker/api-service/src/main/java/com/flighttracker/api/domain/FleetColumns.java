@@ -0,0 +1,350 @@
+package com.flighttracker.api.domain;
+
+import com.flighttracker.common.model.FlightStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structure-of-arrays representation of a fleet.
+ *
+ * Each flight is an ordinal into parallel primitive arrays; string fields are
+ * stored as int ids into one shared dictionary (id 0 is null). A 10k-aircraft
+ * fleet is a few dozen arrays instead of tens of thousands of small objects.
+ * Callers read fields through the ordinal accessors and only materialize
+ * {@link Flight} objects at the REST boundary with {@link #toFlight(int)}.
+ *
+ * Instances are immutable once built. The array getters expose the backing
+ * arrays for bulk scans and must be treated as read-only.
+ */
+public final class FleetColumns {
+
+    /**
+     * Dictionary-encoded string fields, in column order.
+     */
+    public enum StringField {
+        FLIGHT_NUMBER("flightNumber"),
+        CALLSIGN("callsign"),
+        DEPARTURE_AIRPORT_ICAO("departureAirportIcao"),
+        DESTINATION_AIRPORT_ICAO("destinationAirportIcao"),
+        DEPARTURE_AIRPORT_NAME("departureAirportName"),
+        DESTINATION_AIRPORT_NAME("destinationAirportName"),
+        SCHEDULED_DEPARTURE_TIME("scheduledDepartureTime"),
+        ACTUAL_DEPARTURE_TIME("actualDepartureTime"),
+        SCHEDULED_ARRIVAL_TIME("scheduledArrivalTime"),
+        ESTIMATED_ARRIVAL_TIME("estimatedArrivalTime");
+
+        private final String property;
+
+        StringField(String property) {
+            this.property = property;
+        }
+
+        /**
+         * Name of the matching {@link Flight} property, as it appears in JSON.
+         */
+        public String property() {
+            return property;
+        }
+    }
+
+    private static final StringField[] STRING_FIELDS = StringField.values();
+    private static final FlightStatus[] STATUSES = FlightStatus.values();
+    private static final byte NO_STATUS = -1;
+    private static final FleetColumns EMPTY = new Builder(0).build();
+
+    private final int size;
+    private final String[] flightIds;
+    private final String[] dictionary;
+    private final int[][] stringIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] altitudes;
+    private final double[] speeds;
+    private final double[] headings;
+    private final double[] verticalRates;
+    private final byte[] statuses;
+    private final long[] lastUpdated;
+
+    private FleetColumns(Builder builder) {
+        this.size = builder.size;
+        this.flightIds = Arrays.copyOf(builder.flightIds, size);
+        this.dictionary = builder.dictionary.toArray(new String[0]);
+        this.stringIds = new int[STRING_FIELDS.length][];
+        for (int f = 0; f < STRING_FIELDS.length; f++) {
+            this.stringIds[f] = Arrays.copyOf(builder.stringIds[f], size);
+        }
+        this.latitudes = Arrays.copyOf(builder.latitudes, size);
+        this.longitudes = Arrays.copyOf(builder.longitudes, size);
+        this.altitudes = Arrays.copyOf(builder.altitudes, size);
+        this.speeds = Arrays.copyOf(builder.speeds, size);
+        this.headings = Arrays.copyOf(builder.headings, size);
+        this.verticalRates = Arrays.copyOf(builder.verticalRates, size);
+        this.statuses = Arrays.copyOf(builder.statuses, size);
+        this.lastUpdated = Arrays.copyOf(builder.lastUpdated, size);
+    }
+
+    public static FleetColumns empty() {
+        return EMPTY;
+    }
+
+    public static FleetColumns of(List<Flight> flights) {
+        Builder builder = new Builder(flights.size());
+        for (Flight flight : flights) {
+            builder.add(flight);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String flightId(int ordinal) {
+        return flightIds[ordinal];
+    }
+
+    public String callsign(int ordinal) {
+        return string(StringField.CALLSIGN, ordinal);
+    }
+
+    public String string(StringField field, int ordinal) {
+        return dictionary[stringIds[field.ordinal()][ordinal]];
+    }
+
+    /**
+     * Dictionary id of a string field; equal ids mean equal strings within this fleet.
+     */
+    public int stringId(StringField field, int ordinal) {
+        return stringIds[field.ordinal()][ordinal];
+    }
+
+    public double latitude(int ordinal) {
+        return latitudes[ordinal];
+    }
+
+    public double longitude(int ordinal) {
+        return longitudes[ordinal];
+    }
+
+    public double altitude(int ordinal) {
+        return altitudes[ordinal];
+    }
+
+    public double speed(int ordinal) {
+        return speeds[ordinal];
+    }
+
+    /**
+     * True track in degrees clockwise from north, or NaN when the source didn't report one.
+     */
+    public double heading(int ordinal) {
+        return headings[ordinal];
+    }
+
+    /**
+     * Climb rate in metres per second; negative when descending, 0 when not reported.
+     */
+    public double verticalRate(int ordinal) {
+        return verticalRates[ordinal];
+    }
+
+    public FlightStatus status(int ordinal) {
+        byte status = statuses[ordinal];
+        return status == NO_STATUS ? null : STATUSES[status];
+    }
+
+    public long lastUpdated(int ordinal) {
+        return lastUpdated[ordinal];
+    }
+
+    /**
+     * Dictionary entries; index 0 is always null.
+     */
+    public String[] dictionary() {
+        return dictionary;
+    }
+
+    public int[] stringIds(StringField field) {
+        return stringIds[field.ordinal()];
+    }
+
+    public double[] latitudes() {
+        return latitudes;
+    }
+
+    public double[] longitudes() {
+        return longitudes;
+    }
+
+    public double[] altitudes() {
+        return altitudes;
+    }
+
+    public double[] speeds() {
+        return speeds;
+    }
+
+    public double[] headings() {
+        return headings;
+    }
+
+    public double[] verticalRates() {
+        return verticalRates;
+    }
+
+    public long[] lastUpdatedTimes() {
+        return lastUpdated;
+    }
+
+    /**
+     * Builds a standalone Flight for one ordinal. Meant for the REST boundary only.
+     */
+    public Flight toFlight(int ordinal) {
+        return new Flight(
+                flightIds[ordinal],
+                string(StringField.FLIGHT_NUMBER, ordinal),
+                string(StringField.CALLSIGN, ordinal),
+                string(StringField.DEPARTURE_AIRPORT_ICAO, ordinal),
+                string(StringField.DESTINATION_AIRPORT_ICAO, ordinal),
+                string(StringField.DEPARTURE_AIRPORT_NAME, ordinal),
+                string(StringField.DESTINATION_AIRPORT_NAME, ordinal),
+                string(StringField.SCHEDULED_DEPARTURE_TIME, ordinal),
+                string(StringField.ACTUAL_DEPARTURE_TIME, ordinal),
+                string(StringField.SCHEDULED_ARRIVAL_TIME, ordinal),
+                string(StringField.ESTIMATED_ARRIVAL_TIME, ordinal),
+                latitudes[ordinal],
+                longitudes[ordinal],
+                altitudes[ordinal],
+                speeds[ordinal],
+                status(ordinal),
+                lastUpdated[ordinal]);
+    }
+
+    /**
+     * Appends flights row by row into growable columns.
+     * Not thread-safe; {@link #build()} copies the columns to their final size.
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> dictionaryIds = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+
+        private int size;
+        private String[] flightIds;
+        private final int[][] stringIds = new int[STRING_FIELDS.length][];
+        private double[] latitudes;
+        private double[] longitudes;
+        private double[] altitudes;
+        private double[] speeds;
+        private double[] headings;
+        private double[] verticalRates;
+        private byte[] statuses;
+        private long[] lastUpdated;
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            dictionary.add(null);
+            flightIds = new String[capacity];
+            for (int f = 0; f < STRING_FIELDS.length; f++) {
+                stringIds[f] = new int[capacity];
+            }
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+            altitudes = new double[capacity];
+            speeds = new double[capacity];
+            headings = new double[capacity];
+            verticalRates = new double[capacity];
+            statuses = new byte[capacity];
+            lastUpdated = new long[capacity];
+        }
+
+        /**
+         * Adds a flight with position data only, as reported by OpenSky. Returns its ordinal.
+         */
+        public int add(String flightId, String callsign, double latitude, double longitude,
+                       double altitude, double speed, FlightStatus status, long updatedAt) {
+            if (size == flightIds.length) {
+                grow();
+            }
+            int ordinal = size++;
+            flightIds[ordinal] = flightId;
+            stringIds[StringField.CALLSIGN.ordinal()][ordinal] = idOf(callsign);
+            latitudes[ordinal] = latitude;
+            longitudes[ordinal] = longitude;
+            altitudes[ordinal] = altitude;
+            speeds[ordinal] = speed;
+            headings[ordinal] = Double.NaN;
+            verticalRates[ordinal] = 0.0;
+            statuses[ordinal] = status != null ? (byte) status.ordinal() : NO_STATUS;
+            lastUpdated[ordinal] = updatedAt;
+            return ordinal;
+        }
+
+        public int add(Flight flight) {
+            int ordinal = add(flight.getFlightId(), flight.getCallsign(), flight.getLatitude(),
+                    flight.getLongitude(), flight.getAltitude(), flight.getSpeed(),
+                    flight.getStatus(), flight.getLastUpdated());
+            set(StringField.FLIGHT_NUMBER, ordinal, flight.getFlightNumber());
+            set(StringField.DEPARTURE_AIRPORT_ICAO, ordinal, flight.getDepartureAirportIcao());
+            set(StringField.DESTINATION_AIRPORT_ICAO, ordinal, flight.getDestinationAirportIcao());
+            set(StringField.DEPARTURE_AIRPORT_NAME, ordinal, flight.getDepartureAirportName());
+            set(StringField.DESTINATION_AIRPORT_NAME, ordinal, flight.getDestinationAirportName());
+            set(StringField.SCHEDULED_DEPARTURE_TIME, ordinal, flight.getScheduledDepartureTime());
+            set(StringField.ACTUAL_DEPARTURE_TIME, ordinal, flight.getActualDepartureTime());
+            set(StringField.SCHEDULED_ARRIVAL_TIME, ordinal, flight.getScheduledArrivalTime());
+            set(StringField.ESTIMATED_ARRIVAL_TIME, ordinal, flight.getEstimatedArrivalTime());
+            return ordinal;
+        }
+
+        public void set(StringField field, int ordinal, String value) {
+            stringIds[field.ordinal()][ordinal] = idOf(value);
+        }
+
+        /**
+         * Sets the direction of travel; flights added without it have no heading and a
+         * vertical rate of 0.
+         */
+        public void setMotion(int ordinal, double heading, double verticalRate) {
+            headings[ordinal] = heading;
+            verticalRates[ordinal] = verticalRate;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public FleetColumns build() {
+            return new FleetColumns(this);
+        }
+
+        private int idOf(String value) {
+            if (value == null) {
+                return 0;
+            }
+            return dictionaryIds.computeIfAbsent(value, v -> {
+                dictionary.add(v);
+                return dictionary.size() - 1;
+            });
+        }
+
+        private void grow() {
+            int capacity = flightIds.length * 2;
+            flightIds = Arrays.copyOf(flightIds, capacity);
+            for (int f = 0; f < STRING_FIELDS.length; f++) {
+                stringIds[f] = Arrays.copyOf(stringIds[f], capacity);
+            }
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            altitudes = Arrays.copyOf(altitudes, capacity);
+            speeds = Arrays.copyOf(speeds, capacity);
+            headings = Arrays.copyOf(headings, capacity);
+            verticalRates = Arrays.copyOf(verticalRates, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            lastUpdated = Arrays.copyOf(lastUpdated, capacity);
+        }
+    }
+}
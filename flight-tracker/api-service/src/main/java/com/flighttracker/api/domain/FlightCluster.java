@@ -0,0 +1,12 @@
+package com.flighttracker.api.domain;
+
+/**
+ * Flights grouped for display at a low zoom level: how many there are and
+ * their mean position.
+ */
+public record FlightCluster(
+        double latitude,
+        double longitude,
+        int count
+) {
+}
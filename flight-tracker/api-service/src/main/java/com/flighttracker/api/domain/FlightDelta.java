@@ -0,0 +1,22 @@
+package com.flighttracker.api.domain;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes between two consecutive fleet snapshots, keyed by flightId.
+ * {@code updated} entries hold the flightId, only the fields that changed, and
+ * the flight's lastUpdated.
+ */
+public record FlightDelta(
+        long sequence,
+        long timestamp,
+        List<Flight> added,
+        List<Map<String, Object>> updated,
+        List<String> removed
+) {
+
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,11 @@
+package com.flighttracker.api.domain;
+
+import java.util.List;
+
+/**
+ * One page of search results plus the total number of matches.
+ */
+public record FlightPage(
+        List<Flight> flights,
+        int totalResults
+) {}
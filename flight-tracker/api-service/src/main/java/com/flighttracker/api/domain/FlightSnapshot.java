@@ -0,0 +1,173 @@
+package com.flighttracker.api.domain;
+
+import com.flighttracker.api.domain.FleetColumns.StringField;
+import com.flighttracker.api.index.FlightLookupIndex;
+import com.flighttracker.api.index.NgramIndex;
+import com.flighttracker.api.index.SpatialGridIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable view of the whole fleet as returned by one upstream poll.
+ * Snapshots are swapped atomically by the refresher and never modified afterwards,
+ * so readers can hold on to one for the duration of a request without locking.
+ *
+ * The fleet is held in columnar form (see {@link FleetColumns}); indexes, diffs and
+ * encoders work on ordinals and primitive columns. Flight objects are only created
+ * at the REST boundary through {@link #get(int)}, {@link #select(int[])} and
+ * {@link #getFlights()}.
+ *
+ * Lookup indexes are built once when the snapshot is created, on the refresher
+ * thread, so reads never pay for them.
+ */
+public final class FlightSnapshot {
+
+    private static final FlightSnapshot EMPTY = new FlightSnapshot(FleetColumns.empty(), 0L);
+    private static final StringField[] SEARCHABLE_FIELDS = {
+            StringField.CALLSIGN,
+            StringField.FLIGHT_NUMBER,
+            StringField.DEPARTURE_AIRPORT_ICAO,
+            StringField.DESTINATION_AIRPORT_ICAO,
+            StringField.DEPARTURE_AIRPORT_NAME,
+            StringField.DESTINATION_AIRPORT_NAME
+    };
+
+    private final FleetColumns fleet;
+    private final long fetchedAt;
+    private final FlightLookupIndex lookupIndex;
+    private final SpatialGridIndex spatialIndex;
+    private final NgramIndex textIndex;
+    private final NgramIndex callsignIndex;
+
+    // Materialized on first full-fleet read, then shared by every JSON subscriber of this snapshot
+    private volatile List<Flight> flights;
+
+    public FlightSnapshot(FleetColumns fleet, long fetchedAt) {
+        this.fleet = fleet;
+        this.fetchedAt = fetchedAt;
+        this.lookupIndex = FlightLookupIndex.build(fleet);
+        this.spatialIndex = SpatialGridIndex.build(fleet);
+        this.textIndex = NgramIndex.build(searchableRows(fleet));
+        this.callsignIndex = NgramIndex.build(callsignRows(fleet));
+    }
+
+    public FlightSnapshot(List<Flight> flights, long fetchedAt) {
+        this(FleetColumns.of(flights), fetchedAt);
+    }
+
+    public static FlightSnapshot empty() {
+        return EMPTY;
+    }
+
+    public FleetColumns getFleet() {
+        return fleet;
+    }
+
+    /**
+     * Materializes the whole fleet. Built once per snapshot on first use.
+     */
+    public List<Flight> getFlights() {
+        List<Flight> materialized = flights;
+        if (materialized == null) {
+            Flight[] all = new Flight[fleet.size()];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = fleet.toFlight(i);
+            }
+            materialized = List.copyOf(Arrays.asList(all));
+            flights = materialized;
+        }
+        return materialized;
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public int size() {
+        return fleet.size();
+    }
+
+    public boolean isEmpty() {
+        return fleet.size() == 0;
+    }
+
+    public Flight get(int ordinal) {
+        return fleet.toFlight(ordinal);
+    }
+
+    public FlightLookupIndex getLookupIndex() {
+        return lookupIndex;
+    }
+
+    public SpatialGridIndex getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    /**
+     * Substring index over id, callsign, flight number and airport codes and names.
+     */
+    public NgramIndex getTextIndex() {
+        return textIndex;
+    }
+
+    /**
+     * Substring index over callsigns only.
+     */
+    public NgramIndex getCallsignIndex() {
+        return callsignIndex;
+    }
+
+    /**
+     * Finds a flight by icao24 code, falling back to callsign. Case-insensitive.
+     */
+    public Optional<Flight> findById(String id) {
+        int ordinal = lookupIndex.findByIcao24(id);
+        if (ordinal < 0) {
+            ordinal = lookupIndex.findByCallsign(id);
+        }
+        return ordinal >= 0 ? Optional.of(fleet.toFlight(ordinal)) : Optional.empty();
+    }
+
+    /**
+     * Materializes the flights for a set of ordinals, preserving their order.
+     */
+    public List<Flight> select(int[] ordinals) {
+        List<Flight> selected = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            selected.add(fleet.toFlight(ordinal));
+        }
+        return selected;
+    }
+
+    private static List<String[]> searchableRows(FleetColumns fleet) {
+        List<String[]> rows = new ArrayList<>(fleet.size());
+        for (int i = 0; i < fleet.size(); i++) {
+            String[] row = new String[SEARCHABLE_FIELDS.length + 1];
+            row[0] = fleet.flightId(i);
+            for (int f = 0; f < SEARCHABLE_FIELDS.length; f++) {
+                row[f + 1] = fleet.string(SEARCHABLE_FIELDS[f], i);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<String[]> callsignRows(FleetColumns fleet) {
+        List<String[]> rows = new ArrayList<>(fleet.size());
+        for (int i = 0; i < fleet.size(); i++) {
+            rows.add(new String[]{fleet.callsign(i)});
+        }
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightSnapshot{" +
+                "flights=" + fleet.size() +
+                ", fetchedAt=" + fetchedAt +
+                '}';
+    }
+}
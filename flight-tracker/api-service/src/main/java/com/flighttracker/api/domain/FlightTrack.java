@@ -0,0 +1,19 @@
+package com.flighttracker.api.domain;
+
+/**
+ * Recorded positions of one flight, oldest first, as parallel arrays: point i is
+ * (timestamps[i], latitudes[i], longitudes[i], altitudes[i]). Timestamps are epoch
+ * milliseconds; altitudes are metres.
+ */
+public record FlightTrack(
+        String flightId,
+        long[] timestamps,
+        double[] latitudes,
+        double[] longitudes,
+        double[] altitudes
+) {
+
+    public int size() {
+        return timestamps.length;
+    }
+}
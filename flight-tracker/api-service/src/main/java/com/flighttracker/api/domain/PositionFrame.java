@@ -0,0 +1,16 @@
+package com.flighttracker.api.domain;
+
+/**
+ * Estimated positions of the whole fleet at one instant, as parallel arrays in
+ * the order of the flight ids sent for the same {@code sequence}. Latitude and
+ * longitude are degrees, altitude metres; floats are accurate to a couple of metres
+ * at half the size on the wire.
+ */
+public record PositionFrame(
+        long sequence,
+        long timestamp,
+        float[] latitudes,
+        float[] longitudes,
+        float[] altitudes
+) {
+}
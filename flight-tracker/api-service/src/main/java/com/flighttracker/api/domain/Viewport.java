@@ -0,0 +1,24 @@
+package com.flighttracker.api.domain;
+
+/**
+ * The map area a stream client is showing, sent when it connects and whenever
+ * it pans or zooms. {@code zoom} is the web-map zoom level (0 = whole world in
+ * one 256 px tile). A box with {@code minLon > maxLon} crosses the antimeridian.
+ */
+public record Viewport(
+        double minLat,
+        double maxLat,
+        double minLon,
+        double maxLon,
+        int zoom
+) {
+
+    public static final int MAX_ZOOM = 22;
+
+    /**
+     * Longitude width of the box in degrees, accounting for the antimeridian.
+     */
+    public double lonSpan() {
+        return minLon <= maxLon ? maxLon - minLon : maxLon - minLon + 360;
+    }
+}
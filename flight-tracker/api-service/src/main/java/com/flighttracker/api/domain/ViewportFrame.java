@@ -0,0 +1,16 @@
+package com.flighttracker.api.domain;
+
+import java.util.List;
+
+/**
+ * What one stream client should render for its viewport: either the flights
+ * themselves or, when zoomed out or crowded, clusters of them. {@code total} is
+ * the number of flights in the viewport either way.
+ */
+public record ViewportFrame(
+        long timestamp,
+        int total,
+        List<Flight> flights,
+        List<FlightCluster> clusters
+) {
+}
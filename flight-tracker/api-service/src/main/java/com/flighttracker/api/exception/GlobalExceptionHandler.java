@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.MissingRequestValueException;
 
 import java.time.Instant;
 import java.util.Map;
@@ -54,6 +55,21 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    /**
+     * WebFlux counterpart of MissingServletRequestParameterException, for
+     * spring.main.web-application-type=reactive.
+     */
+    @ExceptionHandler(MissingRequestValueException.class)
+    public ResponseEntity<Map<String, Object>> handleMissingValue(MissingRequestValueException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of(
+                        "error", "Missing required parameter",
+                        "parameter", ex.getName(),
+                        "message", ex.getMessage(),
+                        "timestamp", Instant.now().toString()
+                ));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
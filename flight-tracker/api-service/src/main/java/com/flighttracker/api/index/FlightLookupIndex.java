@@ -0,0 +1,146 @@
+package com.flighttracker.api.index;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.FleetColumns.StringField;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hash indexes for exact lookups over one fleet snapshot.
+ * Entries are ordinals into the snapshot's fleet columns, so the index holds no
+ * per-flight objects beyond its keys. Built once per snapshot and read-only afterwards.
+ *
+ * icao24 and callsign keys are case-insensitive; airport keys match the stored
+ * ICAO code exactly, as airport codes are already uppercase.
+ */
+public final class FlightLookupIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, Integer> byIcao24;
+    private final Map<String, Integer> byCallsign;
+    private final Map<String, int[]> byDeparture;
+    private final Map<String, int[]> byArrival;
+    private final Map<String, int[]> byAirport;
+
+    private FlightLookupIndex(Map<String, Integer> byIcao24, Map<String, Integer> byCallsign,
+                              Map<String, int[]> byDeparture, Map<String, int[]> byArrival,
+                              Map<String, int[]> byAirport) {
+        this.byIcao24 = byIcao24;
+        this.byCallsign = byCallsign;
+        this.byDeparture = byDeparture;
+        this.byArrival = byArrival;
+        this.byAirport = byAirport;
+    }
+
+    public static FlightLookupIndex build(FleetColumns fleet) {
+        int count = fleet.size();
+        int capacity = Math.max(16, count * 4 / 3 + 1);
+        Map<String, Integer> byIcao24 = new HashMap<>(capacity);
+        Map<String, Integer> byCallsign = new HashMap<>(capacity);
+
+        // Airport postings are grouped by dictionary id first, so each row costs an array write
+        String[] dictionary = fleet.dictionary();
+        int[] callsigns = fleet.stringIds(StringField.CALLSIGN);
+        int[] departureIds = fleet.stringIds(StringField.DEPARTURE_AIRPORT_ICAO);
+        int[] arrivalIds = fleet.stringIds(StringField.DESTINATION_AIRPORT_ICAO);
+        IntList[] departures = new IntList[dictionary.length];
+        IntList[] arrivals = new IntList[dictionary.length];
+        IntList[] airports = new IntList[dictionary.length];
+
+        for (int i = 0; i < count; i++) {
+            // First occurrence wins, matching the order a linear scan would find
+            String icao24 = fleet.flightId(i);
+            if (icao24 != null) {
+                byIcao24.putIfAbsent(normalize(icao24), i);
+            }
+            String callsign = dictionary[callsigns[i]];
+            if (callsign != null && !callsign.isEmpty()) {
+                byCallsign.putIfAbsent(normalize(callsign), i);
+            }
+
+            int departure = departureIds[i];
+            int arrival = arrivalIds[i];
+            if (departure != 0) {
+                append(departures, departure, i);
+                append(airports, departure, i);
+            }
+            if (arrival != 0) {
+                append(arrivals, arrival, i);
+                if (arrival != departure) {
+                    append(airports, arrival, i);
+                }
+            }
+        }
+
+        return new FlightLookupIndex(byIcao24, byCallsign,
+                toPostings(departures, dictionary), toPostings(arrivals, dictionary),
+                toPostings(airports, dictionary));
+    }
+
+    /**
+     * Returns the ordinal of the flight with this icao24 code, or -1.
+     */
+    public int findByIcao24(String icao24) {
+        return find(byIcao24, icao24);
+    }
+
+    /**
+     * Returns the ordinal of the first flight with this callsign, or -1.
+     */
+    public int findByCallsign(String callsign) {
+        return find(byCallsign, callsign);
+    }
+
+    /**
+     * Ordinals of flights departing from the airport, in snapshot order.
+     */
+    public int[] departingFrom(String icao) {
+        return icao == null ? NONE : byDeparture.getOrDefault(icao, NONE);
+    }
+
+    /**
+     * Ordinals of flights arriving at the airport, in snapshot order.
+     */
+    public int[] arrivingAt(String icao) {
+        return icao == null ? NONE : byArrival.getOrDefault(icao, NONE);
+    }
+
+    /**
+     * Ordinals of flights departing from or arriving at the airport, in snapshot order.
+     */
+    public int[] servingAirport(String icao) {
+        return icao == null ? NONE : byAirport.getOrDefault(icao, NONE);
+    }
+
+    private static int find(Map<String, Integer> index, String key) {
+        if (key == null) {
+            return -1;
+        }
+        Integer ordinal = index.get(normalize(key));
+        return ordinal != null ? ordinal : -1;
+    }
+
+    private static String normalize(String key) {
+        return key.toUpperCase(Locale.ROOT);
+    }
+
+    private static void append(IntList[] lists, int id, int ordinal) {
+        if (lists[id] == null) {
+            lists[id] = new IntList();
+        }
+        lists[id].add(ordinal);
+    }
+
+    private static Map<String, int[]> toPostings(IntList[] lists, String[] dictionary) {
+        Map<String, int[]> postings = new HashMap<>();
+        for (int id = 1; id < lists.length; id++) {
+            if (lists[id] != null) {
+                postings.put(dictionary[id], lists[id].toArray());
+            }
+        }
+        return postings;
+    }
+}
@@ -0,0 +1,123 @@
+package com.flighttracker.api.index;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive substring index over a few text fields per flight.
+ *
+ * Every 1-, 2- and 3-character gram of each lowercased field maps to a sorted
+ * posting list of flight ordinals. Queries of up to three characters are answered
+ * straight from one posting list; longer queries take the shortest posting list
+ * among their trigrams and verify those candidates against the pre-lowercased
+ * fields, so no per-flight strings are created at query time.
+ */
+public final class NgramIndex {
+
+    private static final int MAX_GRAM = 3;
+    private static final int[] NONE = new int[0];
+
+    private final String[][] fields;
+    private final Map<Long, int[]> postings;
+
+    private NgramIndex(String[][] fields, Map<Long, int[]> postings) {
+        this.fields = fields;
+        this.postings = postings;
+    }
+
+    /**
+     * Builds the index from raw field values, one array per flight in snapshot order.
+     * Null values are allowed and never match.
+     */
+    public static NgramIndex build(List<String[]> rawFields) {
+        String[][] fields = new String[rawFields.size()][];
+        Map<Long, IntList> lists = new HashMap<>();
+
+        for (int ordinal = 0; ordinal < fields.length; ordinal++) {
+            String[] raw = rawFields.get(ordinal);
+            String[] normalized = new String[raw.length];
+            for (int f = 0; f < raw.length; f++) {
+                if (raw[f] == null || raw[f].isEmpty()) {
+                    continue;
+                }
+                String text = normalize(raw[f]);
+                normalized[f] = text;
+
+                for (int start = 0; start < text.length(); start++) {
+                    for (int n = 1; n <= MAX_GRAM && start + n <= text.length(); n++) {
+                        IntList list = lists.computeIfAbsent(gramKey(text, start, n), k -> new IntList(4));
+                        // Ordinals arrive in ascending order, so a duplicate can only be the last entry
+                        if (list.size() == 0 || list.get(list.size() - 1) != ordinal) {
+                            list.add(ordinal);
+                        }
+                    }
+                }
+            }
+            fields[ordinal] = normalized;
+        }
+
+        Map<Long, int[]> postings = new HashMap<>(Math.max(16, lists.size() * 4 / 3 + 1));
+        lists.forEach((key, list) -> postings.put(key, list.toArray()));
+        return new NgramIndex(fields, postings);
+    }
+
+    /**
+     * Ordinals of flights where any indexed field contains the query, in snapshot order.
+     */
+    public int[] search(String query) {
+        if (query == null || query.isEmpty()) {
+            return NONE;
+        }
+        String needle = normalize(query);
+
+        if (needle.length() <= MAX_GRAM) {
+            return postings.getOrDefault(gramKey(needle, 0, needle.length()), NONE);
+        }
+
+        // Any match must contain every trigram of the query, so the rarest one bounds the candidates
+        int[] candidates = null;
+        for (int start = 0; start + MAX_GRAM <= needle.length(); start++) {
+            int[] posting = postings.get(gramKey(needle, start, MAX_GRAM));
+            if (posting == null) {
+                return NONE;
+            }
+            if (candidates == null || posting.length < candidates.length) {
+                candidates = posting;
+            }
+        }
+
+        IntList matches = new IntList();
+        for (int ordinal : candidates) {
+            if (containsInAnyField(fields[ordinal], needle)) {
+                matches.add(ordinal);
+            }
+        }
+        return matches.toArray();
+    }
+
+    private static boolean containsInAnyField(String[] values, String needle) {
+        for (String value : values) {
+            if (value != null && value.contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Packs up to three UTF-16 chars and the gram length into one long.
+     */
+    private static long gramKey(String text, int start, int length) {
+        long key = (long) length << 48;
+        for (int i = 0; i < length; i++) {
+            key |= (long) text.charAt(start + i) << (32 - 16 * i);
+        }
+        return key;
+    }
+}
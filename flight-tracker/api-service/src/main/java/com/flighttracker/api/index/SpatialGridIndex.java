@@ -0,0 +1,289 @@
+package com.flighttracker.api.index;
+
+import com.flighttracker.api.domain.FleetColumns;
+
+import java.util.Arrays;
+
+/**
+ * Uniform latitude/longitude grid over one fleet snapshot.
+ * Answers bounding-box, radius and k-nearest queries by visiting only the cells
+ * that can contain matches, then checking exact coordinates.
+ *
+ * Cells are stored in compressed form: one {@code int[]} of ordinals sorted by cell
+ * and one offsets array, so the whole grid is three primitive arrays regardless
+ * of fleet size. Longitudes wrap at the antimeridian.
+ */
+public final class SpatialGridIndex {
+
+    public static final double DEFAULT_CELL_DEGREES = 1.0;
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180.0;
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int cols;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] cellStart;
+    private final int[] cellOrdinals;
+
+    private SpatialGridIndex(double cellDegrees, int rows, int cols, double[] latitudes, double[] longitudes,
+                             int[] cellStart, int[] cellOrdinals) {
+        this.cellDegrees = cellDegrees;
+        this.rows = rows;
+        this.cols = cols;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.cellStart = cellStart;
+        this.cellOrdinals = cellOrdinals;
+    }
+
+    public static SpatialGridIndex build(FleetColumns fleet) {
+        return build(fleet, DEFAULT_CELL_DEGREES);
+    }
+
+    /**
+     * Latitudes are read from the fleet's column in place; only longitudes are copied,
+     * normalized to [-180, 180].
+     */
+    public static SpatialGridIndex build(FleetColumns fleet, double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be in (0, 90] degrees: " + cellDegrees);
+        }
+
+        int rows = (int) Math.ceil(180.0 / cellDegrees);
+        int cols = (int) Math.ceil(360.0 / cellDegrees);
+        int count = fleet.size();
+
+        double[] latitudes = fleet.latitudes();
+        double[] rawLongitudes = fleet.longitudes();
+        double[] longitudes = new double[count];
+        int[] cells = new int[count];
+        int[] cellStart = new int[rows * cols + 1];
+
+        // Counting sort by cell: count, prefix-sum, then place
+        for (int i = 0; i < count; i++) {
+            longitudes[i] = normalizeLongitude(rawLongitudes[i]);
+            cells[i] = row(latitudes[i], cellDegrees, rows) * cols + col(longitudes[i], cellDegrees, cols);
+            cellStart[cells[i] + 1]++;
+        }
+        for (int c = 0; c < rows * cols; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] cursor = Arrays.copyOf(cellStart, rows * cols);
+        int[] cellOrdinals = new int[count];
+        for (int i = 0; i < count; i++) {
+            cellOrdinals[cursor[cells[i]]++] = i;
+        }
+
+        return new SpatialGridIndex(cellDegrees, rows, cols, latitudes, longitudes, cellStart, cellOrdinals);
+    }
+
+    /**
+     * Ordinals of flights inside the box, in snapshot order.
+     * A box with {@code minLon > maxLon} crosses the antimeridian.
+     */
+    public int[] withinBox(double minLat, double maxLat, double minLon, double maxLon) {
+        if (minLat > maxLat) {
+            return new int[0];
+        }
+        minLon = normalizeLongitude(minLon);
+        maxLon = normalizeLongitude(maxLon);
+        boolean wraps = minLon > maxLon;
+
+        IntList result = new IntList();
+        int r0 = row(minLat, cellDegrees, rows);
+        int r1 = row(maxLat, cellDegrees, rows);
+        int c0 = col(minLon, cellDegrees, cols);
+        int c1 = col(maxLon, cellDegrees, cols);
+        int colSpan = wraps ? Math.min(cols, (cols - c0) + c1 + 1) : c1 - c0 + 1;
+
+        for (int r = r0; r <= r1; r++) {
+            for (int step = 0; step < colSpan; step++) {
+                int cell = r * cols + (c0 + step) % cols;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int ordinal = cellOrdinals[k];
+                    double lat = latitudes[ordinal];
+                    double lon = longitudes[ordinal];
+                    boolean lonInside = wraps ? (lon >= minLon || lon <= maxLon) : (lon >= minLon && lon <= maxLon);
+                    if (lat >= minLat && lat <= maxLat && lonInside) {
+                        result.add(ordinal);
+                    }
+                }
+            }
+        }
+        return result.toSortedArray();
+    }
+
+    /**
+     * Ordinals of flights within {@code radiusKm} great-circle distance of the point, in snapshot order.
+     */
+    public int[] withinRadius(double lat, double lon, double radiusKm) {
+        if (radiusKm < 0) {
+            return new int[0];
+        }
+        lon = normalizeLongitude(lon);
+
+        double deltaLat = radiusKm / KM_PER_DEGREE;
+        double minLat = Math.max(-90.0, lat - deltaLat);
+        double maxLat = Math.min(90.0, lat + deltaLat);
+
+        // Widest longitude span of a spherical cap; covers everything once the cap reaches a pole
+        double minLon = -180.0;
+        double maxLon = 180.0;
+        double angular = radiusKm / EARTH_RADIUS_KM;
+        double sinSpan = Math.sin(angular) / Math.cos(Math.toRadians(lat));
+        if (lat - deltaLat > -90.0 && lat + deltaLat < 90.0 && angular < Math.PI / 2 && sinSpan < 1.0) {
+            double deltaLon = Math.toDegrees(Math.asin(sinSpan));
+            minLon = normalizeLongitude(lon - deltaLon);
+            maxLon = normalizeLongitude(lon + deltaLon);
+        }
+
+        int[] candidates = withinBox(minLat, maxLat, minLon, maxLon);
+        IntList result = new IntList(candidates.length);
+        for (int ordinal : candidates) {
+            if (distanceKm(lat, lon, latitudes[ordinal], longitudes[ordinal]) <= radiusKm) {
+                result.add(ordinal);
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Ordinals of the {@code k} flights closest to the point, nearest first.
+     * Searches rings of cells outward and stops once no unvisited cell can hold a closer flight.
+     */
+    public int[] nearest(double lat, double lon, int k) {
+        return nearest(lat, lon, k, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Ordinals of the {@code k} flights closest to the point and within {@code maxKm}
+     * of it, nearest first. Stops as soon as the unvisited cells are all farther away.
+     */
+    public int[] nearest(double lat, double lon, int k, double maxKm) {
+        int count = latitudes.length;
+        k = Math.min(k, count);
+        if (k <= 0) {
+            return new int[0];
+        }
+        lon = normalizeLongitude(lon);
+
+        int[] best = new int[k];
+        double[] bestDistance = new double[k];
+        int found = 0;
+        long[] visited = new long[(rows * cols + 63) / 64];
+
+        int centerRow = row(lat, cellDegrees, rows);
+        int centerCol = col(lon, cellDegrees, cols);
+
+        for (int ring = 0; ; ring++) {
+            for (int dr = -ring; dr <= ring; dr++) {
+                int r = centerRow + dr;
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                for (int dc = -ring; dc <= ring; dc++) {
+                    if (Math.abs(dr) != ring && Math.abs(dc) != ring) {
+                        continue; // interior cells were visited by an earlier ring
+                    }
+                    int cell = r * cols + Math.floorMod(centerCol + dc, cols);
+                    if ((visited[cell >>> 6] & (1L << cell)) != 0) {
+                        continue;
+                    }
+                    visited[cell >>> 6] |= 1L << cell;
+
+                    for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+                        int ordinal = cellOrdinals[p];
+                        double distance = distanceKm(lat, lon, latitudes[ordinal], longitudes[ordinal]);
+                        if (distance > maxKm) {
+                            continue;
+                        }
+                        if (found < k) {
+                            found = insertSorted(best, bestDistance, found, ordinal, distance);
+                        } else if (distance < bestDistance[k - 1]) {
+                            insertSorted(best, bestDistance, k - 1, ordinal, distance);
+                        }
+                    }
+                }
+            }
+
+            boolean coversAll = centerRow - ring <= 0 && centerRow + ring >= rows - 1 && 2 * ring + 1 >= cols;
+            if (coversAll) {
+                break;
+            }
+            double outside = outsideBoundKm(lat, lon, centerRow, centerCol, ring);
+            if (outside > maxKm || (found == k && outside >= bestDistance[k - 1])) {
+                break;
+            }
+        }
+        return Arrays.copyOf(best, found);
+    }
+
+    /**
+     * Lower bound on the distance from the point to any cell outside the searched window.
+     */
+    private double outsideBoundKm(double lat, double lon, int centerRow, int centerCol, int ring) {
+        double southEdge = (centerRow - ring) * cellDegrees - 90.0;
+        double northEdge = (centerRow + ring + 1) * cellDegrees - 90.0;
+        double latGap = Math.min(centerRow - ring <= 0 ? Double.MAX_VALUE : lat - southEdge,
+                centerRow + ring >= rows - 1 ? Double.MAX_VALUE : northEdge - lat);
+        double bound = latGap * KM_PER_DEGREE;
+
+        if (2 * ring + 1 < cols) {
+            double westEdge = (centerCol - ring) * cellDegrees - 180.0;
+            double eastEdge = (centerCol + ring + 1) * cellDegrees - 180.0;
+            double lonGap = Math.min(lon - westEdge, eastEdge - lon);
+            // Closest approach of a great circle to a meridian lonGap degrees away
+            double meridianBound = lonGap >= 90.0
+                    ? (90.0 - Math.abs(lat)) * KM_PER_DEGREE
+                    : Math.asin(Math.cos(Math.toRadians(lat)) * Math.sin(Math.toRadians(lonGap))) * EARTH_RADIUS_KM;
+            bound = Math.min(bound, meridianBound);
+        }
+        return bound;
+    }
+
+    private static int insertSorted(int[] ordinals, double[] distances, int size, int ordinal, double distance) {
+        int i = size;
+        while (i > 0 && distances[i - 1] > distance) {
+            if (i < ordinals.length) {
+                ordinals[i] = ordinals[i - 1];
+                distances[i] = distances[i - 1];
+            }
+            i--;
+        }
+        ordinals[i] = ordinal;
+        distances[i] = distance;
+        return Math.min(size + 1, ordinals.length);
+    }
+
+    /**
+     * Haversine great-circle distance in kilometres.
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static double normalizeLongitude(double lon) {
+        if (lon >= -180.0 && lon <= 180.0) {
+            return lon;
+        }
+        return ((lon + 180.0) % 360.0 + 360.0) % 360.0 - 180.0;
+    }
+
+    private static int row(double lat, double cellDegrees, int rows) {
+        int r = (int) Math.floor((lat + 90.0) / cellDegrees);
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+
+    private static int col(double lon, double cellDegrees, int cols) {
+        int c = (int) Math.floor((lon + 180.0) / cellDegrees);
+        return Math.max(0, Math.min(cols - 1, c));
+    }
+}
@@ -0,0 +1,198 @@
+package com.flighttracker.api.integration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.handler.timeout.ReadTimeoutException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.PrematureCloseException;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the WebClients used for upstream providers (OpenSky API and auth).
+ * <p>
+ * They share one Reactor Netty connection pool, sized and timed out per
+ * {@code upstream.http.*}, ask for gzip, and buffer decoded bodies up to
+ * {@code max-in-memory-bytes}. Bodies streamed as DataBuffers aren't subject to
+ * that limit.
+ * <p>
+ * Each exchange is measured from request to the end of its body, tagged with the
+ * client name:
+ * <ul>
+ *   <li>{@code upstream.http.requests} timer (client, method, status, outcome)</li>
+ *   <li>{@code upstream.http.response.bytes} summary of decoded body sizes</li>
+ *   <li>{@code upstream.http.errors} counter (client, type=timeout|connect|closed|other)</li>
+ * </ul>
+ * Reactor Netty's own pool and wire-level meters are published too, under
+ * {@code reactor.netty.*}.
+ */
+@Component
+public class UpstreamWebClients {
+
+    private final WebClient.Builder builder;
+    private final MeterRegistry meterRegistry;
+    private final ConnectionProvider connectionProvider;
+    private final ReactorClientHttpConnector connector;
+    private final int maxInMemoryBytes;
+
+    public UpstreamWebClients(
+            WebClient.Builder builder,
+            MeterRegistry meterRegistry,
+            @Value("${upstream.http.pool.max-connections:50}") int maxConnections,
+            @Value("${upstream.http.pool.pending-acquire-timeout-ms:5000}") long pendingAcquireTimeoutMs,
+            @Value("${upstream.http.pool.max-idle-seconds:30}") long maxIdleSeconds,
+            @Value("${upstream.http.pool.max-life-seconds:300}") long maxLifeSeconds,
+            @Value("${upstream.http.connect-timeout-ms:3000}") int connectTimeoutMs,
+            @Value("${upstream.http.read-timeout-seconds:15}") long readTimeoutSeconds,
+            @Value("${upstream.http.compress:true}") boolean compress,
+            @Value("${upstream.http.max-in-memory-bytes:4194304}") int maxInMemoryBytes) {
+        this.builder = builder;
+        this.meterRegistry = meterRegistry;
+        this.maxInMemoryBytes = maxInMemoryBytes;
+
+        // Idle and lifetime limits retire connections before the upstream's load balancer drops them
+        this.connectionProvider = ConnectionProvider.builder("upstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                .maxLifeTime(Duration.ofSeconds(maxLifeSeconds))
+                .evictInBackground(Duration.ofSeconds(maxIdleSeconds))
+                .metrics(true)
+                .build();
+
+        // responseTimeout is the longest gap allowed between reads, so large bodies may take longer overall
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofSeconds(readTimeoutSeconds))
+                .compress(compress)
+                .metrics(true, UpstreamWebClients::withoutQuery);
+        this.connector = new ReactorClientHttpConnector(httpClient);
+    }
+
+    /**
+     * Returns a client for one upstream; {@code name} tags its meters.
+     */
+    public WebClient create(String name, String baseUrl) {
+        return builder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(connector)
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(maxInMemoryBytes))
+                .filter(metrics(name))
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    private ExchangeFilterFunction metrics(String name) {
+        DistributionSummary responseBytes = DistributionSummary.builder("upstream.http.response.bytes")
+                .tag("client", name)
+                .baseUnit("bytes")
+                .description("Decoded size of upstream response bodies")
+                .register(meterRegistry);
+
+        return (ClientRequest request, ExchangeFunction next) -> Mono.defer(() -> {
+            long start = System.nanoTime();
+            return next.exchange(request)
+                    .map(response -> measureBody(name, request, response, start, responseBytes))
+                    .doOnError(e -> {
+                        record(name, request, "none", "error", start);
+                        error(name, e);
+                    });
+        });
+    }
+
+    /**
+     * Defers recording until the body is consumed, so streamed bodies are timed in full.
+     */
+    private ClientResponse measureBody(String name, ClientRequest request, ClientResponse response,
+                                       long start, DistributionSummary responseBytes) {
+        String status = Integer.toString(response.statusCode().value());
+        AtomicLong bytes = new AtomicLong();
+        return response.mutate()
+                .body(body -> body
+                        .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                        .doOnError(e -> error(name, e))
+                        .doFinally(signal -> {
+                            responseBytes.record(bytes.get());
+                            record(name, request, status, outcome(response, signal), start);
+                        }))
+                .build();
+    }
+
+    private static String outcome(ClientResponse response, SignalType signal) {
+        return switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> response.statusCode().isError() ? "http_error" : "success";
+        };
+    }
+
+    private void record(String name, ClientRequest request, String status, String outcome, long start) {
+        Timer.builder("upstream.http.requests")
+                .tag("client", name)
+                .tag("method", request.method().name())
+                .tag("status", status)
+                .tag("outcome", outcome)
+                .description("Upstream exchanges, from request to the end of the response body")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void error(String name, Throwable error) {
+        Counter.builder("upstream.http.errors")
+                .tag("client", name)
+                .tag("type", errorType(error))
+                .description("Failed upstream exchanges by cause")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String errorType(Throwable error) {
+        Throwable cause = error instanceof WebClientRequestException && error.getCause() != null
+                ? error.getCause()
+                : error;
+        if (cause instanceof ReadTimeoutException || cause instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (cause instanceof ConnectTimeoutException || cause instanceof ConnectException) {
+            return "connect";
+        }
+        if (cause instanceof PrematureCloseException) {
+            return "closed";
+        }
+        return "other";
+    }
+
+    /**
+     * Keeps bounding-box query strings out of Reactor Netty's uri tag.
+     */
+    private static String withoutQuery(String uri) {
+        int query = uri.indexOf('?');
+        return query < 0 ? uri : uri.substring(0, query);
+    }
+}
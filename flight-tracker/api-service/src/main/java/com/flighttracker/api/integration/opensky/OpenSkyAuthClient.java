@@ -1,94 +1,57 @@
 package com.flighttracker.api.integration.opensky;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.flighttracker.api.integration.UpstreamWebClients;
+import com.flighttracker.common.opensky.OpenSkyTokenCache;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
-import java.time.Duration;
-import java.time.Instant;
 import java.util.Map;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Manages OAuth2 authentication with OpenSky Network API.
  * Handles token acquisition, in-memory caching, and automatic refresh
- * to ensure valid credentials are always available for API calls.
+ * to ensure valid credentials are available for API calls.
+ * <p>
+ * Caching, refresh-ahead and retries are done by {@link OpenSkyTokenCache}, which
+ * ingestion-service shares; this class only supplies the token request.
  */
 @Service
 public class OpenSkyAuthClient {
 
-    private static final Logger log = LoggerFactory.getLogger(OpenSkyAuthClient.class);
-    private static final Duration TOKEN_VALIDITY = Duration.ofMinutes(28);
     private static final String AUTH_URI = "/auth/realms/opensky-network/protocol/openid-connect/token";
 
-    private final WebClient webClient;
-    private final OpenSkyProperties properties;
-    private final Lock lock = new ReentrantLock();
+    private final OpenSkyTokenCache tokenCache;
 
-    private volatile String accessToken;
-    private volatile Instant expiresAt;
-
-    public OpenSkyAuthClient(WebClient.Builder webClientBuilder, OpenSkyProperties properties) {
-        this.webClient = webClientBuilder
-                .baseUrl("https://auth.opensky-network.org")
-                .build();
-        this.properties = properties;
-    }
-
-    public String getValidToken() {
-        if (accessToken == null || isExpired()) {
-            lock.lock();
-            try {
-                if (accessToken == null || isExpired()) {
-                    refreshToken();
-                }
-            } finally {
-                lock.unlock();
-            }
-        }
-        return accessToken;
-    }
-
-    private boolean isExpired() {
-        boolean expired = expiresAt == null || Instant.now().isAfter(expiresAt);
-        log.debug("Token expired: {}", expired);
-        return expired;
-    }
-
-    private void refreshToken() {
-        log.info("Refreshing OpenSky access token");
-
-        Map<String, Object> response = webClient.post()
+    public OpenSkyAuthClient(UpstreamWebClients upstreamWebClients, OpenSkyProperties properties) {
+        WebClient webClient = upstreamWebClients.create("opensky-auth", "https://auth.opensky-network.org");
+        Mono<Map<?, ?>> tokenRequest = webClient.post()
                 .uri(AUTH_URI)
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
                 .body(BodyInserters.fromFormData("grant_type", "client_credentials")
                         .with("client_id", properties.clientId())
                         .with("client_secret", properties.clientSecret()))
                 .retrieve()
-                .bodyToMono(Map.class)
-                .block();
-
-        if (response == null) {
-            throw new IllegalStateException("Failed to retrieve access token from OpenSky");
-        }
-
-        this.accessToken = (String) response.get("access_token");
-        this.expiresAt = Instant.now().plus(TOKEN_VALIDITY);
+                .bodyToMono(new ParameterizedTypeReference<Map<?, ?>>() { });
+        this.tokenCache = new OpenSkyTokenCache(tokenRequest, OpenSkyAuthClient::isRetryable);
+    }
 
-        log.info("Token refreshed successfully, expires at {}", expiresAt);
+    /**
+     * Returns a valid access token. Completes immediately while the cached token is
+     * valid; errors if a token is needed and can't be obtained after retries.
+     */
+    public Mono<String> getToken() {
+        return tokenCache.getToken();
     }
 
     /**
-     * Adds the authorization header to the given HttpHeaders.
+     * Client errors such as rejected credentials won't go away on retry.
      */
-    public void addAuthHeaders(org.springframework.http.HttpHeaders headers) {
-        String token = getValidToken();
-        if (token != null) {
-            headers.setBearerAuth(token);
-        }
+    static boolean isRetryable(Throwable error) {
+        return !(error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
     }
 }
@@ -0,0 +1,37 @@
+package com.flighttracker.api.integration.opensky;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.service.FleetSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Polls OpenSky directly from this node on a fixed interval.
+ * The default source, for single-node deployments without the ingestion service.
+ */
+@Component
+@ConditionalOnProperty(name = "flight.snapshot.source", havingValue = "opensky", matchIfMissing = true)
+public class OpenSkyFleetSource implements FleetSource {
+
+    private final OpenSkyFlightProvider openSkyProvider;
+    private final Duration refreshInterval;
+
+    public OpenSkyFleetSource(
+            OpenSkyFlightProvider openSkyProvider,
+            @Value("${flight.snapshot.refresh-seconds:5}") int refreshSeconds) {
+        this.openSkyProvider = openSkyProvider;
+        this.refreshInterval = Duration.ofSeconds(refreshSeconds);
+    }
+
+    @Override
+    public Flux<FleetColumns> fleets() {
+        // onBackpressureDrop + concatMap: a slow upstream call skips ticks instead of stacking requests
+        return Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> openSkyProvider.getAllFlights(), 1);
+    }
+}
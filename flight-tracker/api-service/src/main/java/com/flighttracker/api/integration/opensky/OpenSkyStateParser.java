@@ -0,0 +1,56 @@
+package com.flighttracker.api.integration.opensky;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.common.model.FlightStatus;
+import com.flighttracker.common.opensky.StateVector;
+import com.flighttracker.common.opensky.StateVectorCollector;
+import com.flighttracker.common.opensky.StateVectorParser;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Parses OpenSky {@code /states/all} responses with the shared
+ * {@link StateVectorParser}, appending each state vector straight into
+ * {@link FleetColumns} without creating a Flight per aircraft.
+ */
+@Component
+public class OpenSkyStateParser {
+
+    private final StateVectorParser parser = new StateVectorParser();
+
+    /**
+     * Parses a response body as it streams in.
+     */
+    public Mono<FleetColumns> parse(Flux<DataBuffer> body) {
+        return parser.parse(body, FleetCollector::new);
+    }
+
+    /**
+     * Parses a complete response body held in memory.
+     */
+    public FleetColumns parse(byte[] body) {
+        return parser.parse(body, new FleetCollector());
+    }
+
+    private static final class FleetCollector implements StateVectorCollector<FleetColumns> {
+
+        private static final int EXPECTED_FLIGHTS = 12_000;
+
+        private final FleetColumns.Builder fleet = new FleetColumns.Builder(EXPECTED_FLIGHTS);
+
+        @Override
+        public void accept(StateVector vector) {
+            int ordinal = fleet.add(vector.icao24(), vector.callsign(), vector.latitude(), vector.longitude(),
+                    vector.baroAltitude(), vector.velocity(),
+                    vector.onGround() ? FlightStatus.LANDED : FlightStatus.IN_FLIGHT, vector.reportedAt());
+            fleet.setMotion(ordinal, vector.trueTrack(), vector.verticalRate());
+        }
+
+        @Override
+        public FleetColumns finish() {
+            return fleet.build();
+        }
+    }
+}
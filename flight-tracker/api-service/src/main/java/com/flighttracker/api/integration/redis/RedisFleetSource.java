@@ -0,0 +1,134 @@
+package com.flighttracker.api.integration.redis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.FleetColumns.StringField;
+import com.flighttracker.api.service.FleetSource;
+import com.flighttracker.common.FleetRedisKeys;
+import com.flighttracker.common.FlightEvent;
+import com.flighttracker.common.model.Flight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Follows the fleet published by the ingestion service, so API nodes never call
+ * OpenSky themselves and can scale out freely.
+ *
+ * On subscribe the whole snapshot hash is loaded; after that each event on the
+ * channel is applied in sequence. A gap in sequence numbers, a full event, or a
+ * reconnect triggers a reload of the hash (see {@link FleetRedisKeys}).
+ */
+@Component
+@ConditionalOnProperty(name = "flight.snapshot.source", havingValue = "redis")
+public class RedisFleetSource implements FleetSource {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisFleetSource.class);
+
+    // Placeholder that makes the first step a reload
+    private static final FlightEvent RELOAD = new FlightEvent(-1, 0, true, List.of(), List.of());
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RedisFleetSource(ReactiveStringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Flux<FleetColumns> fleets() {
+        return Flux.defer(() -> {
+                    // Per-subscription state, only touched from the serial concatMap below
+                    Map<String, Flight> fleet = new LinkedHashMap<>();
+                    long[] lastSequence = {-1};
+                    return redisTemplate.listenToChannel(FleetRedisKeys.EVENTS_CHANNEL)
+                            .map(message -> readEvent(message.getMessage()))
+                            .startWith(RELOAD)
+                            .concatMap(event -> apply(event, fleet, lastSequence));
+                })
+                .doOnError(e -> log.warn("Fleet subscription failed, reconnecting: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)));
+    }
+
+    private Mono<FleetColumns> apply(FlightEvent event, Map<String, Flight> fleet, long[] lastSequence) {
+        long last = lastSequence[0];
+        if (!event.isFull() && last >= 0 && event.getSequence() <= last) {
+            return Mono.empty(); // already part of the snapshot we loaded
+        }
+        if (event.isFull() || last < 0 || event.getSequence() != last + 1) {
+            return reload(fleet, lastSequence);
+        }
+
+        event.getUpserted().forEach(flight -> fleet.put(flight.getFlightId(), flight));
+        event.getRemoved().forEach(fleet::remove);
+        lastSequence[0] = event.getSequence();
+        return Mono.just(toColumns(fleet.values()));
+    }
+
+    /**
+     * Reads the sequence before the hash: the publisher writes the hash first, so the
+     * hash is at least as new as the sequence we record.
+     */
+    private Mono<FleetColumns> reload(Map<String, Flight> fleet, long[] lastSequence) {
+        return redisTemplate.opsForValue().get(FleetRedisKeys.SEQUENCE)
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L)
+                .flatMap(sequence -> redisTemplate.<String, String>opsForHash()
+                        .values(FleetRedisKeys.SNAPSHOT)
+                        .map(json -> read(json, Flight.class))
+                        .collectList()
+                        .map(flights -> {
+                            fleet.clear();
+                            flights.forEach(flight -> fleet.put(flight.getFlightId(), flight));
+                            lastSequence[0] = sequence;
+                            log.info("Loaded {} flights from Redis at sequence {}", fleet.size(), sequence);
+                            return toColumns(fleet.values());
+                        }));
+    }
+
+    private FlightEvent readEvent(String json) {
+        return read(json, FlightEvent.class);
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable " + type.getSimpleName() + " from Redis", e);
+        }
+    }
+
+    private static FleetColumns toColumns(Collection<Flight> flights) {
+        FleetColumns.Builder builder = new FleetColumns.Builder(flights.size());
+        for (Flight flight : flights) {
+            int ordinal = builder.add(flight.getFlightId(), flight.getCallsign(), flight.getLatitude(),
+                    flight.getLongitude(), flight.getAltitude(), flight.getSpeed(),
+                    flight.getStatus(), flight.getLastUpdated());
+            builder.set(StringField.FLIGHT_NUMBER, ordinal, flight.getFlightNumber());
+            builder.set(StringField.DEPARTURE_AIRPORT_ICAO, ordinal, flight.getDepartureAirportIcao());
+            builder.set(StringField.DESTINATION_AIRPORT_ICAO, ordinal, flight.getDestinationAirportIcao());
+            builder.set(StringField.DEPARTURE_AIRPORT_NAME, ordinal, flight.getDepartureAirportName());
+            builder.set(StringField.DESTINATION_AIRPORT_NAME, ordinal, flight.getDestinationAirportName());
+            builder.set(StringField.SCHEDULED_DEPARTURE_TIME, ordinal, flight.getScheduledDepartureTime());
+            builder.set(StringField.ACTUAL_DEPARTURE_TIME, ordinal, flight.getActualDepartureTime());
+            builder.set(StringField.SCHEDULED_ARRIVAL_TIME, ordinal, flight.getScheduledArrivalTime());
+            builder.set(StringField.ESTIMATED_ARRIVAL_TIME, ordinal, flight.getEstimatedArrivalTime());
+            builder.setMotion(ordinal, flight.getHeading() != null ? flight.getHeading() : Double.NaN,
+                    flight.getVerticalRate());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.flighttracker.api.service;
+
+import com.flighttracker.api.domain.FleetColumns;
+import reactor.core.publisher.Flux;
+
+/**
+ * Where FlightSnapshotStore gets the fleet from. Selected with
+ * {@code flight.snapshot.source}: {@code opensky} polls upstream from this node,
+ * {@code redis} follows the fleet published by the ingestion service.
+ */
+public interface FleetSource {
+
+    /**
+     * Emits the complete fleet every time it changes. An empty fleet means the
+     * source had nothing usable for that tick.
+     */
+    Flux<FleetColumns> fleets();
+}
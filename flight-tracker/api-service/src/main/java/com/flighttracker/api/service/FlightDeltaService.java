@@ -0,0 +1,193 @@
+package com.flighttracker.api.service;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.FleetColumns.StringField;
+import com.flighttracker.api.domain.Flight;
+import com.flighttracker.api.domain.FlightDelta;
+import com.flighttracker.api.domain.FlightSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Turns the snapshot feed into a delta stream: one full snapshot when a client
+ * connects, then only the flights that were added, changed or removed per tick.
+ *
+ * Deltas are computed once per snapshot and shared by every subscriber, and
+ * only while at least one is connected.
+ * Numeric fields are compared after quantization, so sub-threshold jitter in
+ * position, altitude or speed doesn't count as a change; every other field is
+ * compared by value. Each update carries the flight's lastUpdated along with
+ * its changed fields.
+ */
+@Service
+public class FlightDeltaService {
+
+    private static final StringField[] STRING_FIELDS = StringField.values();
+
+    private final double positionQuantum;
+    private final double altitudeQuantum;
+    private final double speedQuantum;
+    private final Flux<DeltaFrame> frames;
+
+    public FlightDeltaService(
+            FlightSnapshotStore snapshotStore,
+            @Value("${flight.stream.delta.position-degrees:0.0001}") double positionQuantum,
+            @Value("${flight.stream.delta.altitude-meters:10}") double altitudeQuantum,
+            @Value("${flight.stream.delta.speed-mps:0.5}") double speedQuantum) {
+        this.positionQuantum = positionQuantum;
+        this.altitudeQuantum = altitudeQuantum;
+        this.speedQuantum = speedQuantum;
+
+        this.frames = snapshotStore.updates()
+                .scan(DeltaFrame.INITIAL, (previous, snapshot) -> new DeltaFrame(
+                        snapshot, diff(previous.snapshot(), snapshot, previous.sequence() + 1)))
+                .skip(1)
+                // Runs only while clients are connected; each reconnect starts a fresh scan
+                // from the latest snapshot, so nothing is diffed against a stale baseline
+                .replay(1)
+                .refCount();
+    }
+
+    /**
+     * Per-subscriber event stream. The first event is a full snapshot; after that
+     * deltas follow in sequence. If a slow client misses frames it gets a fresh
+     * snapshot instead of a delta it could not apply.
+     */
+    public Flux<ServerSentEvent<Object>> streamDeltas() {
+        return Flux.<ServerSentEvent<Object>>defer(() -> {
+            long[] lastSent = {-1};
+            return frames
+                    .onBackpressureLatest()
+                    .handle((frame, sink) -> {
+                        boolean inSequence = lastSent[0] >= 0 && frame.sequence() == lastSent[0] + 1;
+                        lastSent[0] = frame.sequence();
+                        if (!inSequence) {
+                            sink.next(snapshotEvent(frame));
+                        } else if (!frame.delta().isEmpty()) {
+                            sink.next(deltaEvent(frame));
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Diffs two snapshots column by column; only added flights are materialized.
+     */
+    FlightDelta diff(FlightSnapshot previous, FlightSnapshot current, long sequence) {
+        FleetColumns before = previous.getFleet();
+        FleetColumns after = current.getFleet();
+        List<Flight> added = new ArrayList<>();
+        List<Map<String, Object>> updated = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        for (int i = 0; i < after.size(); i++) {
+            String flightId = after.flightId(i);
+            if (flightId == null) {
+                continue;
+            }
+            int ordinal = previous.getLookupIndex().findByIcao24(flightId);
+            if (ordinal < 0) {
+                added.add(after.toFlight(i));
+                continue;
+            }
+            Map<String, Object> changes = changedFields(before, ordinal, after, i);
+            if (changes != null) {
+                updated.add(changes);
+            }
+        }
+
+        for (int i = 0; i < before.size(); i++) {
+            String flightId = before.flightId(i);
+            if (flightId != null && current.getLookupIndex().findByIcao24(flightId) < 0) {
+                removed.add(flightId);
+            }
+        }
+
+        return new FlightDelta(sequence, current.getFetchedAt(), added, updated, removed);
+    }
+
+    /**
+     * Returns the flightId, the changed fields and lastUpdated, or null when nothing
+     * changed beyond the quanta. A new lastUpdated alone is not a change.
+     */
+    private Map<String, Object> changedFields(FleetColumns before, int b, FleetColumns after, int a) {
+        Map<String, Object> changes = null;
+
+        if (moved(before.latitude(b), after.latitude(a), positionQuantum)) {
+            changes = put(changes, after, a, "latitude", after.latitude(a));
+        }
+        if (moved(before.longitude(b), after.longitude(a), positionQuantum)) {
+            changes = put(changes, after, a, "longitude", after.longitude(a));
+        }
+        if (moved(before.altitude(b), after.altitude(a), altitudeQuantum)) {
+            changes = put(changes, after, a, "altitude", after.altitude(a));
+        }
+        if (moved(before.speed(b), after.speed(a), speedQuantum)) {
+            changes = put(changes, after, a, "speed", after.speed(a));
+        }
+        if (before.status(b) != after.status(a)) {
+            changes = put(changes, after, a, "status", after.status(a));
+        }
+        // Dictionary ids are per snapshot, so strings are compared by value
+        for (StringField field : STRING_FIELDS) {
+            String value = after.string(field, a);
+            if (!Objects.equals(before.string(field, b), value)) {
+                changes = put(changes, after, a, field.property(), value);
+            }
+        }
+        if (changes != null) {
+            changes.put("lastUpdated", after.lastUpdated(a));
+        }
+        return changes;
+    }
+
+    private static Map<String, Object> put(Map<String, Object> changes, FleetColumns fleet, int ordinal,
+                                           String field, Object value) {
+        if (changes == null) {
+            changes = new LinkedHashMap<>();
+            changes.put("flightId", fleet.flightId(ordinal));
+        }
+        changes.put(field, value);
+        return changes;
+    }
+
+    /**
+     * Compares values on a fixed grid rather than by difference, so slow drift is
+     * still reported once it crosses a grid line.
+     */
+    private static boolean moved(double before, double after, double quantum) {
+        return Math.round(before / quantum) != Math.round(after / quantum);
+    }
+
+    private ServerSentEvent<Object> snapshotEvent(DeltaFrame frame) {
+        return ServerSentEvent.<Object>builder(frame.snapshot().getFlights())
+                .id(Long.toString(frame.sequence()))
+                .event("snapshot")
+                .build();
+    }
+
+    private ServerSentEvent<Object> deltaEvent(DeltaFrame frame) {
+        return ServerSentEvent.<Object>builder(frame.delta())
+                .id(Long.toString(frame.sequence()))
+                .event("delta")
+                .build();
+    }
+
+    private record DeltaFrame(FlightSnapshot snapshot, FlightDelta delta) {
+
+        static final DeltaFrame INITIAL = new DeltaFrame(FlightSnapshot.empty(),
+                new FlightDelta(0, 0, List.of(), List.of(), List.of()));
+
+        long sequence() {
+            return delta.sequence();
+        }
+    }
+}
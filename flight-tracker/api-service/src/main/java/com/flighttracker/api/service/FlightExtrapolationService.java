@@ -0,0 +1,207 @@
+package com.flighttracker.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.FlightSnapshot;
+import com.flighttracker.api.domain.PositionFrame;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dead-reckons the fleet between snapshots so clients can animate smoothly.
+ *
+ * Each snapshot is turned once into per-aircraft rates (degrees of latitude and
+ * longitude and metres of altitude per second, from speed, true track and
+ * vertical rate). Every {@code frame-millis} the whole fleet is projected
+ * forward from its last report with branch-free straight-line arithmetic over
+ * primitive arrays, which the JIT compiles to SIMD; 10k aircraft take well under
+ * a millisecond. A new snapshot replaces the rates and the next frame starts
+ * from the reported positions, so estimates snap back to real data.
+ *
+ * Projection stops {@code max-seconds} after the last report, so an aircraft the
+ * source stops reporting freezes instead of flying on. Aircraft without a
+ * reported heading stay where they were last seen. Frames are computed and
+ * serialized to JSON once for all subscribers, and only while at least one is
+ * connected; at 10k aircraft the serialization costs far more than the projection.
+ */
+@Service
+public class FlightExtrapolationService {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    // Keeps longitude rates finite at the poles
+    private static final double MIN_COS_LATITUDE = 0.01;
+
+    private final ObjectMapper objectMapper;
+    private final Flux<Frame> frames;
+
+    public FlightExtrapolationService(
+            FlightSnapshotStore snapshotStore,
+            ObjectMapper objectMapper,
+            @Value("${flight.stream.extrapolation.frame-millis:100}") long frameMillis,
+            @Value("${flight.stream.extrapolation.max-seconds:15}") double maxSeconds) {
+        this.objectMapper = objectMapper;
+        Duration period = Duration.ofMillis(Math.max(10, frameMillis));
+
+        this.frames = snapshotStore.updates()
+                .scan(Motion.INITIAL, (previous, snapshot) -> new Motion(previous, snapshot, maxSeconds))
+                .skip(1)
+                .switchMap(motion -> {
+                    ServerSentEvent<Object> fleetEvent = fleetEvent(motion);
+                    return Flux.interval(Duration.ZERO, period)
+                            .onBackpressureDrop()
+                            .map(tick -> new Frame(motion.sequence, fleetEvent,
+                                    frameEvent(motion.project(System.currentTimeMillis()))));
+                })
+                .publish()
+                .refCount();
+    }
+
+    /**
+     * Per-subscriber event stream. A "fleet" event carries the flight ids that the
+     * following "frame" events' arrays are ordered by; it is sent on connect and
+     * whenever a snapshot changes the fleet or its order. A slow client skips to the
+     * newest frame.
+     */
+    public Flux<ServerSentEvent<Object>> streamFrames() {
+        return Flux.<ServerSentEvent<Object>>defer(() -> {
+            long[] lastFleet = {-1};
+            return frames
+                    .onBackpressureLatest()
+                    .flatMapIterable(frame -> {
+                        if (frame.sequence() == lastFleet[0]) {
+                            return List.of(frame.positions());
+                        }
+                        lastFleet[0] = frame.sequence();
+                        return List.of(frame.fleet(), frame.positions());
+                    });
+        });
+    }
+
+    private ServerSentEvent<Object> fleetEvent(Motion motion) {
+        return ServerSentEvent.<Object>builder(json(motion.flightIds))
+                .id(Long.toString(motion.sequence))
+                .event("fleet")
+                .build();
+    }
+
+    private ServerSentEvent<Object> frameEvent(PositionFrame positions) {
+        return ServerSentEvent.<Object>builder(json(positions))
+                .event("frame")
+                .build();
+    }
+
+    /**
+     * Serializes once for every subscriber; SSE writes String data as is.
+     */
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * One tick's events, shared by every subscriber.
+     */
+    private record Frame(long sequence, ServerSentEvent<Object> fleet, ServerSentEvent<Object> positions) {
+    }
+
+    /**
+     * One snapshot's positions and rates, in fleet ordinal order. Immutable, so
+     * frames can be projected from any thread.
+     */
+    static final class Motion {
+
+        static final Motion INITIAL = new Motion(null, FlightSnapshot.empty(), 0);
+
+        /**
+         * Identifies the flight id order; unchanged while snapshots list the same flights.
+         */
+        final long sequence;
+        final String[] flightIds;
+        private final int size;
+        private final double maxSeconds;
+        private final long epoch;
+        private final double[] reportedAt;   // seconds after epoch
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final double[] altitudes;
+        private final double[] latitudeRates;
+        private final double[] longitudeRates;
+        private final double[] altitudeRates;
+
+        Motion(Motion previous, FlightSnapshot snapshot, double maxSeconds) {
+            FleetColumns fleet = snapshot.getFleet();
+            this.size = fleet.size();
+            this.maxSeconds = maxSeconds;
+            this.epoch = snapshot.getFetchedAt();
+            String[] ids = new String[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = fleet.flightId(i);
+            }
+            if (previous != null && Arrays.equals(previous.flightIds, ids)) {
+                this.sequence = previous.sequence;
+                this.flightIds = previous.flightIds;
+            } else {
+                this.sequence = previous != null ? previous.sequence + 1 : 0;
+                this.flightIds = ids;
+            }
+            this.reportedAt = new double[size];
+            this.latitudes = fleet.latitudes();
+            this.longitudes = fleet.longitudes();
+            this.altitudes = fleet.altitudes();
+            this.latitudeRates = new double[size];
+            this.longitudeRates = new double[size];
+            this.altitudeRates = new double[size];
+
+            double[] speeds = fleet.speeds();
+            double[] headings = fleet.headings();
+            double[] verticalRates = fleet.verticalRates();
+            long[] lastUpdated = fleet.lastUpdatedTimes();
+            for (int i = 0; i < size; i++) {
+                long reported = lastUpdated[i] > 0 ? lastUpdated[i] : epoch;
+                reportedAt[i] = (reported - epoch) / 1000.0;
+                if (Double.isNaN(headings[i]) || !(speeds[i] > 0)) {
+                    continue;
+                }
+                double track = Math.toRadians(headings[i]);
+                double cosLatitude = Math.max(Math.cos(Math.toRadians(latitudes[i])), MIN_COS_LATITUDE);
+                latitudeRates[i] = speeds[i] * Math.cos(track) / METERS_PER_DEGREE;
+                longitudeRates[i] = speeds[i] * Math.sin(track) / (METERS_PER_DEGREE * cosLatitude);
+                altitudeRates[i] = verticalRates[i];
+            }
+        }
+
+        /**
+         * Estimates every aircraft's position at {@code now} (epoch millis). The loops
+         * are branch-free so they vectorize.
+         */
+        PositionFrame project(long now) {
+            double elapsed = (now - epoch) / 1000.0;
+            float[] outLatitudes = new float[size];
+            float[] outLongitudes = new float[size];
+            float[] outAltitudes = new float[size];
+
+            for (int i = 0; i < size; i++) {
+                double dt = Math.min(Math.max(elapsed - reportedAt[i], 0.0), maxSeconds);
+                outLatitudes[i] = (float) Math.min(Math.max(latitudes[i] + latitudeRates[i] * dt, -90.0), 90.0);
+                outAltitudes[i] = (float) (altitudes[i] + altitudeRates[i] * dt);
+            }
+            for (int i = 0; i < size; i++) {
+                double dt = Math.min(Math.max(elapsed - reportedAt[i], 0.0), maxSeconds);
+                double longitude = longitudes[i] + longitudeRates[i] * dt;
+                // Wrap back into [-180, 180) after crossing the antimeridian
+                outLongitudes[i] = (float) (longitude - 360.0 * Math.floor((longitude + 180.0) / 360.0));
+            }
+            return new PositionFrame(sequence, now, outLatitudes, outLongitudes, outAltitudes);
+        }
+    }
+}
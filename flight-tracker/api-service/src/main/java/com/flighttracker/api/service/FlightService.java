@@ -1,12 +1,17 @@
 package com.flighttracker.api.service;
 
+import com.flighttracker.api.codec.FlightBatchCodec;
 import com.flighttracker.api.domain.Flight;
-import com.flighttracker.api.integration.opensky.OpenSkyFlightProvider;
+import com.flighttracker.api.domain.FlightPage;
+import com.flighttracker.api.domain.FlightSnapshot;
+import com.flighttracker.api.domain.FlightTrack;
+import com.flighttracker.api.storage.SnapshotLog;
 import com.flighttracker.common.model.FlightStatus;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
 
-import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -14,53 +19,145 @@ import java.util.Optional;
 
 /**
  * Orchestrates flight data operations.
- * Delegates to providers for external data retrieval.
+ * Lookups, searches and streams are all served from the in-memory fleet snapshot;
+ * only FlightSnapshotStore talks to the upstream provider.
  */
 @Service
 public class FlightService {
 
-    private final OpenSkyFlightProvider openSkyProvider;
+    private static final int SUBSCRIBER_BUFFER_SIZE = 2;
 
-    public FlightService(OpenSkyFlightProvider openSkyProvider) {
-        this.openSkyProvider = openSkyProvider;
+    private final FlightSnapshotStore snapshotStore;
+    private final PositionHistoryStore historyStore;
+    private final SnapshotLog snapshotLog;
+    private final Flux<byte[]> encodedBatches;
+
+    public FlightService(FlightSnapshotStore snapshotStore, PositionHistoryStore historyStore,
+                         SnapshotLog snapshotLog) {
+        this.snapshotStore = snapshotStore;
+        this.historyStore = historyStore;
+        this.snapshotLog = snapshotLog;
+        // Encoded once per snapshot while at least one binary client is connected
+        this.encodedBatches = snapshotStore.updates()
+                .map(snapshot -> FlightBatchCodec.encodeFrame(snapshot.getFleet()))
+                .replay(1)
+                .refCount();
+    }
+
+    /**
+     * Returns a Flux that emits the current flight positions whenever the fleet snapshot is refreshed.
+     * All subscribers share one upstream poll; a new subscriber starts with the latest snapshot.
+     * Slow subscribers drop their oldest pending snapshot rather than holding back the others.
+     */
+    public Flux<List<Flight>> streamFlightUpdates() {
+        return snapshotStore.updates()
+                .onBackpressureBuffer(SUBSCRIBER_BUFFER_SIZE, BufferOverflowStrategy.DROP_OLDEST)
+                .map(FlightSnapshot::getFlights);
     }
 
     /**
-     * Returns a Flux that emits lists of current flight positions at regular intervals.
-     * Each emission contains the latest snapshot of all tracked flights.
+     * Returns the fleet as length-prefixed binary batches (see FlightBatchCodec),
+     * one per snapshot refresh. The encoding is shared by all binary subscribers.
+     * A slow subscriber skips to the newest batch, since every batch is a full fleet.
      */
-    public Flux<List<Flight>> streamFlightUpdates(Duration interval) {
-        return Flux.interval(interval)
-                .flatMap(tick -> openSkyProvider.getAllFlights());
+    public Flux<byte[]> streamFlightBatches() {
+        return encodedBatches.onBackpressureLatest();
     }
 
     /**
      * Returns a Flux of flight updates within a specific geographic area.
+     * Filtered locally from the shared snapshot feed through the spatial index,
+     * so area streams add no upstream calls.
      */
-    public Flux<List<Flight>> streamFlightsInArea(Duration interval,
-                                                   double minLat, double maxLat,
+    public Flux<List<Flight>> streamFlightsInArea(double minLat, double maxLat,
                                                    double minLon, double maxLon) {
-        return Flux.interval(interval)
-                .flatMap(tick -> openSkyProvider.getFlightsInArea(minLat, maxLat, minLon, maxLon));
+        return snapshotStore.updates()
+                .onBackpressureBuffer(SUBSCRIBER_BUFFER_SIZE, BufferOverflowStrategy.DROP_OLDEST)
+                .map(snapshot -> snapshot.select(
+                        snapshot.getSpatialIndex().withinBox(minLat, maxLat, minLon, maxLon)));
+    }
+
+    /**
+     * Whether past snapshots are recorded, so the replay streams are available.
+     */
+    public boolean isReplayAvailable() {
+        return snapshotLog.isEnabled();
+    }
+
+    /**
+     * Replays the fleet as recorded between two epoch millis, at {@code speed} times
+     * the original pace. Read from the on-disk snapshot log, not the live feed.
+     */
+    public Flux<List<Flight>> replayFlightUpdates(long from, long to, double speed) {
+        return snapshotLog.replay(from, to, speed);
+    }
+
+    /**
+     * Area-filtered counterpart of {@link #replayFlightUpdates}. Replayed batches have
+     * no spatial index, so each is filtered by a plain scan.
+     */
+    public Flux<List<Flight>> replayFlightsInArea(long from, long to, double speed,
+                                                  double minLat, double maxLat, double minLon, double maxLon) {
+        return snapshotLog.replay(from, to, speed)
+                .map(flights -> flights.stream()
+                        .filter(flight -> inBox(flight, minLat, maxLat, minLon, maxLon))
+                        .toList());
+    }
+
+    /**
+     * Returns flights inside a bounding box. A box with minLon greater than maxLon
+     * crosses the antimeridian.
+     */
+    public List<Flight> searchInArea(double minLat, double maxLat, double minLon, double maxLon) {
+        FlightSnapshot snapshot = snapshotStore.current();
+        return snapshot.select(snapshot.getSpatialIndex().withinBox(minLat, maxLat, minLon, maxLon));
+    }
+
+    /**
+     * Returns the closest flights to a point, nearest first.
+     */
+    public List<Flight> findNearest(double latitude, double longitude, int limit) {
+        FlightSnapshot snapshot = snapshotStore.current();
+        return snapshot.select(snapshot.getSpatialIndex().nearest(latitude, longitude, limit));
+    }
+
+    /**
+     * Returns the closest flights within a great-circle radius of a point, nearest first.
+     */
+    public List<Flight> findNearest(double latitude, double longitude, int limit, double radiusKm) {
+        FlightSnapshot snapshot = snapshotStore.current();
+        return snapshot.select(snapshot.getSpatialIndex().nearest(latitude, longitude, limit, radiusKm));
     }
 
     /**
-     * Retrieves a single flight by its ID (icao24 code).
-     * Searches through all current flights from OpenSky.
+     * Retrieves a single flight by its ID (icao24 code), falling back to callsign.
+     * Resolved through the snapshot's hash index rather than a scan.
      */
     public Optional<Flight> getFlightById(String id) {
         if (id == null || id.isBlank()) {
             return Optional.empty();
         }
 
-        List<Flight> flights = openSkyProvider.getAllFlights().block();
-        if (flights == null) {
+        return snapshotStore.current().findById(id);
+    }
+
+    /**
+     * Returns the recorded trail of a flight since the given epoch millis. The id is
+     * an icao24 code, or a callsign of a flight in the current snapshot. History
+     * outlives the snapshot, so a flight that just dropped out still has its trail.
+     */
+    public Optional<FlightTrack> getTrack(String id, long since) {
+        if (id == null || id.isBlank()) {
             return Optional.empty();
         }
 
-        return flights.stream()
-                .filter(f -> id.equalsIgnoreCase(f.getFlightId()) || id.equalsIgnoreCase(f.getCallsign()))
-                .findFirst();
+        Optional<FlightTrack> track = historyStore.track(id, since);
+        if (track.isPresent()) {
+            return track;
+        }
+        return getFlightById(id)
+                .filter(flight -> !id.equals(flight.getFlightId()))
+                .flatMap(flight -> historyStore.track(flight.getFlightId(), since));
     }
 
     /**
@@ -110,15 +207,25 @@ public class FlightService {
             return Collections.emptyList();
         }
 
-        List<Flight> flights = openSkyProvider.getAllFlights().block();
-        if (flights == null) {
-            return Collections.emptyList();
+        FlightSnapshot snapshot = snapshotStore.current();
+        return snapshot.select(snapshot.getTextIndex().search(query));
+    }
+
+    /**
+     * Returns one page of substring matches. Matching works on ordinals only;
+     * Flight objects are collected just for the requested window.
+     */
+    public FlightPage searchFlights(String query, int page, int size) {
+        if (query == null || query.isBlank() || page < 0 || size <= 0) {
+            return new FlightPage(Collections.emptyList(), 0);
         }
 
-        String lowerQuery = query.toLowerCase();
-        return flights.stream()
-                .filter(f -> matchesFlight(f, lowerQuery))
-                .toList();
+        FlightSnapshot snapshot = snapshotStore.current();
+        int[] matches = snapshot.getTextIndex().search(query);
+
+        int fromIndex = (int) Math.min((long) page * size, matches.length);
+        int toIndex = Math.min(fromIndex + size, matches.length);
+        return new FlightPage(snapshot.select(Arrays.copyOfRange(matches, fromIndex, toIndex)), matches.length);
     }
 
     public List<Flight> searchByCallsign(String callsign) {
@@ -126,15 +233,8 @@ public class FlightService {
             return Collections.emptyList();
         }
 
-        List<Flight> flights = openSkyProvider.getAllFlights().block();
-        if (flights == null) {
-            return Collections.emptyList();
-        }
-
-        String lowerCallsign = callsign.toLowerCase();
-        return flights.stream()
-                .filter(f -> f.getCallsign() != null && f.getCallsign().toLowerCase().contains(lowerCallsign))
-                .toList();
+        FlightSnapshot snapshot = snapshotStore.current();
+        return snapshot.select(snapshot.getCallsignIndex().search(callsign));
     }
 
     public List<Flight> searchByDepartureAirport(String icao) {
@@ -142,15 +242,8 @@ public class FlightService {
             return Collections.emptyList();
         }
 
-        List<Flight> flights = openSkyProvider.getAllFlights().block();
-        if (flights == null) {
-            return Collections.emptyList();
-        }
-
-        String upperIcao = icao.toUpperCase();
-        return flights.stream()
-                .filter(f -> upperIcao.equals(f.getDepartureAirportIcao()))
-                .toList();
+        FlightSnapshot snapshot = snapshotStore.current();
+        return snapshot.select(snapshot.getLookupIndex().departingFrom(icao.toUpperCase()));
     }
 
     public List<Flight> searchByArrivalAirport(String icao) {
@@ -158,15 +251,8 @@ public class FlightService {
             return Collections.emptyList();
         }
 
-        List<Flight> flights = openSkyProvider.getAllFlights().block();
-        if (flights == null) {
-            return Collections.emptyList();
-        }
-
-        String upperIcao = icao.toUpperCase();
-        return flights.stream()
-                .filter(f -> upperIcao.equals(f.getDestinationAirportIcao()))
-                .toList();
+        FlightSnapshot snapshot = snapshotStore.current();
+        return snapshot.select(snapshot.getLookupIndex().arrivingAt(icao.toUpperCase()));
     }
 
     public List<Flight> searchByAirport(String icao) {
@@ -174,30 +260,19 @@ public class FlightService {
             return Collections.emptyList();
         }
 
-        List<Flight> flights = openSkyProvider.getAllFlights().block();
-        if (flights == null) {
-            return Collections.emptyList();
-        }
-
-        String upperIcao = icao.toUpperCase();
-        return flights.stream()
-                .filter(f -> upperIcao.equals(f.getDepartureAirportIcao()) ||
-                             upperIcao.equals(f.getDestinationAirportIcao()))
-                .toList();
+        FlightSnapshot snapshot = snapshotStore.current();
+        return snapshot.select(snapshot.getLookupIndex().servingAirport(icao.toUpperCase()));
     }
 
-    private boolean matchesFlight(Flight flight, String query) {
-        return containsIgnoreCase(flight.getFlightId(), query) ||
-               containsIgnoreCase(flight.getCallsign(), query) ||
-               containsIgnoreCase(flight.getFlightNumber(), query) ||
-               containsIgnoreCase(flight.getDepartureAirportIcao(), query) ||
-               containsIgnoreCase(flight.getDestinationAirportIcao(), query) ||
-               containsIgnoreCase(flight.getDepartureAirportName(), query) ||
-               containsIgnoreCase(flight.getDestinationAirportName(), query);
-    }
-
-    private boolean containsIgnoreCase(String str, String query) {
-        return str != null && str.toLowerCase().contains(query);
+    private static boolean inBox(Flight flight, double minLat, double maxLat, double minLon, double maxLon) {
+        double latitude = flight.getLatitude();
+        double longitude = flight.getLongitude();
+        if (latitude < minLat || latitude > maxLat) {
+            return false;
+        }
+        return minLon <= maxLon
+                ? longitude >= minLon && longitude <= maxLon
+                : longitude >= minLon || longitude <= maxLon;
     }
 
     private Object nullSafe(Object value) {
@@ -0,0 +1,88 @@
+package com.flighttracker.api.service;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.FlightSnapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the latest fleet snapshot in memory and refreshes it in the background.
+ *
+ * Fleets arrive from the configured {@link FleetSource}, either this node's own
+ * OpenSky poll loop or the ingestion service via Redis; every read in the service
+ * layer is served from the current snapshot. New snapshots replace the
+ * old one atomically, so readers always see a complete, consistent fleet.
+ * Each swap is also published on a hot, replay-latest feed that all stream
+ * subscribers share.
+ */
+@Component
+public class FlightSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightSnapshotStore.class);
+
+    private final FleetSource fleetSource;
+    private final AtomicReference<FlightSnapshot> current = new AtomicReference<>(FlightSnapshot.empty());
+    private final Sinks.Many<FlightSnapshot> updates = Sinks.many().replay().latest();
+
+    private Disposable refresher;
+
+    public FlightSnapshotStore(FleetSource fleetSource) {
+        this.fleetSource = fleetSource;
+    }
+
+    @PostConstruct
+    public void start() {
+        refresher = fleetSource.fleets()
+                .subscribe(this::update, e -> log.error("Snapshot refresher stopped: {}", e.getMessage()));
+
+        log.info("FlightSnapshotStore started with {}", fleetSource.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.dispose();
+        }
+        updates.tryEmitComplete();
+    }
+
+    /**
+     * Returns the latest snapshot. Never null; empty until the first poll completes.
+     */
+    public FlightSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Hot feed of snapshots. Late subscribers immediately receive the latest one,
+     * then every subsequent swap. Subscribing never triggers an upstream call.
+     */
+    public Flux<FlightSnapshot> updates() {
+        return updates.asFlux();
+    }
+
+    void update(FleetColumns fleet) {
+        // Sources map upstream failures to an empty fleet; keep serving the last good one
+        if (fleet == null || fleet.size() == 0) {
+            log.warn("Upstream returned no flights, keeping snapshot from {}", current.get().getFetchedAt());
+            return;
+        }
+
+        FlightSnapshot snapshot = new FlightSnapshot(fleet, System.currentTimeMillis());
+        current.set(snapshot);
+
+        Sinks.EmitResult result = updates.tryEmitNext(snapshot);
+        if (result.isFailure()) {
+            log.warn("Failed to publish snapshot to stream subscribers: {}", result);
+        }
+        log.debug("Swapped in new snapshot with {} flights", snapshot.size());
+    }
+}
@@ -0,0 +1,246 @@
+package com.flighttracker.api.service;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.FlightSnapshot;
+import com.flighttracker.api.domain.FlightTrack;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recent position history per aircraft, recorded from the snapshot feed for trail
+ * rendering.
+ * <p>
+ * Each aircraft has a ring buffer of primitive columns: lat/lon in 1e-5 degrees,
+ * altitude in whole metres and the report time, 20 bytes per point. A buffer
+ * starts small and grows up to {@code max-points}, after which the oldest point
+ * is overwritten. Points older than {@code window-minutes} are not returned, and
+ * aircraft not seen for that long are dropped. So memory is bounded by
+ * aircraft x max-points x 20 bytes; 10k aircraft at 256 points is about 50 MB.
+ * <p>
+ * Straight, level flight is stored as one segment. When a report arrives and the
+ * previous point lies within {@code tolerance-meters} of the line from the point
+ * before it to the new one, the previous point is replaced instead of kept.
+ * Segments are capped at {@code max-segment-seconds}, which also bounds how far a
+ * slow turn can drift from its recorded line.
+ * <p>
+ * Appends come from the single snapshot subscriber; reads may come from any
+ * thread and lock only the one track they copy.
+ */
+@Component
+public class PositionHistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PositionHistoryStore.class);
+
+    private static final double COORDINATE_SCALE = 1e5;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final FlightSnapshotStore snapshotStore;
+    private final int maxPoints;
+    private final long windowMillis;
+    private final double toleranceMeters;
+    private final long maxSegmentMillis;
+    private final Map<String, Track> tracks = new ConcurrentHashMap<>();
+
+    private Disposable recorder;
+
+    public PositionHistoryStore(
+            FlightSnapshotStore snapshotStore,
+            @Value("${flight.history.max-points:256}") int maxPoints,
+            @Value("${flight.history.window-minutes:120}") long windowMinutes,
+            @Value("${flight.history.tolerance-meters:50}") double toleranceMeters,
+            @Value("${flight.history.max-segment-seconds:300}") long maxSegmentSeconds) {
+        this.snapshotStore = snapshotStore;
+        this.maxPoints = Math.max(2, maxPoints);
+        this.windowMillis = Duration.ofMinutes(windowMinutes).toMillis();
+        this.toleranceMeters = toleranceMeters;
+        this.maxSegmentMillis = Duration.ofSeconds(maxSegmentSeconds).toMillis();
+    }
+
+    @PostConstruct
+    public void start() {
+        recorder = snapshotStore.updates()
+                .subscribe(this::record, e -> log.error("Position history recorder stopped: {}", e.getMessage()));
+
+        log.info("PositionHistoryStore started: {} points per aircraft, {} min window",
+                maxPoints, windowMillis / 60_000);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recorder != null) {
+            recorder.dispose();
+        }
+    }
+
+    /**
+     * Returns the points of one aircraft reported at or after {@code since} (epoch
+     * millis; 0 for the whole window), or empty if nothing is recorded for it.
+     */
+    public Optional<FlightTrack> track(String flightId, long since) {
+        Track track = tracks.get(flightId);
+        if (track == null) {
+            return Optional.empty();
+        }
+        long from = Math.max(since, System.currentTimeMillis() - windowMillis);
+        return Optional.of(track.copySince(flightId, from));
+    }
+
+    public int trackedAircraft() {
+        return tracks.size();
+    }
+
+    void record(FlightSnapshot snapshot) {
+        FleetColumns fleet = snapshot.getFleet();
+        long fetchedAt = snapshot.getFetchedAt();
+        // A bad snapshot must not end the subscription; keep the history and wait for the next one
+        try {
+            for (int i = 0; i < fleet.size(); i++) {
+                String flightId = fleet.flightId(i);
+                if (flightId == null) {
+                    continue;
+                }
+                // The report time, so a position repeated across polls is recorded once
+                long reportedAt = fleet.lastUpdated(i) > 0 ? fleet.lastUpdated(i) : fetchedAt;
+                tracks.computeIfAbsent(flightId, id -> new Track(fetchedAt))
+                        .append(reportedAt, fleet.latitude(i), fleet.longitude(i), fleet.altitude(i), fetchedAt);
+            }
+
+            long cutoff = fetchedAt - windowMillis;
+            tracks.values().removeIf(track -> track.lastSeen() < cutoff);
+        } catch (RuntimeException e) {
+            log.warn("Failed to record positions from snapshot {}: {}", fetchedAt, e.getMessage());
+        }
+    }
+
+    /**
+     * Ring buffer of one aircraft's points. All access is synchronized on the track.
+     */
+    private final class Track {
+
+        private int[] latitudes = new int[Math.min(INITIAL_CAPACITY, maxPoints)];
+        private int[] longitudes = new int[latitudes.length];
+        private int[] altitudes = new int[latitudes.length];
+        private long[] times = new long[latitudes.length];
+        private int head;  // index of the oldest point
+        private int size;
+        private volatile long lastSeen;
+
+        Track(long seenAt) {
+            this.lastSeen = seenAt;
+        }
+
+        long lastSeen() {
+            return lastSeen;
+        }
+
+        synchronized void append(long time, double latitude, double longitude, double altitude, long seenAt) {
+            lastSeen = seenAt;
+            if (size > 0 && time <= times[index(size - 1)]) {
+                return; // no new report since the last snapshot
+            }
+
+            int lat = (int) Math.round(latitude * COORDINATE_SCALE);
+            int lon = (int) Math.round(longitude * COORDINATE_SCALE);
+            int alt = (int) Math.round(altitude);
+
+            if (size >= 2 && redundant(index(size - 2), index(size - 1), lat, lon, alt, time)) {
+                set(index(size - 1), lat, lon, alt, time);
+                return;
+            }
+            if (size == latitudes.length && size < maxPoints) {
+                grow();
+            }
+            if (size == latitudes.length) {
+                set(head, lat, lon, alt, time);
+                head = (head + 1) % latitudes.length;
+            } else {
+                set(index(size), lat, lon, alt, time);
+                size++;
+            }
+        }
+
+        /**
+         * Whether the point at {@code middle} adds nothing to a straight segment from
+         * {@code start} to the new point.
+         */
+        private boolean redundant(int start, int middle, int lat, int lon, int alt, long time) {
+            if (time - times[start] > maxSegmentMillis) {
+                return false;
+            }
+            // Local equirectangular projection around the segment start, in metres
+            double cosLat = Math.cos(Math.toRadians(latitudes[start] / COORDINATE_SCALE));
+            double ex = (lon - longitudes[start]) / COORDINATE_SCALE * METERS_PER_DEGREE * cosLat;
+            double ey = (lat - latitudes[start]) / COORDINATE_SCALE * METERS_PER_DEGREE;
+            double mx = (longitudes[middle] - longitudes[start]) / COORDINATE_SCALE * METERS_PER_DEGREE * cosLat;
+            double my = (latitudes[middle] - latitudes[start]) / COORDINATE_SCALE * METERS_PER_DEGREE;
+
+            double length = Math.hypot(ex, ey);
+            double offTrack = length == 0 ? Math.hypot(mx, my) : Math.abs(ex * my - ey * mx) / length;
+            double along = length == 0 ? 0 : (ex * mx + ey * my) / length;
+            // Beyond either end means the aircraft turned back, even if it stayed on the line
+            if (offTrack > toleranceMeters || along < -toleranceMeters || along > length + toleranceMeters) {
+                return false;
+            }
+
+            // Altitude must also be on the line, at the middle point's share of the elapsed time
+            double share = (double) (times[middle] - times[start]) / (time - times[start]);
+            double expectedAltitude = altitudes[start] + share * (alt - altitudes[start]);
+            return Math.abs(altitudes[middle] - expectedAltitude) <= toleranceMeters;
+        }
+
+        synchronized FlightTrack copySince(String flightId, long since) {
+            int first = 0;
+            while (first < size && times[index(first)] < since) {
+                first++;
+            }
+
+            int count = size - first;
+            long[] outTimes = new long[count];
+            double[] outLatitudes = new double[count];
+            double[] outLongitudes = new double[count];
+            double[] outAltitudes = new double[count];
+            for (int i = 0; i < count; i++) {
+                int at = index(first + i);
+                outTimes[i] = times[at];
+                outLatitudes[i] = latitudes[at] / COORDINATE_SCALE;
+                outLongitudes[i] = longitudes[at] / COORDINATE_SCALE;
+                outAltitudes[i] = altitudes[at];
+            }
+            return new FlightTrack(flightId, outTimes, outLatitudes, outLongitudes, outAltitudes);
+        }
+
+        private int index(int offset) {
+            return (head + offset) % latitudes.length;
+        }
+
+        private void set(int at, int lat, int lon, int alt, long time) {
+            latitudes[at] = lat;
+            longitudes[at] = lon;
+            altitudes[at] = alt;
+            times[at] = time;
+        }
+
+        /**
+         * Only called while the buffer has never wrapped, so head is 0.
+         */
+        private void grow() {
+            int capacity = Math.min(maxPoints, latitudes.length * 2);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            altitudes = Arrays.copyOf(altitudes, capacity);
+            times = Arrays.copyOf(times, capacity);
+        }
+    }
+}
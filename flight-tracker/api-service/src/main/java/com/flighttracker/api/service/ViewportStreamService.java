@@ -0,0 +1,169 @@
+package com.flighttracker.api.service;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.FlightCluster;
+import com.flighttracker.api.domain.FlightSnapshot;
+import com.flighttracker.api.domain.Viewport;
+import com.flighttracker.api.domain.ViewportFrame;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams to each client only what its map viewport can show.
+ *
+ * A client connects with its initial viewport and receives a "session" event
+ * carrying its session id; it then reports pans and zooms with
+ * {@link #updateViewport}. On every snapshot refresh and every viewport change
+ * the client gets one "view" event, selected from the snapshot's shared spatial
+ * index. Below {@code cluster-below-zoom}, or when more than {@code max-flights}
+ * are in view, flights are replaced by cluster counts on a grid of roughly
+ * {@code cluster-pixels} screen pixels per cell.
+ */
+@Service
+public class ViewportStreamService {
+
+    private static final double TILE_PIXELS = 256.0;
+    // Caps the cluster grid when a viewport is far wider than its zoom level implies
+    private static final int MAX_CLUSTER_COLUMNS = 64;
+
+    private final FlightSnapshotStore snapshotStore;
+    private final int clusterBelowZoom;
+    private final int maxFlights;
+    private final double clusterPixels;
+    private final Map<String, Sinks.Many<Viewport>> sessions = new ConcurrentHashMap<>();
+
+    public ViewportStreamService(
+            FlightSnapshotStore snapshotStore,
+            @Value("${flight.stream.viewport.cluster-below-zoom:6}") int clusterBelowZoom,
+            @Value("${flight.stream.viewport.max-flights:1500}") int maxFlights,
+            @Value("${flight.stream.viewport.cluster-pixels:60}") double clusterPixels) {
+        this.snapshotStore = snapshotStore;
+        this.clusterBelowZoom = clusterBelowZoom;
+        this.maxFlights = maxFlights;
+        this.clusterPixels = clusterPixels;
+    }
+
+    /**
+     * Per-client event stream, starting from {@code initial}. The session ends, and
+     * its id stops accepting updates, when the client disconnects. A slow client
+     * skips to the newest view.
+     */
+    public Flux<ServerSentEvent<Object>> streamViewport(Viewport initial) {
+        return Flux.<ServerSentEvent<Object>>defer(() -> {
+            String sessionId = UUID.randomUUID().toString();
+            Sinks.Many<Viewport> viewports = Sinks.many().replay().latest();
+            viewports.tryEmitNext(initial);
+            sessions.put(sessionId, viewports);
+
+            // Rendered off the thread that swaps in snapshots, so sessions don't hold up
+            // each other or the poller; a render that falls behind skips to the newest input
+            Flux<ServerSentEvent<Object>> views = Flux
+                    .combineLatest(snapshotStore.updates(), viewports.asFlux(), Tuples::of)
+                    .onBackpressureLatest()
+                    .publishOn(Schedulers.parallel(), 1)
+                    .map(input -> viewEvent(render(input.getT1(), input.getT2())));
+            return Flux.concat(Mono.just(sessionEvent(sessionId)), views)
+                    .doFinally(signal -> sessions.remove(sessionId));
+        });
+    }
+
+    /**
+     * Moves a connected client's viewport; its next view is sent right away.
+     * Returns false if no such session is connected.
+     */
+    public boolean updateViewport(String sessionId, Viewport viewport) {
+        Sinks.Many<Viewport> viewports = sessions.get(sessionId);
+        if (viewports == null) {
+            return false;
+        }
+        // Concurrent updates from one client would otherwise fail the sink's serialization check
+        synchronized (viewports) {
+            viewports.tryEmitNext(viewport);
+        }
+        return true;
+    }
+
+    public int activeSessions() {
+        return sessions.size();
+    }
+
+    ViewportFrame render(FlightSnapshot snapshot, Viewport viewport) {
+        int[] ordinals = snapshot.getSpatialIndex()
+                .withinBox(viewport.minLat(), viewport.maxLat(), viewport.minLon(), viewport.maxLon());
+        if (viewport.zoom() >= clusterBelowZoom && ordinals.length <= maxFlights) {
+            return new ViewportFrame(snapshot.getFetchedAt(), ordinals.length, snapshot.select(ordinals), List.of());
+        }
+        return new ViewportFrame(snapshot.getFetchedAt(), ordinals.length, List.of(),
+                cluster(snapshot.getFleet(), ordinals, viewport));
+    }
+
+    /**
+     * Bins flights into square cells across the viewport and returns one cluster per
+     * non-empty cell, at the mean position of its flights.
+     */
+    private List<FlightCluster> cluster(FleetColumns fleet, int[] ordinals, Viewport viewport) {
+        double latSpan = viewport.maxLat() - viewport.minLat();
+        double lonSpan = viewport.lonSpan();
+        double cellDegrees = Math.max(
+                clusterPixels * 360.0 / (TILE_PIXELS * Math.pow(2, viewport.zoom())),
+                Math.max(latSpan, lonSpan) / MAX_CLUSTER_COLUMNS);
+        int rows = Math.max(1, (int) Math.ceil(latSpan / cellDegrees));
+        int cols = Math.max(1, (int) Math.ceil(lonSpan / cellDegrees));
+
+        int[] counts = new int[rows * cols];
+        double[] latitudeSums = new double[rows * cols];
+        double[] offsetSums = new double[rows * cols];
+        for (int ordinal : ordinals) {
+            double latitude = fleet.latitude(ordinal);
+            // Measured east from the viewport's west edge, so boxes across the antimeridian bin correctly
+            double offset = fleet.longitude(ordinal) - viewport.minLon();
+            if (offset < 0) {
+                offset += 360;
+            }
+            int row = Math.min(rows - 1, (int) ((latitude - viewport.minLat()) / cellDegrees));
+            int col = Math.min(cols - 1, (int) (offset / cellDegrees));
+            int cell = row * cols + col;
+            counts[cell]++;
+            latitudeSums[cell] += latitude;
+            offsetSums[cell] += offset;
+        }
+
+        List<FlightCluster> clusters = new ArrayList<>();
+        for (int cell = 0; cell < counts.length; cell++) {
+            int count = counts[cell];
+            if (count == 0) {
+                continue;
+            }
+            double longitude = viewport.minLon() + offsetSums[cell] / count;
+            if (longitude >= 180) {
+                longitude -= 360;
+            }
+            clusters.add(new FlightCluster(latitudeSums[cell] / count, longitude, count));
+        }
+        return clusters;
+    }
+
+    private static ServerSentEvent<Object> sessionEvent(String sessionId) {
+        return ServerSentEvent.<Object>builder(sessionId)
+                .event("session")
+                .build();
+    }
+
+    private static ServerSentEvent<Object> viewEvent(ViewportFrame frame) {
+        return ServerSentEvent.<Object>builder(frame)
+                .event("view")
+                .build();
+    }
+}
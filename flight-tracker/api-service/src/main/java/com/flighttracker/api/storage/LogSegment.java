@@ -0,0 +1,427 @@
+package com.flighttracker.api.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * One file of the snapshot log plus its time index.
+ * <p>
+ * Segment file {@code <first timestamp>.log}:
+ * <pre>
+ * header  "FSL" | version u8 | flags u8 (bit 0 = compacted) | 3 bytes reserved
+ * record  length i32 | fetchedAt i64 | crc32 i32 of the payload | payload
+ * </pre>
+ * The payload is one {@link com.flighttracker.api.codec.FlightBatchCodec} batch.
+ * Index file {@code <first timestamp>.idx} holds one entry per record:
+ * fetchedAt i64, file position i32.
+ * <p>
+ * Opening a segment checks its index against the records and scans whatever
+ * follows the last indexed record, so records written after the index, or an
+ * index lost altogether, are recovered. A torn record at the end of the newest
+ * segment is cut off.
+ * <p>
+ * One thread appends; any thread may read. While a segment takes appends, each
+ * reader maps the records completed so far; once sealed, the segment keeps a
+ * single mapping that stays readable even after compaction replaces the file or
+ * retention deletes it.
+ */
+final class LogSegment implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LogSegment.class);
+
+    static final String LOG_SUFFIX = ".log";
+    static final String INDEX_SUFFIX = ".idx";
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 16;
+    static final int INDEX_ENTRY_BYTES = 12;
+
+    private static final byte[] MAGIC = {'F', 'S', 'L'};
+    private static final int VERSION = 1;
+    private static final int FLAG_COMPACTED = 1;
+
+    private final Path path;
+    private final Path indexPath;
+    private final long baseTime;
+    private final boolean compacted;
+
+    private FileChannel channel;       // open while the segment takes appends
+    private FileChannel indexChannel;
+
+    // Index arrays are replaced when they grow; count is published last, so readers
+    // that read count first never see an entry that isn't filled in yet
+    private volatile long[] times = new long[64];
+    private volatile int[] positions = new int[64];
+    private volatile int count;
+    private volatile long size;
+    private volatile MappedByteBuffer sealedMap;
+
+    private LogSegment(Path path, long baseTime, boolean compacted) {
+        this.path = path;
+        this.indexPath = indexPathOf(path);
+        this.baseTime = baseTime;
+        this.compacted = compacted;
+    }
+
+    /**
+     * Creates an empty segment whose first record is at {@code baseTime}, open for appends.
+     */
+    static LogSegment create(Path directory, long baseTime) throws IOException {
+        Path path = directory.resolve(fileName(baseTime));
+        LogSegment segment = new LogSegment(path, baseTime, false);
+        segment.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segment.channel.write(header(false));
+        segment.indexChannel = FileChannel.open(segment.indexPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        segment.size = HEADER_BYTES;
+        return segment;
+    }
+
+    /**
+     * Opens an existing segment, recovering its index. With {@code writable} the
+     * segment takes further appends and a torn tail is truncated.
+     */
+    static LogSegment open(Path path, boolean writable) throws IOException {
+        long baseTime = Long.parseLong(path.getFileName().toString().replace(LOG_SUFFIX, ""));
+        try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            reader.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.get() != MAGIC[0] || header.get() != MAGIC[1]
+                    || header.get() != MAGIC[2] || header.get() != VERSION) {
+                throw new IOException("Not a snapshot log segment: " + path);
+            }
+            boolean compacted = (header.get() & FLAG_COMPACTED) != 0;
+
+            LogSegment segment = new LogSegment(path, baseTime, compacted);
+            MappedByteBuffer map = reader.map(FileChannel.MapMode.READ_ONLY, 0, reader.size());
+            long valid = segment.recover(map);
+            if (!writable) {
+                segment.sealedMap = map;
+            } else {
+                segment.channel = FileChannel.open(path, StandardOpenOption.WRITE);
+                if (valid < reader.size()) {
+                    log.warn("Truncating torn record at {} in {}", valid, path);
+                    segment.channel.truncate(valid);
+                }
+                segment.channel.position(valid);
+                segment.indexChannel = FileChannel.open(segment.indexPath, StandardOpenOption.WRITE);
+                segment.indexChannel.position((long) segment.count * INDEX_ENTRY_BYTES);
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Loads the index entries that match the records, scans any records after them
+     * and rewrites the index if it was incomplete. Returns the end of the last valid record.
+     */
+    private long recover(MappedByteBuffer map) throws IOException {
+        long fileSize = map.limit();
+        int indexed = 0;
+        if (Files.exists(indexPath)) {
+            ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            while (index.remaining() >= INDEX_ENTRY_BYTES) {
+                long time = index.getLong();
+                int position = index.getInt();
+                if (position < HEADER_BYTES || position + RECORD_HEADER_BYTES > fileSize) {
+                    break;
+                }
+                addEntry(time, position);
+                indexed++;
+            }
+        }
+
+        // Keep only a prefix of index entries whose records agree with them
+        int verified = 0;
+        while (verified < count && recordTime(map, positions[verified]) == times[verified]) {
+            verified++;
+        }
+        count = verified;
+
+        long end = count == 0 ? HEADER_BYTES : positions[count - 1] + recordLength(map, positions[count - 1]);
+        while (end + RECORD_HEADER_BYTES <= fileSize) {
+            int length = map.getInt((int) end);
+            long recordEnd = end + RECORD_HEADER_BYTES + length;
+            if (length <= 0 || recordEnd > fileSize || !checksumMatches(map, (int) end, length)) {
+                break;
+            }
+            addEntry(map.getLong((int) end + 4), (int) end);
+            end = recordEnd;
+        }
+
+        size = end;
+        if (count != indexed) {
+            writeIndex();
+        }
+        return end;
+    }
+
+    private static long recordTime(ByteBuffer map, int position) {
+        int length = map.getInt(position);
+        if (length <= 0 || (long) position + RECORD_HEADER_BYTES + length > map.limit()) {
+            return Long.MIN_VALUE;
+        }
+        return map.getLong(position + 4);
+    }
+
+    private static int recordLength(ByteBuffer map, int position) {
+        return RECORD_HEADER_BYTES + map.getInt(position);
+    }
+
+    private static boolean checksumMatches(ByteBuffer map, int position, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(map.slice(position + RECORD_HEADER_BYTES, length));
+        return (int) crc.getValue() == map.getInt(position + 12);
+    }
+
+    /**
+     * Appends one record. Only called by the log's writer thread.
+     */
+    void append(long fetchedAt, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putLong(fetchedAt)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+
+        int position = (int) size;
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES).putLong(fetchedAt).putInt(position).flip();
+        while (entry.hasRemaining()) {
+            indexChannel.write(entry);
+        }
+
+        size = position + RECORD_HEADER_BYTES + payload.length;
+        addEntry(fetchedAt, position);
+    }
+
+    private void addEntry(long time, int position) {
+        int n = count;
+        if (n == times.length) {
+            times = Arrays.copyOf(times, n * 2);
+            positions = Arrays.copyOf(positions, n * 2);
+        }
+        times[n] = time;
+        positions[n] = position;
+        count = n + 1;
+    }
+
+    private void writeIndex() throws IOException {
+        ByteBuffer index = ByteBuffer.allocate(count * INDEX_ENTRY_BYTES);
+        for (int i = 0; i < count; i++) {
+            index.putLong(times[i]).putInt(positions[i]);
+        }
+        Files.write(indexPath, index.array());
+    }
+
+    /**
+     * Flushes and stops taking appends; the segment stays readable.
+     */
+    void seal() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+            indexChannel.force(false);
+            indexChannel.close();
+            channel = null;
+            indexChannel = null;
+            sealedMap = map(size);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        seal();
+    }
+
+    /**
+     * Read view of the records appended so far. Cheap to create; the mapping is
+     * released when the cursor is no longer referenced.
+     */
+    Cursor cursor(long from) {
+        int n = count;
+        long end = size;
+        long[] indexTimes = times;
+        int[] indexPositions = positions;
+
+        int first = Arrays.binarySearch(indexTimes, 0, n, from);
+        if (first < 0) {
+            first = -first - 1;
+        } else {
+            while (first > 0 && indexTimes[first - 1] == from) {
+                first--;
+            }
+        }
+        MappedByteBuffer map = sealedMap;
+        return new Cursor(map != null ? map : map(end), indexTimes, indexPositions, first, n);
+    }
+
+    private MappedByteBuffer map(long length) {
+        try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+            return reader.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map " + path, e);
+        }
+    }
+
+    /**
+     * Rewrites this sealed segment keeping records at least {@code intervalMillis}
+     * apart, and marks it compacted. Returns the new segment, or this one if it
+     * is already compacted or nothing would be dropped.
+     */
+    LogSegment compact(long intervalMillis) throws IOException {
+        if (compacted || count == 0) {
+            return this;
+        }
+        Cursor cursor = cursor(Long.MIN_VALUE);
+        Path tmp = path.resolveSibling(path.getFileName() + ".compacting");
+        LogSegment result = new LogSegment(path, baseTime, true);
+        int kept = 0;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            out.write(header(true));
+            long position = HEADER_BYTES;
+            long lastKept = Long.MIN_VALUE;
+            while (cursor.next()) {
+                if (lastKept != Long.MIN_VALUE && cursor.time() - lastKept < intervalMillis) {
+                    continue;
+                }
+                ByteBuffer record = cursor.record();
+                result.addEntry(cursor.time(), (int) position);
+                position += record.remaining();
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+                lastKept = cursor.time();
+                kept++;
+            }
+            out.force(false);
+            result.size = position;
+        }
+
+        // The log is renamed over the old one first: if the index write is lost, opening rebuilds it
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        result.writeIndex();
+        result.sealedMap = result.map(result.size);
+        log.info("Compacted {}: kept {} of {} snapshots", path.getFileName(), kept, count);
+        return result;
+    }
+
+    void delete() throws IOException {
+        seal();
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(indexPath);
+    }
+
+    long baseTime() {
+        return baseTime;
+    }
+
+    /**
+     * Time of the last record, or the base time if there are none yet.
+     */
+    long lastTime() {
+        int n = count;
+        return n == 0 ? baseTime : times[n - 1];
+    }
+
+    int recordCount() {
+        return count;
+    }
+
+    long sizeBytes() {
+        return size;
+    }
+
+    boolean isCompacted() {
+        return compacted;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    static String fileName(long baseTime) {
+        // Zero-padded so names sort by time
+        return String.format("%020d%s", baseTime, LOG_SUFFIX);
+    }
+
+    private static Path indexPathOf(Path path) {
+        return path.resolveSibling(path.getFileName().toString().replace(LOG_SUFFIX, INDEX_SUFFIX));
+    }
+
+    private static ByteBuffer header(boolean compacted) {
+        return ByteBuffer.allocate(HEADER_BYTES)
+                .put(MAGIC)
+                .put((byte) VERSION)
+                .put((byte) (compacted ? FLAG_COMPACTED : 0))
+                .put(new byte[3])
+                .flip();
+    }
+
+    /**
+     * Forward iterator over records, reading straight from the mapping.
+     */
+    static final class Cursor {
+
+        private final MappedByteBuffer map;
+        private final long[] times;
+        private final int[] positions;
+        private final int end;
+        private int next;
+        private int current = -1;
+
+        private Cursor(MappedByteBuffer map, long[] times, int[] positions, int first, int end) {
+            this.map = map;
+            this.times = times;
+            this.positions = positions;
+            this.next = first;
+            this.end = end;
+        }
+
+        boolean next() {
+            if (next >= end) {
+                return false;
+            }
+            current = next++;
+            return true;
+        }
+
+        long time() {
+            return times[current];
+        }
+
+        /**
+         * The current record's payload, as a view of the mapping.
+         */
+        ByteBuffer payload() {
+            int position = positions[current];
+            return map.slice(position + RECORD_HEADER_BYTES, map.getInt(position));
+        }
+
+        /**
+         * The current record including its header, as a view of the mapping.
+         */
+        ByteBuffer record() {
+            int position = positions[current];
+            return map.slice(position, RECORD_HEADER_BYTES + map.getInt(position));
+        }
+    }
+}
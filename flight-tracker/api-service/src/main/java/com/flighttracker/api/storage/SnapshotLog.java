@@ -0,0 +1,302 @@
+package com.flighttracker.api.storage;
+
+import com.flighttracker.api.codec.FlightBatchCodec;
+import com.flighttracker.api.domain.Flight;
+import com.flighttracker.api.domain.FlightSnapshot;
+import com.flighttracker.api.service.FlightSnapshotStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only on-disk log of every fleet snapshot, for replay and incident analysis.
+ * <p>
+ * Each snapshot is one record holding its FlightBatchCodec encoding, appended to
+ * the newest segment file under {@code dir} (see {@link LogSegment} for the
+ * layout). A segment is sealed and a new one started once it reaches
+ * {@code segment-bytes} or spans {@code segment-minutes}.
+ * <p>
+ * Replays read through a read-only memory mapping of each segment, find their
+ * start by binary search on the segment's time index, and decode one snapshot at
+ * a time just before it is emitted, so the heap holds at most the snapshot being
+ * sent per replay regardless of the time range.
+ * <p>
+ * Once a minute, sealed segments are:
+ * <ul>
+ *   <li>deleted when their newest snapshot is older than {@code retention-hours},
+ *       or oldest first while the log is larger than {@code max-megabytes}</li>
+ *   <li>compacted once older than {@code compact-after-hours}: rewritten keeping
+ *       one snapshot per {@code compacted-interval-seconds}</li>
+ * </ul>
+ * Appends and maintenance run on one dedicated thread, so they never race each
+ * other; replays may run on any thread. Appends are not forced to disk until the
+ * segment is sealed; a record torn by a crash is dropped on the next start.
+ */
+@Component
+public class SnapshotLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotLog.class);
+
+    private static final Duration MAINTENANCE_INTERVAL = Duration.ofMinutes(1);
+    private static final String COMPACTING_SUFFIX = ".compacting";
+
+    private final FlightSnapshotStore snapshotStore;
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentBytes;
+    private final long segmentMillis;
+    private final long retentionMillis;
+    private final long maxBytes;
+    private final long compactAfterMillis;
+    private final long compactedIntervalMillis;
+
+    // Keyed by each segment's first timestamp; the last entry is the active segment
+    private final ConcurrentNavigableMap<Long, LogSegment> segments = new ConcurrentSkipListMap<>();
+
+    private Scheduler writer;
+    private Disposable appender;
+    private Disposable maintenance;
+    private LogSegment active;  // writer thread only
+
+    public SnapshotLog(
+            FlightSnapshotStore snapshotStore,
+            @Value("${flight.snapshot-log.enabled:false}") boolean enabled,
+            @Value("${flight.snapshot-log.dir:data/snapshot-log}") String directory,
+            @Value("${flight.snapshot-log.segment-bytes:67108864}") long segmentBytes,
+            @Value("${flight.snapshot-log.segment-minutes:60}") long segmentMinutes,
+            @Value("${flight.snapshot-log.retention-hours:24}") long retentionHours,
+            @Value("${flight.snapshot-log.max-megabytes:10240}") long maxMegabytes,
+            @Value("${flight.snapshot-log.compact-after-hours:6}") long compactAfterHours,
+            @Value("${flight.snapshot-log.compacted-interval-seconds:60}") long compactedIntervalSeconds) {
+        this.snapshotStore = snapshotStore;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        // Record positions are ints, so a segment can't pass 2 GB
+        this.segmentBytes = Math.min(segmentBytes, Integer.MAX_VALUE);
+        this.segmentMillis = Duration.ofMinutes(segmentMinutes).toMillis();
+        this.retentionMillis = Duration.ofHours(retentionHours).toMillis();
+        this.maxBytes = maxMegabytes * 1024 * 1024;
+        this.compactAfterMillis = Duration.ofHours(compactAfterHours).toMillis();
+        this.compactedIntervalMillis = Duration.ofSeconds(compactedIntervalSeconds).toMillis();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        openSegments();
+
+        writer = Schedulers.newSingle("snapshot-log");
+        appender = snapshotStore.updates()
+                .onBackpressureBuffer()
+                .publishOn(writer)
+                .subscribe(this::append, e -> log.error("Snapshot log appender stopped: {}", e.getMessage()));
+        maintenance = Flux.interval(MAINTENANCE_INTERVAL, MAINTENANCE_INTERVAL, writer)
+                .subscribe(tick -> maintain());
+
+        log.info("SnapshotLog started in {}: {} segments, {} MB",
+                directory.toAbsolutePath(), segments.size(), totalBytes() / (1024 * 1024));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        appender.dispose();
+        maintenance.dispose();
+        // Seal on the writer thread so it can't interleave with an append in progress
+        Mono.fromRunnable(this::sealActive)
+                .subscribeOn(writer)
+                .block(Duration.ofSeconds(10));
+        writer.dispose();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replays the snapshots fetched between {@code from} and {@code to} (epoch
+     * millis, inclusive), spaced by their original intervals divided by
+     * {@code speed}. The first one is emitted immediately. The range is read
+     * when subscribed; snapshots appended after that are not included.
+     */
+    public Flux<List<Flight>> replay(long from, long to, double speed) {
+        if (!enabled) {
+            return Flux.error(new IllegalStateException("Snapshot log is disabled"));
+        }
+        return Flux.defer(() -> {
+            long[] previous = {Long.MIN_VALUE};
+            return Flux.fromIterable(segmentsBetween(from, to))
+                    .concatMap(segment -> records(segment, from, to), 1)
+                    .concatMap(record -> {
+                        long gap = previous[0] == Long.MIN_VALUE ? 0 : record.time() - previous[0];
+                        previous[0] = record.time();
+                        Mono<Record> paced = Mono.just(record);
+                        return gap <= 0 ? paced : paced.delayElement(Duration.ofMillis((long) (gap / speed)));
+                    }, 1)
+                    .map(record -> FlightBatchCodec.decode(record.payload()));
+        });
+    }
+
+    private List<LogSegment> segmentsBetween(long from, long to) {
+        List<LogSegment> result = new ArrayList<>();
+        for (LogSegment segment : segments.headMap(to, true).values()) {
+            if (segment.lastTime() >= from) {
+                result.add(segment);
+            }
+        }
+        return result;
+    }
+
+    private static Flux<Record> records(LogSegment segment, long from, long to) {
+        return Flux.generate(() -> segment.cursor(from), (cursor, sink) -> {
+            if (cursor.next() && cursor.time() <= to) {
+                sink.next(new Record(cursor.time(), cursor.payload()));
+            } else {
+                sink.complete();
+            }
+            return cursor;
+        });
+    }
+
+    private void append(FlightSnapshot snapshot) {
+        try {
+            // Times must not go backwards within the log, or the index search breaks
+            long time = active == null ? snapshot.getFetchedAt() : Math.max(snapshot.getFetchedAt(), active.lastTime());
+            byte[] payload = FlightBatchCodec.encode(snapshot.getFleet());
+            if (active == null || shouldRoll(time, payload.length)) {
+                roll(time);
+            }
+            active.append(time, payload);
+        } catch (IOException e) {
+            log.error("Failed to append snapshot to {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private boolean shouldRoll(long time, int payloadBytes) {
+        if (active.recordCount() == 0) {
+            return false;
+        }
+        return active.sizeBytes() + LogSegment.RECORD_HEADER_BYTES + payloadBytes > segmentBytes
+                || time - active.baseTime() >= segmentMillis;
+    }
+
+    private void roll(long time) throws IOException {
+        long baseTime = time;
+        if (active != null) {
+            active.seal();
+            baseTime = Math.max(time, active.baseTime() + 1);
+        }
+        active = LogSegment.create(directory, baseTime);
+        segments.put(baseTime, active);
+        log.debug("Started snapshot log segment {}", active.path().getFileName());
+    }
+
+    private void sealActive() {
+        try {
+            if (active != null) {
+                active.seal();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to seal {}: {}", active.path(), e.getMessage());
+        }
+    }
+
+    /**
+     * Applies retention and compaction to sealed segments. Runs on the writer thread.
+     */
+    void maintain() {
+        long now = System.currentTimeMillis();
+        long total = totalBytes();
+        for (Map.Entry<Long, LogSegment> entry : segments.entrySet()) {
+            LogSegment segment = entry.getValue();
+            if (segment == active) {
+                break;
+            }
+            try {
+                if (segment.lastTime() < now - retentionMillis || total > maxBytes) {
+                    total -= segment.sizeBytes();
+                    segments.remove(entry.getKey());
+                    segment.delete();
+                    log.info("Deleted snapshot log segment {}", segment.path().getFileName());
+                } else if (!segment.isCompacted() && segment.lastTime() < now - compactAfterMillis) {
+                    LogSegment compacted = segment.compact(compactedIntervalMillis);
+                    total -= segment.sizeBytes() - compacted.sizeBytes();
+                    segments.put(entry.getKey(), compacted);
+                }
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("Maintenance of {} failed: {}", segment.path().getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Opens the segments left by earlier runs. The newest keeps taking appends.
+     */
+    private void openSegments() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.sorted().toList();
+        }
+
+        List<Path> logs = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(COMPACTING_SUFFIX)) {
+                Files.delete(file); // interrupted compaction; the original is still in place
+            } else if (name.endsWith(LogSegment.LOG_SUFFIX)) {
+                logs.add(file);
+            }
+        }
+
+        for (int i = 0; i < logs.size(); i++) {
+            boolean newest = i == logs.size() - 1;
+            try {
+                LogSegment segment = LogSegment.open(logs.get(i), newest);
+                segments.put(segment.baseTime(), segment);
+                if (newest) {
+                    active = segment;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Skipping unreadable snapshot log segment {}: {}", logs.get(i), e.getMessage());
+            }
+        }
+    }
+
+    private long totalBytes() {
+        long total = 0;
+        for (LogSegment segment : segments.values()) {
+            total += segment.sizeBytes();
+        }
+        return total;
+    }
+
+    private record Record(long time, ByteBuffer payload) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.flighttracker.api.domain;
+
+import com.flighttracker.api.domain.FleetColumns.StringField;
+import com.flighttracker.common.model.FlightStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FleetColumnsTest {
+
+    private static Flight flight(String flightId, String callsign, String departure, String destination) {
+        Flight flight = new Flight();
+        flight.setFlightId(flightId);
+        flight.setCallsign(callsign);
+        flight.setDepartureAirportIcao(departure);
+        flight.setDestinationAirportIcao(destination);
+        flight.setLatitude(47.45);
+        flight.setLongitude(8.55);
+        flight.setAltitude(3000);
+        flight.setSpeed(120);
+        flight.setStatus(FlightStatus.IN_FLIGHT);
+        flight.setLastUpdated(1_000L);
+        return flight;
+    }
+
+    @Test
+    void repeated_strings_share_one_dictionary_entry_across_fields() {
+        FleetColumns fleet = FleetColumns.of(List.of(
+                flight("4b1815", "SWR100", "LSZH", "KJFK"),
+                flight("4b1816", "SWR101", "KJFK", "LSZH"),
+                flight("4b1817", "SWR100", "LSZH", null)));
+
+        assertThat(fleet.dictionary()).containsExactly(null, "SWR100", "LSZH", "KJFK", "SWR101");
+        assertThat(fleet.stringId(StringField.CALLSIGN, 0)).isEqualTo(fleet.stringId(StringField.CALLSIGN, 2));
+        assertThat(fleet.stringId(StringField.DEPARTURE_AIRPORT_ICAO, 0))
+                .isEqualTo(fleet.stringId(StringField.DESTINATION_AIRPORT_ICAO, 1));
+        assertThat(fleet.stringId(StringField.CALLSIGN, 0)).isNotEqualTo(fleet.stringId(StringField.CALLSIGN, 1));
+    }
+
+    @Test
+    void null_and_unset_strings_map_to_id_zero() {
+        FleetColumns.Builder builder = new FleetColumns.Builder(1);
+        builder.add("4b1815", null, 0, 0, 0, 0, null, 0L);
+        FleetColumns fleet = builder.build();
+
+        for (StringField field : StringField.values()) {
+            assertThat(fleet.stringId(field, 0)).as(field.name()).isZero();
+            assertThat(fleet.string(field, 0)).as(field.name()).isNull();
+        }
+        assertThat(fleet.dictionary()).containsExactly((String) null);
+        assertThat(fleet.status(0)).isNull();
+        assertThat(fleet.heading(0)).isNaN();
+        assertThat(fleet.verticalRate(0)).isZero();
+    }
+
+    @Test
+    void flights_round_trip_through_the_columns() {
+        Flight original = flight("4b1815", "SWR100", "LSZH", "KJFK");
+        original.setFlightNumber("LX100");
+        original.setDepartureAirportName("Zürich");
+        original.setDestinationAirportName("New York JFK");
+        original.setScheduledDepartureTime("2024-05-01T10:00:00Z");
+        original.setActualDepartureTime("2024-05-01T10:07:00Z");
+        original.setScheduledArrivalTime("2024-05-01T18:55:00Z");
+        original.setEstimatedArrivalTime("2024-05-01T18:40:00Z");
+
+        Flight copy = FleetColumns.of(List.of(original)).toFlight(0);
+
+        assertThat(copy).usingRecursiveComparison().isEqualTo(original);
+    }
+
+    @Test
+    void builder_grows_past_its_initial_capacity_and_trims_on_build() {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            flights.add(flight(String.format("%06x", i), "CS" + (i % 7), "LSZH", "KJFK"));
+        }
+        FleetColumns.Builder builder = new FleetColumns.Builder(1);
+        flights.forEach(builder::add);
+        builder.setMotion(99, 270.0, -5.0);
+
+        FleetColumns fleet = builder.build();
+
+        assertThat(fleet.size()).isEqualTo(100);
+        assertThat(fleet.latitudes()).hasSize(100);
+        assertThat(fleet.stringIds(StringField.CALLSIGN)).hasSize(100);
+        // null, 7 callsigns, 2 airports
+        assertThat(fleet.dictionary()).hasSize(10);
+        assertThat(fleet.flightId(99)).isEqualTo("000063");
+        assertThat(fleet.callsign(99)).isEqualTo("CS1");
+        assertThat(fleet.heading(99)).isEqualTo(270.0);
+        assertThat(fleet.verticalRate(99)).isEqualTo(-5.0);
+    }
+
+    @Test
+    void built_columns_are_not_affected_by_further_adds() {
+        FleetColumns.Builder builder = new FleetColumns.Builder(4);
+        builder.add("4b1815", "SWR100", 1, 2, 3, 4, FlightStatus.IN_FLIGHT, 5L);
+        FleetColumns first = builder.build();
+        builder.add("4b1816", "DLH400", 1, 2, 3, 4, FlightStatus.LANDED, 5L);
+
+        assertThat(first.size()).isEqualTo(1);
+        assertThat(first.dictionary()).containsExactly(null, "SWR100");
+        assertThat(builder.build().dictionary()).containsExactly(null, "SWR100", "DLH400");
+    }
+}
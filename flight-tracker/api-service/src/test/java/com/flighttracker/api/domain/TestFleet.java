@@ -0,0 +1,91 @@
+package com.flighttracker.api.domain;
+
+import com.flighttracker.api.domain.FleetColumns.StringField;
+import com.flighttracker.common.model.FlightStatus;
+
+/**
+ * Builds small fleets for tests. Flights not given them get callsign "CS" + id,
+ * 10,000 m altitude, 230 m/s, IN_FLIGHT and the current report time.
+ */
+public final class TestFleet {
+
+    public static final long REPORTED_AT = 1000L;
+
+    private final FleetColumns.Builder builder = new FleetColumns.Builder(16);
+    private long reportedAt = REPORTED_AT;
+    private int last = -1;
+
+    private TestFleet() {
+    }
+
+    public static TestFleet fleet() {
+        return new TestFleet();
+    }
+
+    /**
+     * Flights at the given {lat, lon} positions, with ids 000000, 000001, ...
+     */
+    public static FleetColumns at(double[]... positions) {
+        TestFleet fleet = fleet();
+        for (int i = 0; i < positions.length; i++) {
+            fleet.add(String.format("%06x", i), positions[i][0], positions[i][1]);
+        }
+        return fleet.build();
+    }
+
+    /**
+     * Adds flights with the given ids, all at 10N 20E.
+     */
+    public TestFleet ids(String... ids) {
+        for (String id : ids) {
+            add(id, 10.0, 20.0);
+        }
+        return this;
+    }
+
+    /**
+     * Report time for the flights added after this call.
+     */
+    public TestFleet reportedAt(long reportedAt) {
+        this.reportedAt = reportedAt;
+        return this;
+    }
+
+    public TestFleet add(String id, double latitude, double longitude) {
+        return add(id, latitude, longitude, 10_000, 230);
+    }
+
+    public TestFleet add(String id, double latitude, double longitude, double altitude, double speed) {
+        return add(id, "CS" + id, latitude, longitude, altitude, speed, FlightStatus.IN_FLIGHT);
+    }
+
+    public TestFleet add(String id, String callsign, double latitude, double longitude, double altitude,
+                         double speed, FlightStatus status) {
+        last = builder.add(id, callsign, latitude, longitude, altitude, speed, status, reportedAt);
+        return this;
+    }
+
+    /**
+     * Sets heading and vertical rate on the flight added last.
+     */
+    public TestFleet motion(double heading, double verticalRate) {
+        builder.setMotion(last, heading, verticalRate);
+        return this;
+    }
+
+    /**
+     * Sets a string field on the flight added last.
+     */
+    public TestFleet set(StringField field, String value) {
+        builder.set(field, last, value);
+        return this;
+    }
+
+    public FleetColumns build() {
+        return builder.build();
+    }
+
+    public FlightSnapshot snapshot(long fetchedAt) {
+        return new FlightSnapshot(build(), fetchedAt);
+    }
+}
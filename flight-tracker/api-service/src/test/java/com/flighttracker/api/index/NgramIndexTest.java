@@ -0,0 +1,55 @@
+package com.flighttracker.api.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NgramIndexTest {
+
+    // callsign, flight number, departure airport
+    private final NgramIndex index = NgramIndex.build(List.of(
+            new String[]{"SWR100", "LX100", "Zurich"},
+            new String[]{"UAL123", "UA123", "Newark"},
+            new String[]{"DLH400", null, "Frankfurt"},
+            new String[]{"AAL1", "", "Dallas"},
+            new String[]{"abcxyz", "xyzabd", null}));
+
+    @Test
+    void queries_shorter_than_a_trigram_use_their_own_posting_list() {
+        assertThat(index.search("1")).containsExactly(0, 1, 3);
+        assertThat(index.search("00")).containsExactly(0, 2);
+        assertThat(index.search("ua")).containsExactly(1);
+    }
+
+    @Test
+    void matching_ignores_case_on_both_sides() {
+        assertThat(index.search("ZURICH")).containsExactly(0);
+        assertThat(index.search("zUrIcH")).containsExactly(0);
+        assertThat(index.search("swr1")).containsExactly(0);
+        assertThat(index.search("lx")).containsExactly(0);
+    }
+
+    @Test
+    void longer_queries_are_verified_against_the_whole_field() {
+        // Every trigram of "abcabd" occurs somewhere in row 4, but never as one substring
+        assertThat(index.search("abcabd")).isEmpty();
+        assertThat(index.search("xyzab")).containsExactly(4);
+        assertThat(index.search("frankfurt")).containsExactly(2);
+    }
+
+    @Test
+    void a_flight_matching_in_several_fields_is_listed_once() {
+        assertThat(index.search("123")).containsExactly(1);
+        assertThat(index.search("100")).containsExactly(0);
+    }
+
+    @Test
+    void empty_null_and_unknown_queries_match_nothing() {
+        assertThat(index.search("")).isEmpty();
+        assertThat(index.search(null)).isEmpty();
+        assertThat(index.search("q")).isEmpty();
+        assertThat(index.search("newarkx")).isEmpty();
+    }
+}
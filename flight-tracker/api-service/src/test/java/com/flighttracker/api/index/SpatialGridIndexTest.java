@@ -0,0 +1,149 @@
+package com.flighttracker.api.index;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.TestFleet;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SpatialGridIndexTest {
+
+    private static FleetColumns randomFleet(int size, long seed) {
+        Random random = new Random(seed);
+        double[][] positions = new double[size][];
+        for (int i = 0; i < size; i++) {
+            positions[i] = new double[]{random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180};
+        }
+        return TestFleet.at(positions);
+    }
+
+    @Test
+    void box_matches_a_linear_scan() {
+        FleetColumns fleet = randomFleet(5000, 1);
+        SpatialGridIndex index = SpatialGridIndex.build(fleet, 2.5);
+
+        int[] expected = IntStream.range(0, fleet.size())
+                .filter(i -> fleet.latitude(i) >= 10 && fleet.latitude(i) <= 40
+                        && fleet.longitude(i) >= -20 && fleet.longitude(i) <= 35)
+                .toArray();
+
+        assertThat(index.withinBox(10, 40, -20, 35)).containsExactly(expected);
+    }
+
+    @Test
+    void box_with_min_longitude_east_of_max_crosses_the_antimeridian() {
+        FleetColumns fleet = TestFleet.at(
+                new double[]{0, 175},
+                new double[]{0, -175},
+                new double[]{0, 180},
+                new double[]{0, 0},
+                new double[]{0, 165});
+        SpatialGridIndex index = SpatialGridIndex.build(fleet);
+
+        assertThat(index.withinBox(-10, 10, 170, -170)).containsExactly(0, 1, 2);
+        assertThat(index.withinBox(-10, 10, -170, 170)).containsExactly(3, 4);
+    }
+
+    @Test
+    void box_longitudes_outside_the_range_are_normalized() {
+        FleetColumns fleet = TestFleet.at(new double[]{0, -175}, new double[]{0, 175});
+        SpatialGridIndex index = SpatialGridIndex.build(fleet);
+
+        assertThat(index.withinBox(-10, 10, 180, 190)).containsExactly(0);
+    }
+
+    @Test
+    void radius_matches_a_linear_scan() {
+        FleetColumns fleet = randomFleet(5000, 2);
+        SpatialGridIndex index = SpatialGridIndex.build(fleet);
+
+        int[] expected = IntStream.range(0, fleet.size())
+                .filter(i -> SpatialGridIndex.distanceKm(48, 11, fleet.latitude(i), fleet.longitude(i)) <= 1500)
+                .toArray();
+
+        assertThat(index.withinRadius(48, 11, 1500)).containsExactly(expected);
+    }
+
+    @Test
+    void radius_reaches_across_the_antimeridian_and_over_a_pole() {
+        FleetColumns fleet = TestFleet.at(
+                new double[]{0, -179.9},
+                new double[]{0, 179.0},
+                new double[]{89.5, 0},
+                new double[]{89.5, 180});
+        SpatialGridIndex index = SpatialGridIndex.build(fleet);
+
+        assertThat(index.withinRadius(0, 179.9, 50)).containsExactly(0);
+        assertThat(index.withinRadius(89.9, 90, 100)).containsExactly(2, 3);
+        assertThat(index.withinRadius(0, 0, -1)).isEmpty();
+    }
+
+    @Test
+    void nearest_matches_a_sort_by_distance() {
+        FleetColumns fleet = randomFleet(3000, 3);
+        SpatialGridIndex index = SpatialGridIndex.build(fleet);
+
+        Integer[] expected = IntStream.range(0, fleet.size()).boxed()
+                .sorted(Comparator.comparingDouble(i -> SpatialGridIndex.distanceKm(-33.9, 151.2,
+                        fleet.latitude(i), fleet.longitude(i))))
+                .limit(25)
+                .toArray(Integer[]::new);
+
+        assertThat(Arrays.stream(index.nearest(-33.9, 151.2, 25)).boxed()).containsExactly(expected);
+    }
+
+    @Test
+    void nearest_looks_across_the_antimeridian() {
+        FleetColumns fleet = TestFleet.at(new double[]{0, -179.5}, new double[]{0, 177});
+        SpatialGridIndex index = SpatialGridIndex.build(fleet);
+
+        assertThat(index.nearest(0, 179.5, 1)).containsExactly(0);
+    }
+
+    @Test
+    void nearest_returns_the_whole_fleet_when_k_exceeds_it() {
+        FleetColumns fleet = TestFleet.at(new double[]{10, 10}, new double[]{0, 0}, new double[]{50, 50});
+        SpatialGridIndex index = SpatialGridIndex.build(fleet);
+
+        assertThat(index.nearest(0, 0, 10)).containsExactly(1, 0, 2);
+        assertThat(index.nearest(0, 0, 0)).isEmpty();
+    }
+
+    @Test
+    void bounded_nearest_keeps_the_closest_flights_inside_the_radius() {
+        FleetColumns fleet = randomFleet(5000, 4);
+        SpatialGridIndex index = SpatialGridIndex.build(fleet);
+
+        Integer[] expected = IntStream.range(0, fleet.size()).boxed()
+                .filter(i -> SpatialGridIndex.distanceKm(48.0, 10.0, fleet.latitude(i), fleet.longitude(i)) <= 3000)
+                .sorted(Comparator.comparingDouble(i -> SpatialGridIndex.distanceKm(48.0, 10.0,
+                        fleet.latitude(i), fleet.longitude(i))))
+                .limit(40)
+                .toArray(Integer[]::new);
+
+        assertThat(Arrays.stream(index.nearest(48.0, 10.0, 40, 3000)).boxed()).containsExactly(expected);
+    }
+
+    @Test
+    void bounded_nearest_returns_fewer_than_k_when_the_radius_is_sparse() {
+        FleetColumns fleet = TestFleet.at(new double[]{0, 0}, new double[]{0, 0.5}, new double[]{0, 5}, new double[]{30, 30});
+        SpatialGridIndex index = SpatialGridIndex.build(fleet);
+
+        assertThat(index.nearest(0, 0.1, 10, 100)).containsExactly(0, 1);
+        assertThat(index.nearest(60, 60, 10, 100)).isEmpty();
+    }
+
+    @Test
+    void cell_size_must_fit_the_grid() {
+        FleetColumns fleet = TestFleet.at(new double[]{0, 0});
+
+        assertThatThrownBy(() -> SpatialGridIndex.build(fleet, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SpatialGridIndex.build(fleet, 91)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
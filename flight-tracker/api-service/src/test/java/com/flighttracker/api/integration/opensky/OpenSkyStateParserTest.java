@@ -0,0 +1,131 @@
+package com.flighttracker.api.integration.opensky;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.common.model.FlightStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OpenSkyStateParserTest {
+
+    private static final byte[] BODY = """
+            {"time":1733000000,"states":[
+            ["4b1815","SWR100  ","Switzerland",1733000000,1733000001,8.5492,47.4582,10668.0,false,231.5,45.2,-2.5,null,10800.0,"1000",false,0],
+            ["a808c5","UAL123  ","United States",1733000000,1733000001,-73.7781,40.6413,0.0,true,5.1,180.0,null,[12,[34,56]],null,null,false,0],
+            ["3c6444",null,"Germany",1733000000,1733000001,null,null,null,false,null,null,null,null,null,null,false,0],
+            [null,"GHOST","Nowhere",1733000000,1733000001,1.0,1.0,100.0,false,100.0,90.0,0.0,null,null,null,false,0],
+            ["c03b2a",null,"Canada",null,1733000001,-30.25,52.1,11277.6,false,250.0,null,null,null,11300.0,"2000",false,0],
+            ["short","SHORT"]
+            ],"extra":{"states":[["ignored"]]}}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final OpenSkyStateParser parser = new OpenSkyStateParser();
+
+    private static List<String> ids(FleetColumns fleet) {
+        return IntStream.range(0, fleet.size()).mapToObj(fleet::flightId).toList();
+    }
+
+    private static Flux<DataBuffer> chunks(byte[] body, int... splits) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        int from = 0;
+        for (int split : splits) {
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(body, from, split)));
+            from = split;
+        }
+        buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(body, from, body.length)));
+        return Flux.fromIterable(buffers);
+    }
+
+    @Test
+    void state_vectors_are_appended_as_columns() {
+        FleetColumns fleet = parser.parse(BODY);
+
+        assertThat(ids(fleet)).containsExactly("4b1815", "a808c5", "c03b2a");
+        assertThat(fleet.callsign(0)).isEqualTo("SWR100");
+        assertThat(fleet.latitude(0)).isEqualTo(47.4582);
+        assertThat(fleet.longitude(0)).isEqualTo(8.5492);
+        assertThat(fleet.altitude(0)).isEqualTo(10668.0);
+        assertThat(fleet.speed(0)).isEqualTo(231.5);
+        assertThat(fleet.heading(0)).isEqualTo(45.2);
+        assertThat(fleet.verticalRate(0)).isEqualTo(-2.5);
+        assertThat(fleet.status(0)).isEqualTo(FlightStatus.IN_FLIGHT);
+    }
+
+    @Test
+    void null_fields_read_as_defaults_and_vectors_without_id_or_position_are_skipped() {
+        FleetColumns fleet = parser.parse(BODY);
+
+        int canada = ids(fleet).indexOf("c03b2a");
+        assertThat(fleet.callsign(canada)).isNull();
+        assertThat(fleet.heading(canada)).isNaN();
+        assertThat(fleet.verticalRate(canada)).isZero();
+        assertThat(ids(fleet)).doesNotContain("3c6444", "short").doesNotContainNull();
+    }
+
+    @Test
+    void report_time_is_the_position_time_or_the_receive_time_when_missing() {
+        long before = System.currentTimeMillis();
+        FleetColumns fleet = parser.parse(BODY);
+
+        assertThat(fleet.lastUpdated(0)).isEqualTo(1_733_000_000_000L);
+        assertThat(fleet.lastUpdated(ids(fleet).indexOf("c03b2a"))).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void nested_sensors_array_does_not_shift_later_fields() {
+        FleetColumns fleet = parser.parse(BODY);
+
+        int united = ids(fleet).indexOf("a808c5");
+        assertThat(fleet.status(united)).isEqualTo(FlightStatus.LANDED);
+        assertThat(fleet.speed(united)).isEqualTo(5.1);
+        assertThat(fleet.heading(united)).isEqualTo(180.0);
+        // The vector after it starts at index 0 again
+        assertThat(fleet.latitude(ids(fleet).indexOf("c03b2a"))).isEqualTo(52.1);
+    }
+
+    @Test
+    void body_split_at_any_byte_parses_the_same() {
+        List<String> expected = ids(parser.parse(BODY));
+
+        for (int split = 1; split < BODY.length; split++) {
+            FleetColumns fleet = parser.parse(chunks(BODY, split)).block();
+            assertThat(ids(fleet)).as("split at %d", split).isEqualTo(expected);
+            assertThat(fleet.heading(1)).as("split at %d", split).isEqualTo(180.0);
+        }
+    }
+
+    @Test
+    void body_fed_one_byte_at_a_time_parses_the_same() {
+        int[] splits = IntStream.range(1, BODY.length).toArray();
+
+        FleetColumns fleet = parser.parse(chunks(BODY, splits)).block();
+
+        assertThat(ids(fleet)).containsExactly("4b1815", "a808c5", "c03b2a");
+        assertThat(fleet.callsign(1)).isEqualTo("UAL123");
+    }
+
+    @Test
+    void repeated_ids_reuse_the_strings_from_the_previous_poll() {
+        FleetColumns first = parser.parse(BODY);
+        FleetColumns second = parser.parse(BODY);
+
+        assertThat(second.flightId(0)).isSameAs(first.flightId(0));
+        assertThat(second.callsign(0)).isSameAs(first.callsign(0));
+    }
+
+    @Test
+    void body_without_states_is_an_empty_fleet() {
+        byte[] body = "{\"time\":1733000000,\"states\":null}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(parser.parse(body).size()).isZero();
+    }
+}
@@ -0,0 +1,196 @@
+package com.flighttracker.api.integration.redis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.common.FleetRedisKeys;
+import com.flighttracker.common.FlightEvent;
+import com.flighttracker.common.model.Flight;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ReactiveSubscription.ChannelMessage;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the source against a template backed by an in-memory snapshot hash and
+ * sequence, with a sink standing in for the event channel.
+ */
+public class RedisFleetSourceTest {
+
+    // Configured like Spring Boot's, which ignores derived getters such as isEmpty()
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final Map<String, String> snapshot = new LinkedHashMap<>();
+    private final AtomicInteger reloads = new AtomicInteger();
+    private final Sinks.Many<String> channel = Sinks.many().multicast().directBestEffort();
+    private String sequence;
+
+    private RedisFleetSource source;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReactiveStringRedisTemplate template = mock(ReactiveStringRedisTemplate.class);
+        ReactiveHashOperations<String, Object, Object> hashOps = mock(ReactiveHashOperations.class);
+        ReactiveValueOperations<String, String> valueOps = mock(ReactiveValueOperations.class);
+
+        when(template.opsForHash()).thenReturn(hashOps);
+        when(template.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(FleetRedisKeys.SEQUENCE)).thenAnswer(call -> Mono.fromCallable(() -> sequence));
+        when(hashOps.values(FleetRedisKeys.SNAPSHOT)).thenAnswer(call -> Flux.defer(() -> {
+            reloads.incrementAndGet();
+            return Flux.fromIterable(List.copyOf(snapshot.values()));
+        }));
+        doReturn(channel.asFlux().map(message -> new ChannelMessage<>(FleetRedisKeys.EVENTS_CHANNEL, message)))
+                .when(template).listenToChannel(any(String[].class));
+
+        source = new RedisFleetSource(template, objectMapper);
+    }
+
+    private static Flight flight(String id, double latitude) {
+        Flight flight = new Flight();
+        flight.setFlightId(id);
+        flight.setLatitude(latitude);
+        flight.setLongitude(8.5);
+        return flight;
+    }
+
+    private void store(long storedSequence, Flight... flights) {
+        snapshot.clear();
+        for (Flight flight : flights) {
+            snapshot.put(flight.getFlightId(), json(flight));
+        }
+        sequence = Long.toString(storedSequence);
+    }
+
+    private void send(FlightEvent event) {
+        assertThat(channel.tryEmitNext(json(event)).isSuccess()).isTrue();
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> ids(FleetColumns fleet) {
+        return IntStream.range(0, fleet.size()).mapToObj(fleet::flightId).toList();
+    }
+
+    @Test
+    void subscribing_loads_the_snapshot() {
+        store(5, flight("a", 1), flight("b", 2));
+
+        StepVerifier.create(source.fleets())
+                .assertNext(fleet -> assertThat(ids(fleet)).containsExactly("a", "b"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void heading_and_vertical_rate_reach_the_columns() {
+        Flight climbing = flight("a", 1);
+        climbing.setHeading(45.2);
+        climbing.setVerticalRate(6.5);
+        store(5, climbing, flight("b", 2));
+
+        StepVerifier.create(source.fleets())
+                .assertNext(fleet -> {
+                    int a = ids(fleet).indexOf("a");
+                    int b = ids(fleet).indexOf("b");
+                    assertThat(fleet.heading(a)).isEqualTo(45.2);
+                    assertThat(fleet.verticalRate(a)).isEqualTo(6.5);
+                    assertThat(fleet.heading(b)).isNaN();
+                    assertThat(fleet.verticalRate(b)).isZero();
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void next_event_is_applied_without_a_reload() {
+        store(5, flight("a", 1), flight("b", 2));
+
+        StepVerifier.create(source.fleets())
+                .assertNext(fleet -> assertThat(fleet.size()).isEqualTo(2))
+                .then(() -> send(new FlightEvent(6, 0, false, List.of(flight("a", 7), flight("c", 3)), List.of("b"))))
+                .assertNext(fleet -> {
+                    assertThat(ids(fleet)).containsExactlyInAnyOrder("a", "c");
+                    assertThat(fleet.latitude(ids(fleet).indexOf("a"))).isEqualTo(7);
+                })
+                .thenCancel()
+                .verify();
+        assertThat(reloads).hasValue(1);
+    }
+
+    @Test
+    void events_already_in_the_loaded_snapshot_are_skipped() {
+        store(5, flight("a", 1));
+
+        StepVerifier.create(source.fleets())
+                .expectNextCount(1)
+                .then(() -> send(new FlightEvent(5, 0, false, List.of(flight("z", 1)), List.of())))
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenCancel()
+                .verify();
+        assertThat(reloads).hasValue(1);
+    }
+
+    @Test
+    void sequence_gap_reloads_the_snapshot() {
+        store(5, flight("a", 1));
+
+        StepVerifier.create(source.fleets())
+                .expectNextCount(1)
+                .then(() -> {
+                    store(8, flight("a", 1), flight("d", 4));
+                    send(new FlightEvent(8, 0, false, List.of(flight("d", 4)), List.of()));
+                })
+                .assertNext(fleet -> assertThat(ids(fleet)).containsExactly("a", "d"))
+                .then(() -> send(new FlightEvent(9, 0, false, List.of(), List.of("a"))))
+                .assertNext(fleet -> assertThat(ids(fleet)).containsExactly("d"))
+                .thenCancel()
+                .verify();
+        assertThat(reloads).hasValue(2);
+    }
+
+    @Test
+    void full_event_reloads_the_snapshot() {
+        store(5, flight("a", 1));
+
+        StepVerifier.create(source.fleets())
+                .expectNextCount(1)
+                .then(() -> {
+                    store(6, flight("e", 5));
+                    send(new FlightEvent(6, 0, true, List.of(), List.of()));
+                })
+                .assertNext(fleet -> assertThat(ids(fleet)).containsExactly("e"))
+                .thenCancel()
+                .verify();
+        assertThat(reloads).hasValue(2);
+    }
+}
@@ -0,0 +1,179 @@
+package com.flighttracker.api.service;
+
+import com.flighttracker.api.domain.FleetColumns.StringField;
+import com.flighttracker.api.domain.Flight;
+import com.flighttracker.api.domain.FlightDelta;
+import com.flighttracker.api.domain.FlightSnapshot;
+import com.flighttracker.api.domain.TestFleet;
+import com.flighttracker.common.model.FlightStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class FlightDeltaServiceTest {
+
+    private final FlightDeltaService service =
+            new FlightDeltaService(new FlightSnapshotStore(Flux::never), 0.0001, 10, 0.5);
+
+    /**
+     * A fleet whose flights were reported at the snapshot's fetch time.
+     */
+    private static TestFleet fleetAt(long time) {
+        return TestFleet.fleet().reportedAt(time);
+    }
+
+    @Test
+    void added_and_removed_flights_are_listed_by_id() {
+        FlightSnapshot before = fleetAt(1000).add("a", 1, 1, 1000, 200).add("b", 2, 2, 1000, 200).snapshot(1000);
+        FlightSnapshot after = fleetAt(2000).add("b", 2, 2, 1000, 200).add("c", 3, 3, 1000, 200).snapshot(2000);
+
+        FlightDelta delta = service.diff(before, after, 7);
+
+        assertThat(delta.sequence()).isEqualTo(7);
+        assertThat(delta.timestamp()).isEqualTo(2000);
+        assertThat(delta.added()).extracting(Flight::getFlightId).containsExactly("c");
+        assertThat(delta.removed()).containsExactly("a");
+        assertThat(delta.updated()).isEmpty();
+    }
+
+    @Test
+    void movement_within_the_quanta_is_not_a_change() {
+        FlightSnapshot before = fleetAt(1000).add("a", 47.00001, 8.00001, 10_000, 230.1).snapshot(1000);
+        FlightSnapshot after = fleetAt(2000).add("a", 47.00004, 8.00004, 10_004, 230.2).snapshot(2000);
+
+        assertThat(service.diff(before, after, 1).isEmpty()).isTrue();
+    }
+
+    @Test
+    void only_fields_past_their_quantum_are_sent() {
+        FlightSnapshot before = fleetAt(1000).add("a", 47.0, 8.0, 10_000, 230.0).snapshot(1000);
+        FlightSnapshot after = fleetAt(2000).add("a", 47.0002, 8.00001, 10_020, 230.1).snapshot(2000);
+
+        FlightDelta delta = service.diff(before, after, 1);
+
+        assertThat(delta.updated()).hasSize(1);
+        Map<String, Object> changes = delta.updated().get(0);
+        assertThat(changes).containsOnly(entry("flightId", "a"), entry("latitude", 47.0002),
+                entry("altitude", 10_020.0), entry("lastUpdated", 2000L));
+    }
+
+    @Test
+    void slow_drift_is_reported_once_it_crosses_a_grid_line() {
+        FlightSnapshot first = fleetAt(1000).add("a", 10, 10, 1000, 100.0).snapshot(1000);
+        FlightSnapshot second = fleetAt(2000).add("a", 10, 10, 1000, 100.2).snapshot(2000);
+        FlightSnapshot third = fleetAt(3000).add("a", 10, 10, 1000, 100.3).snapshot(3000);
+
+        assertThat(service.diff(first, second, 1).isEmpty()).isTrue();
+        assertThat(service.diff(second, third, 2).updated())
+                .containsExactly(Map.of("flightId", "a", "speed", 100.3, "lastUpdated", 3000L));
+    }
+
+    @Test
+    void status_and_callsign_changes_are_compared_by_value() {
+        FlightSnapshot before = fleetAt(1000).add("a", "SWR100", 1, 1, 0, 0, FlightStatus.IN_FLIGHT).snapshot(1000);
+        FlightSnapshot after = fleetAt(2000).add("a", "SWR101", 1, 1, 0, 0, FlightStatus.LANDED).snapshot(2000);
+
+        assertThat(service.diff(before, after, 1).updated())
+                .containsExactly(Map.of("flightId", "a", "status", FlightStatus.LANDED, "callsign", "SWR101",
+                        "lastUpdated", 2000L));
+    }
+
+    @Test
+    void schedule_and_airport_changes_are_sent_by_property_name() {
+        FlightSnapshot before = fleetAt(1000).add("a", 1, 1)
+                .set(StringField.DESTINATION_AIRPORT_ICAO, "KJFK")
+                .set(StringField.ESTIMATED_ARRIVAL_TIME, "2024-05-01T18:40:00Z")
+                .snapshot(1000);
+        FlightSnapshot after = fleetAt(2000).add("a", 1, 1)
+                .set(StringField.FLIGHT_NUMBER, "LX100")
+                .set(StringField.DESTINATION_AIRPORT_ICAO, "KJFK")
+                .set(StringField.ESTIMATED_ARRIVAL_TIME, "2024-05-01T18:55:00Z")
+                .snapshot(2000);
+
+        FlightDelta delta = service.diff(before, after, 1);
+
+        assertThat(delta.updated()).containsExactly(Map.of("flightId", "a", "flightNumber", "LX100",
+                "estimatedArrivalTime", "2024-05-01T18:55:00Z", "lastUpdated", 2000L));
+    }
+
+    @Test
+    void a_new_report_time_alone_is_not_a_change() {
+        FlightSnapshot before = fleetAt(1000).add("a", 1, 1, 0, 0).snapshot(1000);
+        FlightSnapshot after = fleetAt(2000).add("a", 1, 1, 0, 0).snapshot(2000);
+
+        assertThat(service.diff(before, after, 1).isEmpty()).isTrue();
+    }
+
+    @Test
+    void first_snapshot_adds_the_whole_fleet() {
+        FlightSnapshot first = fleetAt(1000).add("a", 1, 1, 0, 0).add("b", 2, 2, 0, 0).snapshot(1000);
+
+        FlightDelta delta = service.diff(FlightSnapshot.empty(), first, 1);
+
+        assertThat(delta.added()).hasSize(2);
+        assertThat(delta.removed()).isEmpty();
+    }
+
+    @Test
+    void clients_get_a_snapshot_then_deltas() {
+        FlightSnapshotStore store = new FlightSnapshotStore(Flux::never);
+        FlightDeltaService streaming = new FlightDeltaService(store, 0.0001, 10, 0.5);
+        store.update(fleetAt(1000).add("a", 1, 1, 0, 0).build());
+
+        StepVerifier.create(streaming.streamDeltas())
+                .assertNext(event -> assertEvent(event, "snapshot", "1"))
+                .then(() -> store.update(fleetAt(2000).add("a", 1, 1, 0, 0).add("b", 2, 2, 0, 0).build()))
+                .assertNext(event -> {
+                    assertEvent(event, "delta", "2");
+                    assertThat(((FlightDelta) event.data()).added()).extracting(Flight::getFlightId).containsExactly("b");
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void reconnecting_after_all_clients_left_starts_from_a_fresh_baseline() {
+        FlightSnapshotStore store = new FlightSnapshotStore(Flux::never);
+        FlightDeltaService streaming = new FlightDeltaService(store, 0.0001, 10, 0.5);
+        store.update(fleetAt(1000).add("a", 1, 1, 0, 0).build());
+
+        StepVerifier.create(streaming.streamDeltas())
+                .assertNext(event -> assertEvent(event, "snapshot", "1"))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        // Nobody is connected, so these are not diffed
+        store.update(fleetAt(2000).add("b", 2, 2, 0, 0).build());
+        store.update(fleetAt(3000).add("c", 3, 3, 0, 0).build());
+
+        StepVerifier.create(streaming.streamDeltas())
+                .assertNext(event -> {
+                    assertEvent(event, "snapshot", "1");
+                    @SuppressWarnings("unchecked")
+                    List<Flight> flights = (List<Flight>) event.data();
+                    assertThat(flights).extracting(Flight::getFlightId).containsExactly("c");
+                })
+                .then(() -> store.update(fleetAt(4000).add("c", 3, 3, 0, 0).add("d", 4, 4, 0, 0).build()))
+                .assertNext(event -> {
+                    assertEvent(event, "delta", "2");
+                    FlightDelta delta = (FlightDelta) event.data();
+                    assertThat(delta.added()).extracting(Flight::getFlightId).containsExactly("d");
+                    assertThat(delta.removed()).isEmpty();
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static void assertEvent(ServerSentEvent<Object> event, String type, String sequence) {
+        assertThat(event.event()).isEqualTo(type);
+        assertThat(event.id()).isEqualTo(sequence);
+    }
+}
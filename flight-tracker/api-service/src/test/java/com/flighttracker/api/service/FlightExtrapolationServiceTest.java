@@ -0,0 +1,180 @@
+package com.flighttracker.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.FlightSnapshot;
+import com.flighttracker.api.domain.PositionFrame;
+import com.flighttracker.api.domain.TestFleet;
+import com.flighttracker.api.service.FlightExtrapolationService.Motion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+public class FlightExtrapolationServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final long FETCHED_AT = 1_733_000_000_000L;
+    // One degree of latitude per second
+    private static final double DEGREE_PER_SECOND = 111_320.0;
+
+    private static FleetColumns fleet(String... ids) {
+        return TestFleet.fleet().reportedAt(FETCHED_AT).ids(ids).build();
+    }
+
+    private static Motion motion(double latitude, double longitude, double speed, double heading,
+                                 double verticalRate, long reportedAt) {
+        FlightSnapshot snapshot = TestFleet.fleet().reportedAt(reportedAt)
+                .add("4b1815", latitude, longitude, 1000.0, speed)
+                .motion(heading, verticalRate)
+                .snapshot(FETCHED_AT);
+        return new Motion(null, snapshot, 15);
+    }
+
+    @Test
+    void aircraft_move_along_their_track_from_the_report_time() {
+        PositionFrame frame = motion(10.0, 20.0, DEGREE_PER_SECOND, 0.0, 5.0, FETCHED_AT - 2000)
+                .project(FETCHED_AT + 3000);
+
+        assertThat(frame.timestamp()).isEqualTo(FETCHED_AT + 3000);
+        assertThat(frame.latitudes()[0]).isCloseTo(15.0f, offset(1e-4f));
+        assertThat(frame.longitudes()[0]).isCloseTo(20.0f, offset(1e-4f));
+        assertThat(frame.altitudes()[0]).isCloseTo(1025.0f, offset(1e-3f));
+    }
+
+    @Test
+    void projection_stops_max_seconds_after_the_report() {
+        Motion motion = motion(10.0, 20.0, DEGREE_PER_SECOND, 0.0, 0.0, FETCHED_AT - 10_000);
+
+        assertThat(motion.project(FETCHED_AT + 60_000).latitudes()[0]).isCloseTo(25.0f, offset(1e-4f));
+        // Never projected backwards when the clock is behind the report
+        assertThat(motion.project(FETCHED_AT - 20_000).latitudes()[0]).isEqualTo(10.0f);
+    }
+
+    @Test
+    void longitude_wraps_across_the_antimeridian() {
+        Motion eastbound = motion(0.0, 179.5, DEGREE_PER_SECOND, 90.0, 0.0, FETCHED_AT);
+        Motion westbound = motion(0.0, -179.5, DEGREE_PER_SECOND, 270.0, 0.0, FETCHED_AT);
+
+        assertThat(eastbound.project(FETCHED_AT + 1000).longitudes()[0]).isCloseTo(-179.5f, offset(1e-3f));
+        assertThat(westbound.project(FETCHED_AT + 1000).longitudes()[0]).isCloseTo(179.5f, offset(1e-3f));
+    }
+
+    @Test
+    void aircraft_without_a_heading_or_speed_stay_put() {
+        Motion noHeading = motion(10.0, 20.0, DEGREE_PER_SECOND, Double.NaN, 5.0, FETCHED_AT);
+        Motion stopped = motion(10.0, 20.0, 0.0, 90.0, 5.0, FETCHED_AT);
+
+        for (Motion motion : new Motion[]{noHeading, stopped}) {
+            PositionFrame frame = motion.project(FETCHED_AT + 5000);
+            assertThat(frame.latitudes()[0]).isEqualTo(10.0f);
+            assertThat(frame.longitudes()[0]).isEqualTo(20.0f);
+            assertThat(frame.altitudes()[0]).isEqualTo(1000.0f);
+        }
+    }
+
+    @Test
+    void sequence_changes_only_when_the_flight_ids_do() {
+        Motion first = new Motion(Motion.INITIAL, new FlightSnapshot(fleet("a", "b"), FETCHED_AT), 15);
+        Motion same = new Motion(first, new FlightSnapshot(fleet("a", "b"), FETCHED_AT + 1000), 15);
+        Motion reordered = new Motion(same, new FlightSnapshot(fleet("b", "a"), FETCHED_AT + 2000), 15);
+
+        assertThat(same.sequence).isEqualTo(first.sequence);
+        assertThat(same.flightIds).isSameAs(first.flightIds);
+        assertThat(reordered.sequence).isEqualTo(first.sequence + 1);
+    }
+
+    @Test
+    void fleet_event_is_sent_on_connect_and_only_again_when_the_ids_change() {
+        FlightSnapshotStore store = new FlightSnapshotStore(Flux::never);
+        FlightExtrapolationService service = new FlightExtrapolationService(store, objectMapper, 10, 15);
+
+        StepVerifier.create(service.streamFrames())
+                .then(() -> store.update(fleet("a", "b")))
+                .expectNextMatches(event -> isFleet(event, "1"))
+                .expectNextMatches(FlightExtrapolationServiceTest::isFrame)
+                .then(() -> {
+                    store.update(fleet("a", "b"));
+                    store.update(fleet("a", "b", "c"));
+                })
+                .thenConsumeWhile(FlightExtrapolationServiceTest::isFrame)
+                .consumeNextWith(event -> {
+                    assertThat(event.event()).isEqualTo("fleet");
+                    assertThat(event.id()).isEqualTo("2");
+                    assertThat(read((String) event.data(), String[].class)).containsExactly("a", "b", "c");
+                })
+                .expectNextMatches(FlightExtrapolationServiceTest::isFrame)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void late_subscribers_start_with_a_fleet_event() {
+        FlightSnapshotStore store = new FlightSnapshotStore(Flux::never);
+        FlightExtrapolationService service = new FlightExtrapolationService(store, objectMapper, 10, 15);
+        store.update(fleet("a"));
+
+        StepVerifier.create(service.streamFrames())
+                .expectNextMatches(event -> "fleet".equals(event.event()))
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo("frame");
+                    PositionFrame frame = read((String) event.data(), PositionFrame.class);
+                    assertThat(frame.latitudes()).containsExactly(10.0f);
+                    assertThat(frame.longitudes()).containsExactly(20.0f);
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void each_frame_is_serialized_once_for_all_subscribers() {
+        FlightSnapshotStore store = new FlightSnapshotStore(Flux::never);
+        FlightExtrapolationService service = new FlightExtrapolationService(store, objectMapper, 10, 15);
+        store.update(fleet("a", "b"));
+
+        List<ServerSentEvent<Object>> first = new CopyOnWriteArrayList<>();
+        List<ServerSentEvent<Object>> second = new CopyOnWriteArrayList<>();
+        Disposable firstSubscription = service.streamFrames().subscribe(first::add);
+        Disposable secondSubscription = service.streamFrames().subscribe(second::add);
+        try {
+            StepVerifier.create(service.streamFrames())
+                    .expectNextCount(5)
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(5));
+        } finally {
+            firstSubscription.dispose();
+            secondSubscription.dispose();
+        }
+
+        List<Object> secondData = second.stream().map(ServerSentEvent::data).toList();
+        assertThat(first.stream().filter(FlightExtrapolationServiceTest::isFrame).map(ServerSentEvent::data))
+                .isNotEmpty()
+                .anySatisfy(data -> assertThat(secondData).anyMatch(other -> other == data));
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isFleet(ServerSentEvent<Object> event, String sequence) {
+        return "fleet".equals(event.event()) && sequence.equals(event.id());
+    }
+
+    private static boolean isFrame(ServerSentEvent<Object> event) {
+        return "frame".equals(event.event());
+    }
+}
@@ -0,0 +1,139 @@
+package com.flighttracker.api.service;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.FlightSnapshot;
+import com.flighttracker.api.domain.FlightTrack;
+import com.flighttracker.api.domain.TestFleet;
+import com.flighttracker.common.model.FlightStatus;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+public class PositionHistoryStoreTest {
+
+    private final long now = System.currentTimeMillis();
+    private final FlightSnapshotStore snapshotStore = new FlightSnapshotStore(Flux::never);
+
+    private PositionHistoryStore store(int maxPoints) {
+        return new PositionHistoryStore(snapshotStore, maxPoints, 120, 50, 300);
+    }
+
+    private static FleetColumns fleet(String flightId, double latitude, double longitude, double altitude,
+                                      long reportedAt) {
+        return TestFleet.fleet().reportedAt(reportedAt).add(flightId, latitude, longitude, altitude, 230).build();
+    }
+
+    private static FlightSnapshot snapshot(double latitude, double longitude, double altitude, long reportedAt) {
+        return new FlightSnapshot(fleet("4b1815", latitude, longitude, altitude, reportedAt), reportedAt + 500);
+    }
+
+    private FlightTrack track(PositionHistoryStore store) {
+        return store.track("4b1815", 0).orElseThrow();
+    }
+
+    @Test
+    void straight_level_flight_is_kept_as_one_segment() {
+        PositionHistoryStore store = store(256);
+        for (int i = 0; i < 5; i++) {
+            store.record(snapshot(47.0, 8.0 + i * 0.01, 10_000, now - 60_000 + i * 10_000));
+        }
+
+        FlightTrack track = track(store);
+
+        assertThat(track.size()).isEqualTo(2);
+        assertThat(track.timestamps()).containsExactly(now - 60_000, now - 20_000);
+        assertThat(track.longitudes()[1]).isCloseTo(8.04, offset(1e-9));
+    }
+
+    @Test
+    void turns_and_altitude_changes_keep_their_points() {
+        PositionHistoryStore store = store(256);
+        store.record(snapshot(47.0, 8.00, 10_000, now - 40_000));
+        store.record(snapshot(47.0, 8.01, 10_000, now - 30_000));
+        store.record(snapshot(47.01, 8.01, 10_000, now - 20_000));  // turned north
+        store.record(snapshot(47.02, 8.01, 11_000, now - 10_000));  // and climbed
+
+        assertThat(track(store).latitudes()).containsExactly(47.0, 47.0, 47.01, 47.02);
+    }
+
+    @Test
+    void segments_are_split_after_the_maximum_duration() {
+        PositionHistoryStore store = store(256);
+        for (int i = 0; i < 6; i++) {
+            store.record(snapshot(47.0, 8.0 + i * 0.1, 10_000, now - 600_000 + i * 100_000));
+        }
+
+        // Segments may span 300 s, so the line is kept as 0-300 s and 300-500 s
+        assertThat(track(store).timestamps()).containsExactly(now - 600_000, now - 300_000, now - 100_000);
+    }
+
+    @Test
+    void a_position_repeated_with_the_same_report_time_is_recorded_once() {
+        PositionHistoryStore store = store(256);
+        long reportedAt = now - 10_000;
+        store.record(new FlightSnapshot(fleet("4b1815", 47.0, 8.0, 10_000, reportedAt), now - 9_000));
+        store.record(new FlightSnapshot(fleet("4b1815", 47.0, 8.0, 10_000, reportedAt), now - 4_000));
+
+        assertThat(track(store).timestamps()).containsExactly(reportedAt);
+    }
+
+    @Test
+    void ring_buffer_keeps_the_newest_points_once_full() {
+        PositionHistoryStore store = store(20);
+        for (int i = 0; i < 45; i++) {
+            // Zig-zag, so no point is on a straight line with its neighbours
+            store.record(snapshot(47.0 + (i % 2) * 0.01, 8.0 + i * 0.01, 10_000, now - 100_000 + i * 1000));
+        }
+
+        FlightTrack track = track(store);
+
+        assertThat(track.size()).isEqualTo(20);
+        assertThat(track.timestamps())
+                .containsExactly(LongStream.range(25, 45).map(i -> now - 100_000 + i * 1000).toArray());
+        assertThat(track.longitudes()[19]).isCloseTo(8.44, offset(1e-9));
+    }
+
+    @Test
+    void points_before_since_are_not_returned() {
+        PositionHistoryStore store = store(256);
+        for (int i = 0; i < 4; i++) {
+            store.record(snapshot(47.0 + (i % 2) * 0.01, 8.0 + i * 0.01, 10_000, now - 40_000 + i * 10_000));
+        }
+
+        assertThat(store.track("4b1815", now - 20_000).orElseThrow().timestamps())
+                .containsExactly(now - 20_000, now - 10_000);
+        assertThat(store.track("unknown", 0)).isEmpty();
+    }
+
+    @Test
+    void aircraft_not_seen_for_the_window_are_dropped() {
+        PositionHistoryStore store = store(256);
+        store.record(new FlightSnapshot(fleet("a", 47.0, 8.0, 10_000, now - 10_000_000), now - 10_000_000));
+        store.record(new FlightSnapshot(fleet("b", 47.0, 8.0, 10_000, now), now));
+
+        assertThat(store.trackedAircraft()).isEqualTo(1);
+        assertThat(store.track("a", 0)).isEmpty();
+    }
+
+    @Test
+    void flights_without_an_id_are_skipped_and_recording_continues() {
+        PositionHistoryStore store = store(256);
+        store.start();
+        try {
+            snapshotStore.update(TestFleet.fleet().reportedAt(now - 2000)
+                    .add(null, "GHOST", 1.0, 1.0, 100, 100, FlightStatus.IN_FLIGHT)
+                    .add("4b1815", 47.0, 8.0, 10_000, 230)
+                    .build());
+            snapshotStore.update(fleet("4b1815", 47.01, 8.01, 10_000, now - 1000));
+
+            assertThat(store.trackedAircraft()).isEqualTo(1);
+            assertThat(track(store).size()).isEqualTo(2);
+        } finally {
+            store.stop();
+        }
+    }
+}
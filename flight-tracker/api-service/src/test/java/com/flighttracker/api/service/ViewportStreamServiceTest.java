@@ -0,0 +1,132 @@
+package com.flighttracker.api.service;
+
+import com.flighttracker.api.domain.Flight;
+import com.flighttracker.api.domain.FlightCluster;
+import com.flighttracker.api.domain.FlightSnapshot;
+import com.flighttracker.api.domain.TestFleet;
+import com.flighttracker.api.domain.Viewport;
+import com.flighttracker.api.domain.ViewportFrame;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+public class ViewportStreamServiceTest {
+
+    private static final Viewport EUROPE = new Viewport(35, 60, -10, 30, 6);
+
+    private final FlightSnapshotStore store = new FlightSnapshotStore(Flux::never);
+    private final ViewportStreamService service = new ViewportStreamService(store, 6, 3, 60);
+
+    private static FlightSnapshot snapshot(double[]... positions) {
+        return new FlightSnapshot(TestFleet.at(positions), TestFleet.REPORTED_AT);
+    }
+
+    private static int clustered(ViewportFrame frame) {
+        return frame.clusters().stream().mapToInt(FlightCluster::count).sum();
+    }
+
+    @Test
+    void flights_in_view_are_sent_at_and_above_the_cluster_zoom() {
+        FlightSnapshot snapshot = snapshot(new double[]{47.4, 8.5}, new double[]{51.5, -0.1}, new double[]{40.6, -73.8});
+
+        ViewportFrame frame = service.render(snapshot, EUROPE);
+
+        assertThat(frame.timestamp()).isEqualTo(1000L);
+        assertThat(frame.total()).isEqualTo(2);
+        assertThat(frame.flights()).extracting(Flight::getFlightId).containsExactlyInAnyOrder("000000", "000001");
+        assertThat(frame.clusters()).isEmpty();
+    }
+
+    @Test
+    void flights_are_clustered_below_the_cluster_zoom() {
+        FlightSnapshot snapshot = snapshot(new double[]{47.4, 8.5}, new double[]{47.5, 8.6}, new double[]{51.5, -0.1});
+        Viewport zoomedOut = new Viewport(35, 60, -10, 30, 5);
+
+        ViewportFrame frame = service.render(snapshot, zoomedOut);
+
+        assertThat(frame.flights()).isEmpty();
+        assertThat(frame.total()).isEqualTo(3);
+        assertThat(clustered(frame)).isEqualTo(3);
+        assertThat(frame.clusters()).hasSize(2)
+                .anySatisfy(cluster -> {
+                    assertThat(cluster.count()).isEqualTo(2);
+                    assertThat(cluster.latitude()).isCloseTo(47.45, offset(1e-9));
+                    assertThat(cluster.longitude()).isCloseTo(8.55, offset(1e-9));
+                });
+    }
+
+    @Test
+    void crowded_viewports_fall_back_to_clusters() {
+        FlightSnapshot snapshot = snapshot(new double[]{47.4, 8.5}, new double[]{48.1, 11.6},
+                new double[]{50.0, 8.6}, new double[]{51.5, -0.1});
+
+        ViewportFrame frame = service.render(snapshot, EUROPE);
+
+        assertThat(frame.total()).isEqualTo(4);
+        assertThat(frame.flights()).isEmpty();
+        assertThat(clustered(frame)).isEqualTo(4);
+    }
+
+    @Test
+    void clusters_across_the_antimeridian_are_centred_between_their_flights() {
+        FlightSnapshot snapshot = snapshot(new double[]{10, 178}, new double[]{10, -176}, new double[]{10, 0});
+        Viewport pacific = new Viewport(0, 20, 170, -170, 2);
+
+        ViewportFrame frame = service.render(snapshot, pacific);
+
+        assertThat(frame.total()).isEqualTo(2);
+        assertThat(frame.clusters()).singleElement().satisfies(cluster -> {
+            assertThat(cluster.count()).isEqualTo(2);
+            // Averaging the raw longitudes would put it at 1° on the far side of the world
+            assertThat(cluster.longitude()).isCloseTo(-179.0, offset(1e-9));
+        });
+    }
+
+    @Test
+    void views_are_rendered_off_the_thread_that_publishes_snapshots() {
+        store.update(TestFleet.at(new double[]{47.4, 8.5}));
+        String publisher = Thread.currentThread().getName();
+
+        StepVerifier.create(service.streamViewport(EUROPE))
+                .expectNextMatches(event -> "session".equals(event.event()))
+                .assertNext(event -> assertThat(Thread.currentThread().getName()).isNotEqualTo(publisher))
+                .then(() -> store.update(TestFleet.at(new double[]{47.5, 8.6})))
+                .assertNext(event -> assertThat(Thread.currentThread().getName()).startsWith("parallel"))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void updating_an_unknown_session_returns_false() {
+        assertThat(service.updateViewport("no-such-session", EUROPE)).isFalse();
+    }
+
+    @Test
+    void clients_get_a_session_then_a_view_per_snapshot_and_viewport_change() {
+        store.update(TestFleet.at(new double[]{47.4, 8.5}, new double[]{40.6, -73.8}));
+        String[] sessionId = new String[1];
+
+        StepVerifier.create(service.streamViewport(EUROPE))
+                .consumeNextWith(event -> {
+                    assertThat(event.event()).isEqualTo("session");
+                    sessionId[0] = (String) event.data();
+                })
+                .assertNext(event -> assertThat(((ViewportFrame) event.data()).flights())
+                        .extracting(Flight::getFlightId).containsExactly("000000"))
+                .then(() -> assertThat(service.updateViewport(sessionId[0], new Viewport(30, 50, -80, -60, 8))).isTrue())
+                .assertNext(event -> assertThat(((ViewportFrame) event.data()).flights())
+                        .extracting(Flight::getFlightId).containsExactly("000001"))
+                .then(() -> store.update(TestFleet.at(new double[]{40.7, -73.9}, new double[]{41.0, -74.0})))
+                .assertNext(event -> assertThat(((ViewportFrame) event.data()).total()).isEqualTo(2))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(service.activeSessions()).isZero();
+        assertThat(service.updateViewport(sessionId[0], EUROPE)).isFalse();
+    }
+}
@@ -0,0 +1,174 @@
+package com.flighttracker.api.storage;
+
+import com.flighttracker.api.codec.FlightBatchCodec;
+import com.flighttracker.api.domain.Flight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LogSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    static byte[] batch(int seed) {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Flight flight = new Flight();
+            flight.setFlightId(String.format("%06x", i));
+            flight.setCallsign("CS" + seed);
+            flight.setLatitude(i);
+            flight.setLongitude(-i);
+            flights.add(flight);
+        }
+        return FlightBatchCodec.encode(flights);
+    }
+
+    /**
+     * A sealed segment with one record per second from 1 s to {@code records} s.
+     */
+    private LogSegment segment(int records) throws IOException {
+        LogSegment segment = LogSegment.create(dir, 1000);
+        for (int i = 1; i <= records; i++) {
+            segment.append(i * 1000L, batch(i));
+        }
+        segment.seal();
+        return segment;
+    }
+
+    private static String callsign(ByteBuffer payload) {
+        return FlightBatchCodec.decode(payload).get(0).getCallsign();
+    }
+
+    private static int count(LogSegment segment) {
+        LogSegment.Cursor cursor = segment.cursor(Long.MIN_VALUE);
+        int records = 0;
+        while (cursor.next()) {
+            records++;
+        }
+        return records;
+    }
+
+    @Test
+    void cursor_starts_at_the_first_record_at_or_after_the_time() throws IOException {
+        LogSegment segment = segment(100);
+
+        LogSegment.Cursor cursor = segment.cursor(50_500);
+
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.time()).isEqualTo(51_000);
+        assertThat(callsign(cursor.payload())).isEqualTo("CS51");
+        assertThat(segment.cursor(100_001).next()).isFalse();
+    }
+
+    @Test
+    void cursor_on_a_segment_taking_appends_sees_completed_records() throws IOException {
+        LogSegment segment = LogSegment.create(dir, 1000);
+        segment.append(1000, batch(1));
+        segment.append(2000, batch(2));
+
+        assertThat(count(segment)).isEqualTo(2);
+        segment.append(3000, batch(3));
+        assertThat(count(segment)).isEqualTo(3);
+        segment.seal();
+    }
+
+    @Test
+    void torn_tail_is_truncated_when_reopened_for_appends() throws IOException {
+        LogSegment segment = segment(10);
+        long size = Files.size(segment.path());
+        try (FileChannel channel = FileChannel.open(segment.path(), StandardOpenOption.APPEND)) {
+            // A record header claiming 256 bytes, cut off after three
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 1, 0, 9, 9, 9}));
+        }
+
+        LogSegment reopened = LogSegment.open(segment.path(), true);
+
+        assertThat(reopened.recordCount()).isEqualTo(10);
+        assertThat(Files.size(segment.path())).isEqualTo(size);
+        reopened.append(11_000, batch(11));
+        reopened.seal();
+        assertThat(count(LogSegment.open(segment.path(), false))).isEqualTo(11);
+    }
+
+    @Test
+    void missing_index_is_rebuilt() throws IOException {
+        LogSegment segment = segment(10);
+        Files.delete(indexOf(segment));
+
+        LogSegment reopened = LogSegment.open(segment.path(), false);
+
+        assertThat(reopened.recordCount()).isEqualTo(10);
+        assertThat(reopened.lastTime()).isEqualTo(10_000);
+        assertThat(Files.size(indexOf(segment))).isEqualTo(10L * LogSegment.INDEX_ENTRY_BYTES);
+    }
+
+    @Test
+    void short_index_is_completed_from_the_records() throws IOException {
+        LogSegment segment = segment(10);
+        try (FileChannel index = FileChannel.open(indexOf(segment), StandardOpenOption.WRITE)) {
+            // Four whole entries and half of the fifth
+            index.truncate(4L * LogSegment.INDEX_ENTRY_BYTES + LogSegment.INDEX_ENTRY_BYTES / 2);
+        }
+
+        LogSegment reopened = LogSegment.open(segment.path(), false);
+
+        assertThat(reopened.recordCount()).isEqualTo(10);
+        LogSegment.Cursor cursor = reopened.cursor(7000);
+        assertThat(cursor.next()).isTrue();
+        assertThat(callsign(cursor.payload())).isEqualTo("CS7");
+    }
+
+    @Test
+    void compaction_keeps_one_record_per_interval() throws IOException {
+        LogSegment segment = segment(100);
+
+        LogSegment compacted = segment.compact(10_000);
+
+        assertThat(compacted.isCompacted()).isTrue();
+        assertThat(compacted.recordCount()).isEqualTo(10);
+        LogSegment.Cursor cursor = compacted.cursor(Long.MIN_VALUE);
+        List<Long> times = new ArrayList<>();
+        while (cursor.next()) {
+            times.add(cursor.time());
+        }
+        assertThat(times).containsExactly(1000L, 11_000L, 21_000L, 31_000L, 41_000L, 51_000L, 61_000L, 71_000L,
+                81_000L, 91_000L);
+        assertThat(compacted.sizeBytes()).isLessThan(segment.sizeBytes());
+
+        LogSegment reopened = LogSegment.open(segment.path(), false);
+        assertThat(reopened.isCompacted()).isTrue();
+        assertThat(reopened.recordCount()).isEqualTo(10);
+        assertThat(reopened.compact(10_000)).isSameAs(reopened);
+    }
+
+    @Test
+    void cursor_opened_before_compaction_keeps_reading_the_old_records() throws IOException {
+        LogSegment segment = segment(30);
+        LogSegment.Cursor cursor = segment.cursor(Long.MIN_VALUE);
+
+        segment.compact(10_000);
+
+        int records = 0;
+        while (cursor.next()) {
+            assertThat(callsign(cursor.payload())).isEqualTo("CS" + (records + 1));
+            records++;
+        }
+        assertThat(records).isEqualTo(30);
+    }
+
+    private static Path indexOf(LogSegment segment) {
+        return segment.path().resolveSibling(segment.path().getFileName().toString()
+                .replace(LogSegment.LOG_SUFFIX, LogSegment.INDEX_SUFFIX));
+    }
+}
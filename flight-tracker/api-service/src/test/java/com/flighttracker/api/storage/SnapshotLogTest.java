@@ -0,0 +1,164 @@
+package com.flighttracker.api.storage;
+
+import com.flighttracker.api.domain.FleetColumns;
+import com.flighttracker.api.domain.Flight;
+import com.flighttracker.api.domain.TestFleet;
+import com.flighttracker.api.service.FlightSnapshotStore;
+import com.flighttracker.common.model.FlightStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshotLogTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @TempDir
+    Path dir;
+
+    private final Sinks.Many<FleetColumns> fleets = Sinks.many().multicast().directBestEffort();
+    private final List<FlightSnapshotStore> stores = new ArrayList<>();
+    private final List<SnapshotLog> logs = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        logs.forEach(SnapshotLog::stop);
+        stores.forEach(FlightSnapshotStore::stop);
+    }
+
+    /**
+     * A log over {@link #dir} keeping 24 h and compacting to one snapshot a minute after
+     * 6 h, fed by a fresh store as after a process start.
+     */
+    private SnapshotLog start(long segmentBytes) throws IOException {
+        FlightSnapshotStore store = new FlightSnapshotStore(fleets::asFlux);
+        store.start();
+        stores.add(store);
+        SnapshotLog log = new SnapshotLog(store, true, dir.toString(), segmentBytes, 60, 24, 10240, 6, 60);
+        log.start();
+        logs.add(log);
+        return log;
+    }
+
+    private static FleetColumns fleet(int seed) {
+        TestFleet fleet = TestFleet.fleet();
+        for (int i = 0; i < 10; i++) {
+            fleet.add(String.format("%06x", i), "CS" + seed, i + 1, i + 1, 0, 0, FlightStatus.IN_FLIGHT);
+        }
+        return fleet.build();
+    }
+
+    /**
+     * Writes a sealed segment with one record at each of {@code times}.
+     */
+    private void segment(long... times) throws IOException {
+        LogSegment segment = LogSegment.create(dir, times[0]);
+        for (long time : times) {
+            segment.append(time, LogSegmentTest.batch((int) (time % 1000)));
+        }
+        segment.seal();
+    }
+
+    private static long replayed(SnapshotLog log) {
+        return log.replay(0, Long.MAX_VALUE, 1000).count().block(Duration.ofSeconds(5));
+    }
+
+    private static void awaitReplayed(SnapshotLog log, long expected) throws InterruptedException {
+        // Appends happen on the log's writer thread
+        for (int attempt = 0; attempt < 100 && replayed(log) < expected; attempt++) {
+            Thread.sleep(20);
+        }
+        assertThat(replayed(log)).isEqualTo(expected);
+    }
+
+    @Test
+    void snapshots_survive_a_restart_and_appends_continue() throws Exception {
+        // One record per segment, so the replay spans several files
+        SnapshotLog first = start(1);
+        for (int i = 1; i <= 3; i++) {
+            fleets.tryEmitNext(fleet(i));
+            Thread.sleep(5);
+        }
+        awaitReplayed(first, 3);
+        first.stop();
+        logs.remove(first);
+
+        SnapshotLog second = start(1);
+        assertThat(replayed(second)).isEqualTo(3);
+        fleets.tryEmitNext(fleet(4));
+        awaitReplayed(second, 4);
+
+        List<List<Flight>> snapshots = second.replay(0, Long.MAX_VALUE, 1000).collectList().block();
+        assertThat(snapshots).extracting(flights -> flights.get(0).getCallsign())
+                .containsExactly("CS1", "CS2", "CS3", "CS4");
+    }
+
+    @Test
+    void replay_is_paced_by_the_recorded_intervals_divided_by_speed() throws IOException {
+        long base = System.currentTimeMillis() - HOUR;
+        segment(base, base + 1000, base + 3000);
+        segment(base + 3500);
+        SnapshotLog log = start(64 << 20);
+
+        StepVerifier.withVirtualTime(() -> log.replay(base, base + 3000, 2.0))
+                .expectNextCount(1)
+                .expectNoEvent(Duration.ofMillis(499))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextCount(1)
+                .expectNoEvent(Duration.ofMillis(999))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void replay_starts_inside_a_segment_and_crosses_into_the_next() throws IOException {
+        long base = System.currentTimeMillis() - HOUR;
+        segment(base, base + 1000, base + 2000);
+        segment(base + 3000, base + 4000);
+        SnapshotLog log = start(64 << 20);
+
+        assertThat(log.replay(base + 1500, base + 3000, 1000).count().block()).isEqualTo(2);
+    }
+
+    @Test
+    void maintenance_deletes_expired_segments_and_compacts_old_ones() throws IOException {
+        long now = System.currentTimeMillis();
+        segment(now - 30 * HOUR, now - 30 * HOUR + 1000);
+        long compactable = now - 10 * HOUR;
+        segment(compactable, compactable + 10_000, compactable + 70_000, compactable + 80_000);
+        segment(now - 1000);
+        SnapshotLog log = start(64 << 20);
+
+        log.maintain();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.map(file -> file.getFileName().toString()).filter(name -> name.endsWith(".log")))
+                    .containsExactlyInAnyOrder(LogSegment.fileName(compactable), LogSegment.fileName(now - 1000));
+        }
+        assertThat(log.replay(compactable, compactable + HOUR, 1000).count().block()).isEqualTo(2);
+        assertThat(LogSegment.open(dir.resolve(LogSegment.fileName(compactable)), false).isCompacted()).isTrue();
+    }
+
+    @Test
+    void disabled_log_refuses_replays() throws IOException {
+        SnapshotLog log = new SnapshotLog(new FlightSnapshotStore(Flux::never), false, dir.toString(), 64 << 20, 60, 24, 10240, 6, 60);
+        log.start();
+
+        StepVerifier.create(log.replay(0, 1, 1)).verifyError(IllegalStateException.class);
+        assertThat(dir).isEmptyDirectory();
+    }
+}
@@ -1,10 +1,22 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-redis-reactive")
+    implementation("com.fasterxml.jackson.core:jackson-databind")
+    implementation("org.lz4:lz4-java:1.8.0")
+    implementation("io.micrometer:micrometer-core")
     testImplementation("org.junit.jupiter:junit-jupiter:5.10.1")
     testImplementation("io.projectreactor:reactor-test:3.6.1")
+    testImplementation("org.assertj:assertj-core:3.24.2")
+    testImplementation("org.mockito:mockito-core:5.7.0")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
+
+// Microbenchmarks live in src/jmh/java; run with ./gradlew :common:jmh
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+}
@@ -0,0 +1,95 @@
+package com.flighttracker.common.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.common.model.Flight;
+import com.flighttracker.common.model.FlightStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares FlightRedisSerializer's binary format with the Jackson2JsonRedisSerializer
+ * the L2 cache used before. "opensky" is a flight as the poller produces it (id,
+ * callsign, position); "scheduled" also carries airports and schedule times.
+ * Value sizes are printed once during setup.
+ * <p>
+ * The JSON baseline ignores unknown properties; with the default mapper it cannot
+ * read back the derived properties ({@code inFlight}, ...) it writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlightRedisSerializerBenchmark {
+
+    @Param({"opensky", "scheduled"})
+    private String shape;
+
+    private final Jackson2JsonRedisSerializer<Flight> json = new Jackson2JsonRedisSerializer<>(
+            new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false), Flight.class);
+    private final FlightRedisSerializer binary = new FlightRedisSerializer(FlightRedisSerializer.Format.BINARY, 0);
+    private final FlightRedisSerializer binaryLz4 = new FlightRedisSerializer(FlightRedisSerializer.Format.BINARY, 1);
+
+    private Flight flight;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void createFlight() {
+        flight = "opensky".equals(shape)
+                ? new Flight("4ca7b4", null, "RYR4TC", null, null, null, null, null, null, null, null,
+                        51.4706, -0.4619, 10972.8, 231.5, FlightStatus.IN_FLIGHT, 1_717_000_000_000L)
+                : new Flight("4ca7b4", "FR1234", "RYR4TC", "EGLL", "LEMD", "London Heathrow",
+                        "Adolfo Suárez Madrid–Barajas", "2024-05-29T16:00:00Z", "2024-05-29T16:12:00Z",
+                        "2024-05-29T18:25:00Z", "2024-05-29T18:31:00Z",
+                        51.4706, -0.4619, 10972.8, 231.5, FlightStatus.IN_FLIGHT, 1_717_000_000_000L);
+        jsonBytes = json.serialize(flight);
+        binaryBytes = binary.serialize(flight);
+        System.out.printf("%n%s: json=%d bytes, binary=%d bytes, binary+lz4=%d bytes%n",
+                shape, jsonBytes.length, binaryBytes.length, binaryLz4.serialize(flight).length);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return json.serialize(flight);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binary.serialize(flight);
+    }
+
+    @Benchmark
+    public byte[] serializeBinaryLz4() {
+        return binaryLz4.serialize(flight);
+    }
+
+    @Benchmark
+    public Flight deserializeJson() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public Flight deserializeBinary() {
+        return binary.deserialize(binaryBytes);
+    }
+
+    @Benchmark
+    public Flight deserializeLegacyJson() {
+        return binary.deserialize(jsonBytes);
+    }
+}
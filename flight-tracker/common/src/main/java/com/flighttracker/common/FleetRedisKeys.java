@@ -0,0 +1,21 @@
+package com.flighttracker.common;
+
+/**
+ * Redis keys shared by the ingestion service (writer) and API nodes (readers).
+ *
+ * <pre>
+ * fleet:snapshot  HASH   icao24 -> Flight JSON, the complete current fleet
+ * fleet:sequence  STRING sequence of the last event applied to the snapshot
+ * fleet:events    PUBSUB FlightEvent JSON, published after the snapshot is written
+ * </pre>
+ */
+public final class FleetRedisKeys {
+
+    public static final String SNAPSHOT = "fleet:snapshot";
+    public static final String SNAPSHOT_STAGING = "fleet:snapshot:staging";
+    public static final String SEQUENCE = "fleet:sequence";
+    public static final String EVENTS_CHANNEL = "fleet:events";
+
+    private FleetRedisKeys() {
+    }
+}
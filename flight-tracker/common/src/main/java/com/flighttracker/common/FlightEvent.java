@@ -1,4 +1,90 @@
 package com.flighttracker.common;
 
+import com.flighttracker.common.model.Flight;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fleet change published by the ingestion service after each upstream poll.
+ *
+ * Upserts carry the whole Flight so that applying an event is idempotent; removed
+ * flights are listed by id. A {@code full} event replaces the fleet entirely and is
+ * sent on the first poll and after a publish failure; on the channel it carries no
+ * flights, and consumers reload the snapshot hash instead. Sequence numbers increase by
+ * one per event and continue from the stored sequence across restarts, so a
+ * consumer that sees a gap knows it missed an event and should reload the snapshot.
+ */
 public class FlightEvent {
+
+    private long sequence;
+    private long fetchedAt;
+    private boolean full;
+    private List<Flight> upserted = new ArrayList<>();
+    private List<String> removed = new ArrayList<>();
+
+    public FlightEvent() {
+    }
+
+    public FlightEvent(long sequence, long fetchedAt, boolean full, List<Flight> upserted, List<String> removed) {
+        this.sequence = sequence;
+        this.fetchedAt = fetchedAt;
+        this.full = full;
+        this.upserted = upserted;
+        this.removed = removed;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(long fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+
+    public List<Flight> getUpserted() {
+        return upserted;
+    }
+
+    public void setUpserted(List<Flight> upserted) {
+        this.upserted = upserted;
+    }
+
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<String> removed) {
+        this.removed = removed;
+    }
+
+    public boolean isEmpty() {
+        return !full && upserted.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "FlightEvent{" +
+                "sequence=" + sequence +
+                ", full=" + full +
+                ", upserted=" + upserted.size() +
+                ", removed=" + removed.size() +
+                '}';
+    }
 }
@@ -3,6 +3,9 @@ package com.flighttracker.common.cache;
 import com.flighttracker.common.model.Flight;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * Reactive cache interface for Flight objects.
  * <p>
@@ -19,6 +22,18 @@ public interface FlightCache {
      */
     Mono<Flight> get(String flightNumber);
 
+    /**
+     * Retrieves a flight for a background refresh. Unlike {@link #get}, a failure of
+     * the backing store is signalled as an error instead of being answered as a miss,
+     * so the caller can tell an outage from an entry that is gone.
+     *
+     * @param flightNumber the flight identifier
+     * @return Mono containing the flight if cached, empty Mono if not, an error if the lookup failed
+     */
+    default Mono<Flight> load(String flightNumber) {
+        return get(flightNumber);
+    }
+
     /**
      * Stores a flight in cache.
      *
@@ -46,6 +61,31 @@ public interface FlightCache {
      */
     Mono<Boolean> exists(String flightNumber);
 
+    /**
+     * Retrieves several flights in one operation.
+     * Use instead of repeated get() calls when warming or refreshing many keys.
+     *
+     * @param flightNumbers the flight identifiers
+     * @return Mono containing the cached flights by identifier; keys that are not cached are absent
+     */
+    Mono<Map<String, Flight>> getAll(Collection<String> flightNumbers);
+
+    /**
+     * Stores several flights in one operation.
+     *
+     * @param flights the flights to cache, by identifier
+     * @return Mono that completes when all entries are written
+     */
+    Mono<Void> putAll(Map<String, Flight> flights);
+
+    /**
+     * Removes several flights in one operation.
+     *
+     * @param flightNumbers the flight identifiers to remove
+     * @return Mono<Long> number of keys that existed and were deleted
+     */
+    Mono<Long> deleteAll(Collection<String> flightNumbers);
+
     /**
      * Removes all entries from cache.
      * Use sparingly - typically for testing or emergency cache invalidation.
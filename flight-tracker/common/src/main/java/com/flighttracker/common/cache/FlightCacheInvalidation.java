@@ -0,0 +1,59 @@
+package com.flighttracker.common.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message sent between nodes when flight cache entries change.
+ *
+ * Carries the id of the node that made the change, so the sender can ignore its own
+ * messages, and either a batch of flight numbers or {@code all} for a full clear.
+ */
+public class FlightCacheInvalidation {
+
+    private String nodeId;
+    private boolean all;
+    private List<String> flightNumbers = new ArrayList<>();
+
+    public FlightCacheInvalidation() {
+    }
+
+    public FlightCacheInvalidation(String nodeId, boolean all, List<String> flightNumbers) {
+        this.nodeId = nodeId;
+        this.all = all;
+        this.flightNumbers = flightNumbers;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public boolean isAll() {
+        return all;
+    }
+
+    public void setAll(boolean all) {
+        this.all = all;
+    }
+
+    public List<String> getFlightNumbers() {
+        return flightNumbers;
+    }
+
+    public void setFlightNumbers(List<String> flightNumbers) {
+        this.flightNumbers = flightNumbers;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightCacheInvalidation{" +
+                "nodeId='" + nodeId + '\'' +
+                ", all=" + all +
+                ", flightNumbers=" + flightNumbers.size() +
+                '}';
+    }
+}
@@ -0,0 +1,36 @@
+package com.flighttracker.common.cache;
+
+import java.util.Collection;
+
+/**
+ * Tells other nodes that flight cache entries changed, so they drop or refresh
+ * their local (L1) copies.
+ *
+ * Publishing never blocks or fails the caller; implementations batch and deliver
+ * asynchronously, on a best-effort basis.
+ */
+public interface FlightCacheInvalidationBus {
+
+    /**
+     * Bus for single-node setups, where there is no other L1 to invalidate.
+     */
+    FlightCacheInvalidationBus NONE = new FlightCacheInvalidationBus() {
+        @Override
+        public void publish(Collection<String> flightNumbers) {
+        }
+
+        @Override
+        public void publishClear() {
+        }
+    };
+
+    /**
+     * Announces that the given flights were written or deleted on this node.
+     */
+    void publish(Collection<String> flightNumbers);
+
+    /**
+     * Announces that the whole cache was cleared on this node.
+     */
+    void publishClear();
+}
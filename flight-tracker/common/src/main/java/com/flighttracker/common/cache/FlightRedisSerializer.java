@@ -0,0 +1,325 @@
+package com.flighttracker.common.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.common.model.Flight;
+import com.flighttracker.common.model.FlightStatus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Redis value serializer for Flight with a choice of JSON or compact binary output.
+ * <p>
+ * Reading detects the format from the first byte, so both settings read both
+ * formats: entries written before a switch (in either direction) stay readable
+ * until they expire. JSON entries are read leniently, ignoring derived properties
+ * such as {@code inFlight} that the JSON writer emits.
+ * <p>
+ * Binary layout (version 1):
+ * <pre>
+ * header    u8: 0xB1 = plain, 0xC1 = LZ4 block follows (varint plain length, then block)
+ * presence  varint bitmap over the 11 string fields, in declaration order
+ * strings   for each present field: varint length, UTF-8 bytes
+ * latitude  zigzag varint, degrees x 1e5
+ * longitude zigzag varint, degrees x 1e5
+ * altitude  zigzag varint, centimetres
+ * speed     zigzag varint, centimetres per second
+ * status    u8 ordinal (0xFF = null)
+ * updated   varint, epoch milliseconds
+ * </pre>
+ * Coordinates keep five decimals and altitude/speed two, which covers what OpenSky
+ * reports; strings, ids and timestamps round-trip exactly.
+ * Heading and vertical rate are not stored: cached flights serve lookups, and
+ * the live fleet carries motion separately.
+ * <p>
+ * Value sizes are recorded in {@code flight.cache.redis.payload} (op=write|read).
+ */
+public final class FlightRedisSerializer implements RedisSerializer<Flight> {
+
+    public enum Format {
+        JSON,
+        BINARY
+    }
+
+    private static final int PLAIN_V1 = 0xB1;
+    private static final int LZ4_V1 = 0xC1;
+    private static final int JSON_START = '{';
+    private static final int NO_STATUS = 0xFF;
+    private static final int STRING_FIELDS = 11;
+    private static final double COORDINATE_SCALE = 1e5;
+    private static final double METRIC_SCALE = 100.0;
+    private static final FlightStatus[] STATUSES = FlightStatus.values();
+    private static final byte[] EMPTY = new byte[0];
+    // An LZ4 block can't expand to more than ~255 times its size
+    private static final int MAX_LZ4_RATIO = 255;
+
+    private final Format format;
+    private final int compressAboveBytes;
+    private final ObjectMapper objectMapper;
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+    private final DistributionSummary writtenBytes;
+    private final DistributionSummary readBytes;
+
+    /**
+     * @param format             format used for writing
+     * @param compressAboveBytes binary values larger than this are LZ4-compressed
+     *                           when that makes them smaller; 0 disables compression
+     */
+    public FlightRedisSerializer(Format format, int compressAboveBytes) {
+        this(format, compressAboveBytes, Metrics.globalRegistry);
+    }
+
+    public FlightRedisSerializer(Format format, int compressAboveBytes, MeterRegistry meterRegistry) {
+        this.format = format;
+        this.compressAboveBytes = compressAboveBytes;
+        this.objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        LZ4Factory lz4 = LZ4Factory.fastestInstance();
+        this.compressor = lz4.fastCompressor();
+        this.decompressor = lz4.fastDecompressor();
+        this.writtenBytes = payloadSummary(meterRegistry, "write");
+        this.readBytes = payloadSummary(meterRegistry, "read");
+    }
+
+    @Override
+    public byte[] serialize(Flight flight) throws SerializationException {
+        if (flight == null) {
+            return EMPTY;
+        }
+        byte[] bytes = format == Format.JSON ? writeJson(flight) : writeBinary(flight);
+        writtenBytes.record(bytes.length);
+        return bytes;
+    }
+
+    private byte[] writeJson(Flight flight) {
+        try {
+            return objectMapper.writeValueAsBytes(flight);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write Flight as JSON", e);
+        }
+    }
+
+    private byte[] writeBinary(Flight flight) {
+        byte[] plain = encode(flight);
+        if (compressAboveBytes > 0 && plain.length > compressAboveBytes) {
+            byte[] compressed = compress(plain);
+            if (compressed.length < plain.length) {
+                return compressed;
+            }
+        }
+        return plain;
+    }
+
+    @Override
+    public Flight deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        readBytes.record(bytes.length);
+        int header = bytes[0] & 0xFF;
+        try {
+            return switch (header) {
+                case PLAIN_V1 -> decode(ByteBuffer.wrap(bytes, 1, bytes.length - 1));
+                case LZ4_V1 -> decode(ByteBuffer.wrap(decompress(bytes)));
+                case JSON_START -> objectMapper.readValue(bytes, Flight.class);
+                default -> throw new SerializationException("Unknown Flight encoding: 0x" + Integer.toHexString(header));
+            };
+        } catch (IOException e) {
+            throw new SerializationException("Could not read Flight JSON", e);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | LZ4Exception e) {
+            throw new SerializationException("Truncated or corrupt Flight value", e);
+        }
+    }
+
+    private static DistributionSummary payloadSummary(MeterRegistry registry, String op) {
+        return DistributionSummary.builder("flight.cache.redis.payload")
+                .tag("op", op)
+                .baseUnit("bytes")
+                .description("Size of Flight values written to and read from Redis")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static byte[] encode(Flight flight) {
+        ByteWriter out = new ByteWriter(96);
+        out.writeByte(PLAIN_V1);
+
+        String[] strings = strings(flight);
+        int presence = 0;
+        for (int i = 0; i < STRING_FIELDS; i++) {
+            if (strings[i] != null) {
+                presence |= 1 << i;
+            }
+        }
+        out.writeVarint(presence);
+        for (String value : strings) {
+            if (value != null) {
+                out.writeString(value);
+            }
+        }
+
+        out.writeZigzag(Math.round(flight.getLatitude() * COORDINATE_SCALE));
+        out.writeZigzag(Math.round(flight.getLongitude() * COORDINATE_SCALE));
+        out.writeZigzag(Math.round(flight.getAltitude() * METRIC_SCALE));
+        out.writeZigzag(Math.round(flight.getSpeed() * METRIC_SCALE));
+        out.writeByte(flight.getStatus() != null ? flight.getStatus().ordinal() : NO_STATUS);
+        out.writeVarint(flight.getLastUpdated());
+        return out.toByteArray();
+    }
+
+    private static Flight decode(ByteBuffer in) {
+        int presence = (int) readVarint(in);
+        String[] strings = new String[STRING_FIELDS];
+        for (int i = 0; i < STRING_FIELDS; i++) {
+            if ((presence & (1 << i)) != 0) {
+                int length = (int) readVarint(in);
+                strings[i] = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+            }
+        }
+
+        double latitude = readZigzag(in) / COORDINATE_SCALE;
+        double longitude = readZigzag(in) / COORDINATE_SCALE;
+        double altitude = readZigzag(in) / METRIC_SCALE;
+        double speed = readZigzag(in) / METRIC_SCALE;
+        int status = in.get() & 0xFF;
+        long lastUpdated = readVarint(in);
+
+        return new Flight(strings[0], strings[1], strings[2], strings[3], strings[4], strings[5],
+                strings[6], strings[7], strings[8], strings[9], strings[10],
+                latitude, longitude, altitude, speed,
+                status == NO_STATUS ? null : STATUSES[status], lastUpdated);
+    }
+
+    private static String[] strings(Flight flight) {
+        return new String[]{
+                flight.getFlightId(),
+                flight.getFlightNumber(),
+                flight.getCallsign(),
+                flight.getDepartureAirportIcao(),
+                flight.getDestinationAirportIcao(),
+                flight.getDepartureAirportName(),
+                flight.getDestinationAirportName(),
+                flight.getScheduledDepartureTime(),
+                flight.getActualDepartureTime(),
+                flight.getScheduledArrivalTime(),
+                flight.getEstimatedArrivalTime()
+        };
+    }
+
+    /**
+     * Compresses the body after the header byte; the result starts with the LZ4 header
+     * and the body's plain length.
+     */
+    private byte[] compress(byte[] plain) {
+        int bodyLength = plain.length - 1;
+        ByteWriter out = new ByteWriter(compressor.maxCompressedLength(bodyLength) + 8);
+        out.writeByte(LZ4_V1);
+        out.writeVarint(bodyLength);
+        byte[] block = new byte[compressor.maxCompressedLength(bodyLength)];
+        int blockLength = compressor.compress(plain, 1, bodyLength, block, 0, block.length);
+        out.writeBytes(block, blockLength);
+        return out.toByteArray();
+    }
+
+    /**
+     * Checks the stored plain length against what the block could hold before
+     * allocating, so a corrupt length can't ask for a negative or huge array.
+     */
+    private byte[] decompress(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        long bodyLength = readVarint(in);
+        if (bodyLength < 0 || bodyLength > (long) in.remaining() * MAX_LZ4_RATIO) {
+            throw new IllegalArgumentException("Implausible plain length " + bodyLength + " for a "
+                    + in.remaining() + "-byte LZ4 block");
+        }
+        byte[] body = new byte[(int) bodyLength];
+        decompressor.decompress(bytes, in.position(), body, 0, body.length);
+        return body;
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static long readZigzag(ByteBuffer in) {
+        long raw = readVarint(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Growable byte sink with varint helpers.
+     */
+    private static final class ByteWriter {
+
+        private byte[] buffer;
+        private int size;
+
+        ByteWriter(int capacity) {
+            this.buffer = new byte[Math.max(16, capacity)];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeZigzag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length);
+            writeBytes(utf8, utf8.length);
+        }
+
+        void writeBytes(byte[] bytes, int length) {
+            ensure(length);
+            System.arraycopy(bytes, 0, buffer, size, length);
+            size += length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -2,38 +2,127 @@ package com.flighttracker.common.cache;
 
 import com.flighttracker.common.model.Flight;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * In-memory cache implementation using Caffeine.
  * Provides fast local caching with automatic eviction.
+ *
+ * Optionally refreshes ahead of expiry: once an entry is older than
+ * {@code refreshAfter}, the next read returns it as-is and reloads it in the background
+ * through the refresher (typically the L2 cache). Entries are kept for {@code ttl}
+ * plus a stale window, so a hot flight is normally refreshed before it can expire and
+ * reads never wait for the reload. A refresh that finds nothing removes the entry; one
+ * that fails, such as during an L2 outage, keeps it until it expires.
  */
 public class InMemoryFlightCache implements FlightCache {
 
     private static final Logger log = LoggerFactory.getLogger(InMemoryFlightCache.class);
 
     private final Cache<String, Flight> cache;
+    private final Map<RemovalCause, LongAdder> evictionsByCause = new EnumMap<>(RemovalCause.class);
 
+    public InMemoryFlightCache(int maxSize, int ttlMinutes) {
+        this(maxSize, Duration.ofMinutes(ttlMinutes), Duration.ZERO, Duration.ZERO, null);
+    }
+
+    /**
+     * @param refreshAfter age after which a read triggers a background reload; zero disables refresh
+     * @param staleWindow  how long past {@code ttl} an entry may still be served while it reloads
+     * @param refresher    source for reloads; an empty result removes the entry, an error keeps it.
+     *                     Use {@link FlightCache#load}, not {@code get}, so failures aren't read as misses
+     */
     public InMemoryFlightCache(
-            @Value("${flight.cache.local.max-size:10000}") int maxSize,
-            @Value("${flight.cache.local.ttl-minutes:10}") int ttlMinutes) {
+            int maxSize,
+            Duration ttl,
+            Duration refreshAfter,
+            Duration staleWindow,
+            Function<String, Mono<Flight>> refresher) {
+        this(maxSize, ttl, refreshAfter, staleWindow, refresher, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
 
-        this.cache = Caffeine.newBuilder()
+    InMemoryFlightCache(
+            int maxSize,
+            Duration ttl,
+            Duration refreshAfter,
+            Duration staleWindow,
+            Function<String, Mono<Flight>> refresher,
+            Ticker ticker,
+            Executor executor) {
+
+        for (RemovalCause cause : RemovalCause.values()) {
+            if (cause.wasEvicted()) {
+                evictionsByCause.put(cause, new LongAdder());
+            }
+        }
+
+        boolean refreshing = refresher != null && refreshAfter.compareTo(Duration.ZERO) > 0;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
                 .maximumSize(maxSize)
-                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .expireAfterWrite(refreshing ? ttl.plus(staleWindow) : ttl)
+                .ticker(ticker)
+                .executor(executor)
                 .recordStats() // Enable metrics for monitoring
                 .evictionListener((key, value, cause) -> {
+                    evictionsByCause.get(cause).increment();
                     log.debug("Evicted flight {} from cache. Cause: {}", key, cause);
-                })
-                .build();
+                });
 
-        log.info("InMemoryFlightCache initialized with maxSize={}, ttl={}min", maxSize, ttlMinutes);
+        if (refreshing) {
+            this.cache = builder
+                    .refreshAfterWrite(refreshAfter)
+                    .build(refreshLoader(refresher));
+            log.info("InMemoryFlightCache initialized with maxSize={}, ttl={}s, refreshAfter={}s, staleWindow={}s",
+                    maxSize, ttl.toSeconds(), refreshAfter.toSeconds(), staleWindow.toSeconds());
+        } else {
+            this.cache = builder.build();
+            log.info("InMemoryFlightCache initialized with maxSize={}, ttl={}min", maxSize, ttl.toMinutes());
+        }
+    }
+
+    /**
+     * Loader used only for refreshes. Entries are never loaded on demand; reads that
+     * miss stay misses and are filled by the caller, as without refresh.
+     */
+    private static CacheLoader<String, Flight> refreshLoader(Function<String, Mono<Flight>> refresher) {
+        return new CacheLoader<>() {
+            @Override
+            public Flight load(String flightNumber) {
+                return null;
+            }
+
+            @Override
+            public CompletableFuture<? extends Flight> asyncReload(String flightNumber, Flight oldValue, Executor executor) {
+                log.debug("Refreshing flight {} ahead of expiry", flightNumber);
+                // Caffeine calls this on the reading thread; subscribe elsewhere so the read never waits.
+                // An error completes the future exceptionally, and Caffeine then keeps the old value.
+                return Mono.defer(() -> refresher.apply(flightNumber))
+                        .subscribeOn(Schedulers.fromExecutor(executor))
+                        .toFuture();
+            }
+        };
     }
 
     @Override
@@ -72,6 +161,39 @@ public class InMemoryFlightCache implements FlightCache {
         return Mono.fromSupplier(() -> cache.getIfPresent(flightNumber) != null);
     }
 
+    @Override
+    public Mono<Map<String, Flight>> getAll(Collection<String> flightNumbers) {
+        if (flightNumbers == null || flightNumbers.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return Mono.fromSupplier(() -> cache.getAllPresent(nonNull(flightNumbers)));
+    }
+
+    @Override
+    public Mono<Void> putAll(Map<String, Flight> flights) {
+        if (flights == null || flights.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> {
+            Map<String, Flight> entries = new HashMap<>(flights);
+            entries.entrySet().removeIf(entry -> entry.getKey() == null || entry.getValue() == null);
+            cache.putAll(entries);
+        });
+    }
+
+    @Override
+    public Mono<Long> deleteAll(Collection<String> flightNumbers) {
+        if (flightNumbers == null || flightNumbers.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return Mono.fromSupplier(() -> {
+            Iterable<String> keys = nonNull(flightNumbers);
+            long existed = cache.getAllPresent(keys).size();
+            cache.invalidateAll(keys);
+            return existed;
+        });
+    }
+
     @Override
     public Mono<Void> clear() {
         return Mono.fromRunnable(() -> {
@@ -81,6 +203,26 @@ public class InMemoryFlightCache implements FlightCache {
         });
     }
 
+    private static Iterable<String> nonNull(Collection<String> keys) {
+        return keys.stream().filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Publishes this cache's statistics to Micrometer under {@code cache=<name>}:
+     * Caffeine's standard cache.* meters (gets by result, evictions, size, refresh loads)
+     * plus {@code flight.cache.evictions} broken down by cause, which shows whether
+     * entries leave because of max-size or TTL.
+     */
+    public void bindMetrics(MeterRegistry registry, String name) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+        evictionsByCause.forEach((cause, count) ->
+                FunctionCounter.builder("flight.cache.evictions", count, LongAdder::sum)
+                        .tag("cache", name)
+                        .tag("cause", cause.name().toLowerCase())
+                        .description("Entries evicted from the in-memory cache, by cause")
+                        .register(registry));
+    }
+
     /**
      * Get cache statistics for monitoring.
      * Useful for observability and debugging.
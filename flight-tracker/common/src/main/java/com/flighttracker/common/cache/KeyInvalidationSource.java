@@ -0,0 +1,20 @@
+package com.flighttracker.common.cache;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Feed of cache keys that the shared (L2) cache reports as changed, used to keep a
+ * near-cache coherent without relying on its TTL.
+ */
+public interface KeyInvalidationSource {
+
+    /**
+     * Invalidated flight numbers, in the batches the server sends them. A message with
+     * {@code all} set means every local entry must be dropped: the server was flushed,
+     * or the feed reconnected and may have missed messages.
+     * <p>
+     * The feed is hot and doesn't buffer for slow subscribers; subscribers that can't
+     * keep up must buffer themselves, since a dropped message leaves a stale entry.
+     */
+    Flux<FlightCacheInvalidation> invalidations();
+}
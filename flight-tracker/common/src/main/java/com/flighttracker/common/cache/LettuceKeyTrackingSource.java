@@ -0,0 +1,141 @@
+package com.flighttracker.common.cache;
+
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Invalidation feed from Redis server-assisted client-side caching (Redis 6+).
+ * <p>
+ * Opens a dedicated RESP3 connection and enables
+ * {@code CLIENT TRACKING ON BCAST PREFIX flight:}, so Redis pushes an
+ * {@code invalidate} message whenever any flight key is written, deleted, expired or
+ * evicted, by any client. Broadcast mode is used because reads go through the shared
+ * template connection, not this one; the cost is that every node hears about every
+ * flight key, including its own writes.
+ * <p>
+ * Tracking state lives on the connection, so after a reconnect it is re-enabled and
+ * an {@code all} invalidation is emitted for whatever was missed in between.
+ */
+public class LettuceKeyTrackingSource implements KeyInvalidationSource {
+
+    private static final Logger log = LoggerFactory.getLogger(LettuceKeyTrackingSource.class);
+
+    private static final String SOURCE_ID = "redis-tracking";
+
+    private final RedisClient redisClient;
+    private final String keyPrefix;
+    private final Sinks.Many<FlightCacheInvalidation> sink = Sinks.many().multicast().directBestEffort();
+
+    private volatile StatefulRedisConnection<String, String> connection;
+
+    public LettuceKeyTrackingSource(RedisClient redisClient) {
+        this(redisClient, RedisFlightCache.KEY_PREFIX);
+    }
+
+    LettuceKeyTrackingSource(RedisClient redisClient, String keyPrefix) {
+        this.redisClient = redisClient;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (redisClient.getOptions().getConfiguredProtocolVersion() == ProtocolVersion.RESP2) {
+            throw new IllegalStateException("Redis client tracking needs RESP3 push messages, but the client is configured for RESP2");
+        }
+
+        connection = redisClient.connect(StringCodec.UTF8);
+        connection.addListener(this::onPush);
+        redisClient.addListener(new RedisConnectionStateListener() {
+            @Override
+            public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress address) {
+                if (handler == connection) {
+                    onReconnected();
+                }
+            }
+        });
+        connection.sync().clientTracking(trackingArgs());
+
+        log.info("Redis client tracking enabled for prefix '{}'", keyPrefix);
+    }
+
+    @PreDestroy
+    public void stop() {
+        StatefulRedisConnection<String, String> current = connection;
+        if (current != null) {
+            current.close();
+        }
+        sink.tryEmitComplete();
+    }
+
+    @Override
+    public Flux<FlightCacheInvalidation> invalidations() {
+        return sink.asFlux();
+    }
+
+    private TrackingArgs trackingArgs() {
+        return TrackingArgs.Builder.enabled().bcast().prefixes(keyPrefix);
+    }
+
+    private void onReconnected() {
+        // Runs on the event loop, so don't wait for the reply
+        connection.async().clientTracking(trackingArgs())
+                .whenComplete((reply, e) -> {
+                    if (e != null) {
+                        log.warn("Failed to re-enable Redis client tracking: {}", e.getMessage());
+                    }
+                });
+        log.warn("Redis tracking connection re-established; dropping near-cache entries");
+        emit(new FlightCacheInvalidation(SOURCE_ID, true, List.of()));
+    }
+
+    /**
+     * Handles {@code >2 "invalidate" [key, ...]}; a null key list means the server
+     * flushed its database.
+     */
+    private void onPush(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (!(keys instanceof List<?> keyList)) {
+            emit(new FlightCacheInvalidation(SOURCE_ID, true, List.of()));
+            return;
+        }
+
+        List<String> flightNumbers = new ArrayList<>(keyList.size());
+        for (Object key : keyList) {
+            String name = String.valueOf(key);
+            if (name.startsWith(keyPrefix)) {
+                flightNumbers.add(name.substring(keyPrefix.length()));
+            }
+        }
+        if (!flightNumbers.isEmpty()) {
+            emit(new FlightCacheInvalidation(SOURCE_ID, false, flightNumbers));
+        }
+    }
+
+    private void emit(FlightCacheInvalidation invalidation) {
+        Sinks.EmitResult result = sink.tryEmitNext(invalidation);
+        if (result.isFailure()) {
+            log.warn("Dropped {}: {}", invalidation, result);
+        }
+    }
+}
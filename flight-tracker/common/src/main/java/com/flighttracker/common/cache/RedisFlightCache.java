@@ -1,58 +1,120 @@
 package com.flighttracker.common.cache;
 
 import com.flighttracker.common.model.Flight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Redis-backed cache implementation for distributed caching.
  * Provides shared cache across multiple service instances.
  * Gracefully degrades on Redis failures (returns empty instead of crashing).
+ * Bulk removal walks the keyspace with SCAN and UNLINK, never KEYS, so it doesn't
+ * stall other Redis clients.
+ * <p>
+ * Metrics: {@code flight.cache.redis} latency per command (op tag), and
+ * {@code flight.cache.redis.errors} by type; timeouts and connection failures are the
+ * errors this class degrades on, answering as a miss instead of failing.
  */
 public class RedisFlightCache implements FlightCache {
 
     private static final Logger log = LoggerFactory.getLogger(RedisFlightCache.class);
-    private static final String KEY_PREFIX = "flight:";
+    static final String KEY_PREFIX = "flight:";
+
+    // SETs in flight at once during putAll; Lettuce pipelines them on the shared connection
+    private static final int PIPELINE_DEPTH = 256;
+    private static final int DEFAULT_CLEAR_PAGE_SIZE = 1000;
+    private static final int DEFAULT_CLEAR_CONCURRENCY = 4;
 
     private final ReactiveValueOperations<String, Flight> valueOps;
     private final ReactiveRedisTemplate<String, Flight> redisTemplate;
     private final Duration ttl;
     private final Duration timeout;
+    private final int clearPageSize;
+    private final int clearConcurrency;
+    private final Map<String, Timer> latencies = new HashMap<>();
+    private final Counter timeouts;
+    private final Counter connectionFailures;
+    private final Counter otherErrors;
+
+    /**
+     * Uses the default SCAN page size and concurrency for clear(), and the global meter registry.
+     */
+    public RedisFlightCache(ReactiveRedisTemplate<String, Flight> redisTemplate, int ttlMinutes, int timeoutSeconds) {
+        this(redisTemplate, ttlMinutes, timeoutSeconds, DEFAULT_CLEAR_PAGE_SIZE, DEFAULT_CLEAR_CONCURRENCY,
+                Metrics.globalRegistry);
+    }
 
     public RedisFlightCache(
             ReactiveRedisTemplate<String, Flight> redisTemplate,
-            @Value("${flight.cache.redis.ttl-minutes:30}") int ttlMinutes,
-            @Value("${flight.cache.redis.timeout-seconds:2}") int timeoutSeconds) {
+            int ttlMinutes,
+            int timeoutSeconds,
+            int clearPageSize,
+            int clearConcurrency,
+            MeterRegistry meterRegistry) {
 
         this.redisTemplate = redisTemplate;
         this.valueOps = redisTemplate.opsForValue();
         this.ttl = Duration.ofMinutes(ttlMinutes);
         this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.clearPageSize = clearPageSize;
+        this.clearConcurrency = clearConcurrency;
+
+        for (String op : List.of("get", "set", "del", "exists", "mget", "mset")) {
+            latencies.put(op, Timer.builder("flight.cache.redis")
+                    .tag("op", op)
+                    .description("Latency of Redis cache commands, including timeouts")
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+        this.timeouts = errorCounter(meterRegistry, "timeout");
+        this.connectionFailures = errorCounter(meterRegistry, "connection");
+        this.otherErrors = errorCounter(meterRegistry, "other");
 
         log.info("RedisFlightCache initialized with ttl={}min, timeout={}s", ttlMinutes, timeoutSeconds);
     }
 
     @Override
     public Mono<Flight> get(String flightNumber) {
+        return load(flightNumber)
+                .onErrorResume(this::isRedisError, e -> {
+                    log.debug("Returning empty due to Redis error", e);
+                    return Mono.empty(); // Graceful degradation
+                });
+    }
+
+    /**
+     * GET without the graceful degradation, so an L1 refresh during an outage keeps
+     * the entry it has instead of evicting it.
+     */
+    @Override
+    public Mono<Flight> load(String flightNumber) {
         if (flightNumber == null) {
             return Mono.empty();
         }
 
         String key = buildKey(flightNumber);
-        return valueOps.get(key)
-                .timeout(timeout)
-                .doOnError(e -> log.warn("Redis GET failed for key {}: {}", key, e.getMessage()))
-                .onErrorResume(this::isRedisError, e -> {
-                    log.debug("Returning empty due to Redis error", e);
-                    return Mono.empty(); // Graceful degradation
-                });
+        return timed("get", valueOps.get(key).timeout(timeout))
+                .doOnError(e -> log.warn("Redis GET failed for key {}: {}", key, e.getMessage()));
     }
 
     @Override
@@ -62,8 +124,7 @@ public class RedisFlightCache implements FlightCache {
         }
 
         String key = buildKey(flightNumber);
-        return valueOps.set(key, flight, ttl)
-                .timeout(timeout)
+        return timed("set", valueOps.set(key, flight, ttl).timeout(timeout))
                 .doOnSuccess(success -> {
                     if (Boolean.TRUE.equals(success)) {
                         log.debug("Cached flight {} in Redis with TTL {}min", flightNumber, ttl.toMinutes());
@@ -84,9 +145,8 @@ public class RedisFlightCache implements FlightCache {
         }
 
         String key = buildKey(flightNumber);
-        return redisTemplate.delete(key)
+        return timed("del", redisTemplate.delete(key).timeout(timeout))
                 .map(count -> count > 0)
-                .timeout(timeout)
                 .doOnSuccess(deleted -> {
                     if (Boolean.TRUE.equals(deleted)) {
                         log.debug("Deleted flight {} from Redis", flightNumber);
@@ -103,23 +163,151 @@ public class RedisFlightCache implements FlightCache {
         }
 
         String key = buildKey(flightNumber);
-        return redisTemplate.hasKey(key)
-                .timeout(timeout)
+        return timed("exists", redisTemplate.hasKey(key).timeout(timeout))
                 .doOnError(e -> log.warn("Redis EXISTS failed for key {}: {}", key, e.getMessage()))
                 .onErrorResume(this::isRedisError, e -> Mono.just(false));
     }
 
+    /**
+     * Fetches all keys with a single MGET.
+     */
+    @Override
+    public Mono<Map<String, Flight>> getAll(Collection<String> flightNumbers) {
+        if (flightNumbers == null || flightNumbers.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        List<String> ids = flightNumbers.stream().filter(Objects::nonNull).distinct().toList();
+        List<String> keys = ids.stream().map(this::buildKey).toList();
+        if (keys.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return timed("mget", valueOps.multiGet(keys).timeout(timeout))
+                .map(values -> {
+                    // MGET answers positionally, with null for missing keys
+                    Map<String, Flight> found = new HashMap<>();
+                    for (int i = 0; i < ids.size(); i++) {
+                        Flight flight = values.get(i);
+                        if (flight != null) {
+                            found.put(ids.get(i), flight);
+                        }
+                    }
+                    return found;
+                })
+                .doOnError(e -> log.warn("Redis MGET failed for {} keys: {}", keys.size(), e.getMessage()))
+                .onErrorResume(this::isRedisError, e -> Mono.just(Map.of()));
+    }
+
+    /**
+     * Writes every entry with SET ... EX. Commands are issued without waiting for each
+     * reply, so the batch costs roughly one round trip instead of one per flight.
+     */
+    @Override
+    public Mono<Void> putAll(Map<String, Flight> flights) {
+        if (flights == null || flights.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return timed("mset", Flux.fromIterable(flights.entrySet())
+                        .filter(entry -> entry.getKey() != null && entry.getValue() != null)
+                        .flatMap(entry -> valueOps.set(buildKey(entry.getKey()), entry.getValue(), ttl), PIPELINE_DEPTH)
+                        .count()
+                        .timeout(timeout))
+                .doOnSuccess(count -> log.debug("Cached {} flights in Redis with TTL {}min", count, ttl.toMinutes()))
+                .doOnError(e -> log.error("Redis pipelined SET failed for {} flights: {}", flights.size(), e.getMessage()))
+                .onErrorResume(this::isRedisError, e -> {
+                    log.warn("Failed to cache {} flights in Redis, continuing anyway", flights.size());
+                    return Mono.just(0L);
+                })
+                .then();
+    }
+
+    /**
+     * Removes all keys with a single multi-key DEL.
+     */
+    @Override
+    public Mono<Long> deleteAll(Collection<String> flightNumbers) {
+        if (flightNumbers == null || flightNumbers.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        String[] keys = flightNumbers.stream().filter(Objects::nonNull).map(this::buildKey).toArray(String[]::new);
+        if (keys.length == 0) {
+            return Mono.just(0L);
+        }
+        return timed("del", redisTemplate.delete(keys).timeout(timeout))
+                .doOnSuccess(count -> log.debug("Deleted {} flights from Redis", count))
+                .doOnError(e -> log.warn("Redis DEL failed for {} keys: {}", keys.length, e.getMessage()))
+                .onErrorResume(this::isRedisError, e -> Mono.just(0L));
+    }
+
     @Override
     public Mono<Void> clear() {
-        return redisTemplate.keys(KEY_PREFIX + "*")
-                .flatMap(redisTemplate::delete)
-                .count()
-                .timeout(Duration.ofSeconds(30)) // Longer timeout for bulk operation
+        return clearInBatches()
+                .last(0L)
                 .doOnSuccess(count -> log.warn("Cleared {} flight entries from Redis", count))
                 .doOnError(e -> log.error("Failed to clear Redis cache: {}", e.getMessage()))
                 .then();
     }
 
+    /**
+     * Removes every flight key page by page and reports progress.
+     * <p>
+     * Keys are found with a cursor-driven SCAN (never KEYS, which blocks Redis for the
+     * whole keyspace) and removed with UNLINK, which frees memory off the main thread.
+     * At most {@code clear.concurrency} UNLINK batches of {@code clear.page-size} keys
+     * are in flight, and SCAN only fetches the next page when a batch slot is free.
+     * <p>
+     * Emits the running total of removed keys after each batch. Cancelling the
+     * subscription stops the clear after the batches already in flight.
+     *
+     * @return Flux of cumulative removed-key counts
+     */
+    public Flux<Long> clearInBatches() {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(KEY_PREFIX + "*")
+                .count(clearPageSize)
+                .build();
+
+        return redisTemplate.scan(options)
+                .buffer(clearPageSize)
+                .flatMap(keys -> redisTemplate.unlink(keys.toArray(String[]::new)).timeout(timeout), clearConcurrency)
+                .scan(0L, Long::sum)
+                .skip(1)
+                .doOnNext(total -> log.debug("Clearing Redis cache: {} entries removed so far", total))
+                .doOnCancel(() -> log.warn("Redis cache clear cancelled"));
+    }
+
+    /**
+     * Times a command and counts its failure, if any, by type.
+     */
+    private <T> Mono<T> timed(String op, Mono<T> command) {
+        Timer latency = latencies.get(op);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return command
+                    .doOnError(this::countError)
+                    .doFinally(signal -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private void countError(Throwable e) {
+        if (e instanceof TimeoutException) {
+            timeouts.increment();
+        } else if (isRedisError(e)) {
+            connectionFailures.increment();
+        } else {
+            otherErrors.increment();
+        }
+    }
+
+    private static Counter errorCounter(MeterRegistry registry, String type) {
+        return Counter.builder("flight.cache.redis.errors")
+                .tag("type", type)
+                .description("Failed Redis cache commands; timeout and connection errors are served as misses")
+                .register(registry);
+    }
+
     /**
      * Builds Redis key with namespace prefix.
      * Example: "flight:AA123"
@@ -133,7 +321,7 @@ public class RedisFlightCache implements FlightCache {
      */
     private boolean isRedisError(Throwable e) {
         return e instanceof RedisConnectionFailureException
-                || e instanceof java.util.concurrent.TimeoutException
+                || e instanceof TimeoutException
                 || e.getCause() instanceof RedisConnectionFailureException;
     }
 }
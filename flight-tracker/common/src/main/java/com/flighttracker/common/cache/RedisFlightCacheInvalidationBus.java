@@ -0,0 +1,209 @@
+package com.flighttracker.common.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.common.model.Flight;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Invalidation bus over Redis pub/sub.
+ *
+ * Published flight numbers are collected in a set and flushed once per batch window,
+ * so a key written many times within a window is sent once, and a window's keys go
+ * out in as few messages as the batch size allows. Every node subscribes to the
+ * channel and applies messages from other nodes to its L1: {@code EVICT} drops the
+ * entries, {@code REFRESH} reloads the ones it holds from L2. Messages carry the
+ * sender's node id, so a node ignores its own.
+ *
+ * Pub/sub is fire-and-forget: a node that is disconnected when a message is sent
+ * misses it, and keeps that entry until its L1 TTL expires.
+ */
+public class RedisFlightCacheInvalidationBus implements FlightCacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisFlightCacheInvalidationBus.class);
+
+    public static final String CHANNEL = "flight-cache:invalidations";
+
+    public enum Mode {
+        EVICT,
+        REFRESH
+    }
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final FlightCache localCache;
+    private final FlightCache remoteCache;
+    private final Mode mode;
+    private final Duration batchWindow;
+    private final int maxBatchSize;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingClear = new AtomicBoolean();
+
+    private Disposable subscription;
+    private Disposable flusher;
+
+    public RedisFlightCacheInvalidationBus(
+            ReactiveStringRedisTemplate redisTemplate,
+            FlightCache localCache,
+            FlightCache remoteCache,
+            Mode mode,
+            Duration batchWindow,
+            int maxBatchSize) {
+        this.redisTemplate = redisTemplate;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.mode = mode;
+        this.batchWindow = batchWindow;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        subscription = redisTemplate.listenToChannel(CHANNEL)
+                .flatMap(message -> read(message.getMessage()))
+                .filter(invalidation -> !nodeId.equals(invalidation.getNodeId()))
+                .concatMap(invalidation -> apply(invalidation)
+                        .doOnError(e -> log.warn("Failed to apply {}: {}", invalidation, e.getMessage()))
+                        .onErrorResume(e -> Mono.empty()))
+                .doOnError(e -> log.warn("Cache invalidation subscription failed, reconnecting: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+
+        // onBackpressureDrop + concatMap: a slow flush skips ticks; the next one picks up its keys
+        flusher = Flux.interval(batchWindow)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush(), 1)
+                .subscribe();
+
+        log.info("Cache invalidation bus started: node={}, mode={}, window={}ms",
+                nodeId, mode, batchWindow.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    @Override
+    public void publish(Collection<String> flightNumbers) {
+        for (String flightNumber : flightNumbers) {
+            if (flightNumber != null) {
+                pending.add(flightNumber);
+            }
+        }
+    }
+
+    @Override
+    public void publishClear() {
+        pendingClear.set(true);
+    }
+
+    /**
+     * Sends what was published since the last flush. Keys are taken out of the pending
+     * set before sending, so a failed send drops them rather than piling them up while
+     * Redis is unavailable.
+     */
+    Mono<Void> flush() {
+        List<FlightCacheInvalidation> messages = new ArrayList<>();
+        if (pendingClear.getAndSet(false)) {
+            messages.add(new FlightCacheInvalidation(nodeId, true, List.of()));
+        }
+
+        List<String> batch = new ArrayList<>();
+        Iterator<String> keys = pending.iterator();
+        while (keys.hasNext()) {
+            batch.add(keys.next());
+            keys.remove();
+            if (batch.size() == maxBatchSize) {
+                messages.add(new FlightCacheInvalidation(nodeId, false, batch));
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            messages.add(new FlightCacheInvalidation(nodeId, false, batch));
+        }
+
+        if (messages.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(messages)
+                .concatMap(message -> redisTemplate.convertAndSend(CHANNEL, toJson(message)))
+                .doOnComplete(() -> log.debug("Sent {} cache invalidation messages", messages.size()))
+                .doOnError(e -> log.warn("Failed to send cache invalidations: {}", e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    /**
+     * Applies an invalidation from another node to the local cache.
+     */
+    Mono<Void> apply(FlightCacheInvalidation invalidation) {
+        if (invalidation.isAll()) {
+            log.debug("Clearing L1 on {}", invalidation);
+            return localCache.clear();
+        }
+
+        List<String> flightNumbers = invalidation.getFlightNumbers();
+        if (mode == Mode.EVICT) {
+            return localCache.deleteAll(flightNumbers).then();
+        }
+
+        // Refresh only what this node holds; other keys would just fill L1 with flights nobody asked for
+        return localCache.getAll(flightNumbers)
+                .flatMap(held -> held.isEmpty()
+                        ? Mono.empty()
+                        : remoteCache.getAll(held.keySet())
+                                .flatMap(current -> localCache.putAll(current)
+                                        .then(localCache.deleteAll(missing(held, current)))))
+                .then();
+    }
+
+    private static List<String> missing(Map<String, Flight> held, Map<String, Flight> current) {
+        return held.keySet().stream()
+                .filter(flightNumber -> !current.containsKey(flightNumber))
+                .toList();
+    }
+
+    private Mono<FlightCacheInvalidation> read(String json) {
+        try {
+            return Mono.just(objectMapper.readValue(json, FlightCacheInvalidation.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed cache invalidation: {}", e.getMessage());
+            return Mono.empty();
+        }
+    }
+
+    private String toJson(FlightCacheInvalidation invalidation) {
+        try {
+            return objectMapper.writeValueAsString(invalidation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + invalidation, e);
+        }
+    }
+}
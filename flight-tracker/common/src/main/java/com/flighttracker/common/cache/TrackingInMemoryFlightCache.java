@@ -0,0 +1,99 @@
+package com.flighttracker.common.cache;
+
+import com.flighttracker.common.model.Flight;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * In-memory stand-in for Redis with client tracking in broadcast mode: every write,
+ * delete or clear emits an invalidation for the keys it touched, the way Redis
+ * pushes {@code invalidate} messages. Lets the near-cache run without a Redis server
+ * (dev profile, tests). Unlike Redis, expiry of an entry is not reported.
+ */
+public class TrackingInMemoryFlightCache implements FlightCache, KeyInvalidationSource {
+
+    private static final String SOURCE_ID = "in-memory-tracking";
+
+    private final FlightCache delegate;
+    private final Sinks.Many<FlightCacheInvalidation> sink = Sinks.many().multicast().directBestEffort();
+
+    public TrackingInMemoryFlightCache(FlightCache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Flux<FlightCacheInvalidation> invalidations() {
+        return sink.asFlux();
+    }
+
+    @Override
+    public Mono<Flight> get(String flightNumber) {
+        return delegate.get(flightNumber);
+    }
+
+    @Override
+    public Mono<Void> put(String flightNumber, Flight flight) {
+        return delegate.put(flightNumber, flight).doOnSuccess(v -> invalidate(List.of(flightNumber)));
+    }
+
+    @Override
+    public Mono<Boolean> delete(String flightNumber) {
+        return delegate.delete(flightNumber).doOnSuccess(deleted -> {
+            if (Boolean.TRUE.equals(deleted)) {
+                invalidate(List.of(flightNumber));
+            }
+        });
+    }
+
+    @Override
+    public Mono<Boolean> exists(String flightNumber) {
+        return delegate.exists(flightNumber);
+    }
+
+    @Override
+    public Mono<Map<String, Flight>> getAll(Collection<String> flightNumbers) {
+        return delegate.getAll(flightNumbers);
+    }
+
+    @Override
+    public Mono<Void> putAll(Map<String, Flight> flights) {
+        return delegate.putAll(flights).doOnSuccess(v -> {
+            if (flights != null) {
+                invalidate(flights.keySet());
+            }
+        });
+    }
+
+    @Override
+    public Mono<Long> deleteAll(Collection<String> flightNumbers) {
+        return delegate.deleteAll(flightNumbers).doOnSuccess(count -> {
+            if (count != null && count > 0) {
+                invalidate(flightNumbers);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> clear() {
+        return delegate.clear().doOnSuccess(v -> emit(new FlightCacheInvalidation(SOURCE_ID, true, List.of())));
+    }
+
+    private void invalidate(Collection<String> flightNumbers) {
+        List<String> keys = flightNumbers.stream().filter(Objects::nonNull).toList();
+        if (!keys.isEmpty()) {
+            emit(new FlightCacheInvalidation(SOURCE_ID, false, keys));
+        }
+    }
+
+    private void emit(FlightCacheInvalidation invalidation) {
+        // Writers may emit concurrently; retry briefly instead of dropping the message
+        sink.emitNext(invalidation, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+}
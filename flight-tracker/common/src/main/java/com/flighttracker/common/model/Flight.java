@@ -23,6 +23,10 @@ public class Flight {
     private double speed;
     private FlightStatus status;
     private long lastUpdated;
+    // True track in degrees clockwise from north; null when the source didn't report one
+    private Double heading;
+    // Climb rate in metres per second; negative when descending
+    private double verticalRate;
 
     public Flight() {
     }
@@ -187,6 +191,22 @@ public class Flight {
         this.lastUpdated = lastUpdated;
     }
 
+    public Double getHeading() {
+        return heading;
+    }
+
+    public void setHeading(Double heading) {
+        this.heading = heading;
+    }
+
+    public double getVerticalRate() {
+        return verticalRate;
+    }
+
+    public void setVerticalRate(double verticalRate) {
+        this.verticalRate = verticalRate;
+    }
+
     public boolean isInFlight() {
         return status == FlightStatus.IN_FLIGHT;
     }
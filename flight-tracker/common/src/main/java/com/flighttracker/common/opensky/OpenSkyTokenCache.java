@@ -0,0 +1,118 @@
+package com.flighttracker.common.opensky;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Caches an OpenSky OAuth2 client-credentials token and refreshes it ahead of expiry.
+ * <p>
+ * The HTTP call is supplied by the caller, so each service can use its own WebClient.
+ * Nothing here blocks: callers compose on {@link #getToken()}. Once a token is past
+ * its refresh point, callers keep getting it while one shared request fetches the
+ * next; only when there is no usable token do they wait, on that same request.
+ */
+public class OpenSkyTokenCache {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenSkyTokenCache.class);
+    private static final Duration DEFAULT_VALIDITY = Duration.ofMinutes(30);
+    // Treat tokens as expired slightly early, so one is never sent just as it lapses
+    private static final Duration EXPIRY_MARGIN = Duration.ofSeconds(30);
+    private static final Duration REFRESH_AHEAD = Duration.ofMinutes(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Mono<Map<?, ?>> tokenRequest;
+    private final Retry retry;
+    private final Clock clock;
+
+    private final AtomicReference<AccessToken> token = new AtomicReference<>();
+    // The token request in progress, shared by every caller that needs it
+    private final AtomicReference<Mono<AccessToken>> pendingRefresh = new AtomicReference<>();
+
+    /**
+     * @param tokenRequest cold Mono that posts the client-credentials grant and emits the
+     *                     decoded JSON response
+     * @param retryable    which request failures are worth retrying
+     */
+    public OpenSkyTokenCache(Mono<Map<?, ?>> tokenRequest, Predicate<Throwable> retryable) {
+        this(tokenRequest, retryable, Clock.systemUTC());
+    }
+
+    OpenSkyTokenCache(Mono<Map<?, ?>> tokenRequest, Predicate<Throwable> retryable, Clock clock) {
+        this.tokenRequest = tokenRequest;
+        this.clock = clock;
+        // Jitter keeps nodes that lost their tokens together from retrying in lockstep
+        this.retry = Retry.backoff(3, Duration.ofMillis(500))
+                .maxBackoff(Duration.ofSeconds(5))
+                .jitter(0.5)
+                .filter(retryable)
+                .doBeforeRetry(signal -> log.debug("Retrying OpenSky token request: {}", signal.failure().getMessage()));
+    }
+
+    /**
+     * Returns a valid access token. Completes immediately while the cached token is
+     * valid; errors if a token is needed and can't be obtained after retries.
+     */
+    public Mono<String> getToken() {
+        return Mono.defer(() -> {
+            AccessToken current = token.get();
+            Instant now = clock.instant();
+            if (current == null || !now.isBefore(current.expiresAt())) {
+                return refresh();
+            }
+            if (!now.isBefore(current.refreshAt())) {
+                // Failures are logged by refresh(); the current token is still good
+                refresh().subscribe(refreshed -> { }, e -> { });
+            }
+            return Mono.just(current);
+        }).map(AccessToken::value);
+    }
+
+    private Mono<AccessToken> refresh() {
+        Mono<AccessToken> pending = pendingRefresh.get();
+        if (pending != null) {
+            return pending;
+        }
+
+        // cache(): callers that cancel don't cancel the request the others are waiting on
+        Mono<AccessToken> request = Mono.defer(() -> {
+                    log.info("Refreshing OpenSky access token");
+                    return tokenRequest;
+                })
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty token response from OpenSky")))
+                .map(this::toAccessToken)
+                .timeout(REQUEST_TIMEOUT)
+                .retryWhen(retry)
+                .doOnNext(token::set)
+                .doOnError(e -> log.warn("Failed to refresh OpenSky access token: {}", e.getMessage()))
+                .doFinally(signal -> pendingRefresh.set(null))
+                .cache();
+        return pendingRefresh.compareAndSet(null, request) ? request : refresh();
+    }
+
+    private AccessToken toAccessToken(Map<?, ?> response) {
+        if (!(response.get("access_token") instanceof String value)) {
+            throw new IllegalStateException("Failed to retrieve access token from OpenSky");
+        }
+        Duration validity = response.get("expires_in") instanceof Number seconds
+                ? Duration.ofSeconds(seconds.longValue())
+                : DEFAULT_VALIDITY;
+
+        Instant expiresAt = clock.instant().plus(validity).minus(EXPIRY_MARGIN);
+        // Short-lived tokens are refreshed halfway through instead
+        Duration refreshAhead = REFRESH_AHEAD.compareTo(validity.dividedBy(2)) < 0 ? REFRESH_AHEAD : validity.dividedBy(2);
+        log.info("Token refreshed successfully, expires at {}", expiresAt);
+        return new AccessToken(value, expiresAt.minus(refreshAhead), expiresAt);
+    }
+
+    private record AccessToken(String value, Instant refreshAt, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.flighttracker.common.opensky;
+
+/**
+ * One OpenSky state vector, as read by {@link StateVectorParser}.
+ * <p>
+ * The parser reuses a single instance for every vector of a response, so a
+ * {@link StateVectorCollector} must copy out what it keeps. Missing numbers read
+ * as 0, except {@link #trueTrack()}, which is NaN when the heading is unknown.
+ */
+public final class StateVector {
+
+    String icao24;
+    String callsign;
+    long timePosition;
+    double longitude;
+    double latitude;
+    double baroAltitude;
+    boolean onGround;
+    double velocity;
+    double trueTrack;
+    double verticalRate;
+    long receivedAt;
+
+    StateVector() {
+    }
+
+    void reset() {
+        icao24 = null;
+        callsign = null;
+        timePosition = 0L;
+        longitude = 0.0;
+        latitude = 0.0;
+        baroAltitude = 0.0;
+        onGround = false;
+        velocity = 0.0;
+        trueTrack = Double.NaN;
+        verticalRate = 0.0;
+    }
+
+    public String icao24() {
+        return icao24;
+    }
+
+    public String callsign() {
+        return callsign;
+    }
+
+    /**
+     * When the position was last reported by the aircraft, in epoch millis; 0 if unknown.
+     */
+    public long timePosition() {
+        return timePosition;
+    }
+
+    public double longitude() {
+        return longitude;
+    }
+
+    public double latitude() {
+        return latitude;
+    }
+
+    public double baroAltitude() {
+        return baroAltitude;
+    }
+
+    public boolean onGround() {
+        return onGround;
+    }
+
+    public double velocity() {
+        return velocity;
+    }
+
+    public double trueTrack() {
+        return trueTrack;
+    }
+
+    public double verticalRate() {
+        return verticalRate;
+    }
+
+    /**
+     * When the response was received, in epoch millis.
+     */
+    public long receivedAt() {
+        return receivedAt;
+    }
+
+    /**
+     * When the position is from: {@link #timePosition()}, or {@link #receivedAt()}
+     * if the aircraft didn't report one. OpenSky repeats a position for a while after
+     * the aircraft stops reporting, so the response time alone overstates freshness.
+     */
+    public long reportedAt() {
+        return timePosition > 0 ? timePosition : receivedAt;
+    }
+
+    /**
+     * Same rule as {@code Flight.hasPosition()}.
+     */
+    boolean hasPosition() {
+        return latitude != 0.0 || longitude != 0.0;
+    }
+}
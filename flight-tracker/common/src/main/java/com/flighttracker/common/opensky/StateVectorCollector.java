@@ -0,0 +1,21 @@
+package com.flighttracker.common.opensky;
+
+/**
+ * Receives the state vectors of one response and builds the parse result.
+ * Each service collects into its own representation.
+ *
+ * @param <R> the parse result
+ */
+public interface StateVectorCollector<R> {
+
+    /**
+     * Called once per usable state vector. {@code vector} is reused for the next
+     * call, so copy out anything kept.
+     */
+    void accept(StateVector vector);
+
+    /**
+     * Called once the whole response has been read.
+     */
+    R finish();
+}
@@ -0,0 +1,235 @@
+package com.flighttracker.common.opensky;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+/**
+ * Token-streaming parser for OpenSky {@code /states/all} responses, shared by the
+ * api and ingestion services.
+ * <p>
+ * Feeds response chunks into Jackson's non-blocking parser as they arrive and hands
+ * each state vector to a {@link StateVectorCollector}, without buffering the body
+ * whole or decoding it into a Map of boxed values. icao24 codes and callsigns are
+ * interned from the parser's char buffer, so aircraft already seen on an earlier
+ * poll cost no string allocations. Vectors that are truncated, lack an icao24 or
+ * have no position are skipped.
+ * <p>
+ * State vector indices:
+ * 0: icao24, 1: callsign, 2: origin_country, 3: time_position,
+ * 4: last_contact, 5: longitude, 6: latitude, 7: baro_altitude,
+ * 8: on_ground, 9: velocity, 10: true_track, 11: vertical_rate,
+ * 12: sensors, 13: geo_altitude, 14: squawk, 15: spi, 16: position_source
+ */
+public class StateVectorParser {
+
+    private static final int INTERNER_CAPACITY = 1 << 16;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final StringInterner interner = new StringInterner(INTERNER_CAPACITY);
+
+    /**
+     * Parses a response body as it streams in. Each buffer is released once its bytes
+     * have been handed to the parser, so at most one chunk is held at a time.
+     */
+    public <R> Mono<R> parse(Flux<DataBuffer> body, Supplier<? extends StateVectorCollector<R>> collectors) {
+        return Mono.defer(() -> {
+            StateVectorReader<R> reader = newReader(collectors.get());
+            return body
+                    .doOnNext(buffer -> {
+                        try {
+                            reader.feed(buffer);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .then(Mono.fromCallable(reader::finish));
+        });
+    }
+
+    /**
+     * Parses a complete response body held in memory.
+     */
+    public <R> R parse(byte[] body, StateVectorCollector<R> collector) {
+        StateVectorReader<R> reader = newReader(collector);
+        reader.feed(body, 0, body.length);
+        return reader.finish();
+    }
+
+    private <R> StateVectorReader<R> newReader(StateVectorCollector<R> collector) {
+        try {
+            return new StateVectorReader<>(jsonFactory.createNonBlockingByteArrayParser(), interner, collector,
+                    System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Incremental reader for one response. Tracks nesting depth to find the
+     * {@code states} array and the position inside the current state vector.
+     */
+    private static final class StateVectorReader<R> {
+
+        private static final int STATE_VECTOR_FIELDS = 17;
+
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private final StringInterner interner;
+        private final StateVectorCollector<R> collector;
+        private final StateVector vector = new StateVector();
+
+        private byte[] chunk = new byte[8192];
+
+        private int depth;
+        private boolean statesField;
+        private boolean inStates;
+        private boolean inVector;
+        private int index;
+
+        StateVectorReader(JsonParser parser, StringInterner interner, StateVectorCollector<R> collector,
+                          long receivedAt) {
+            this.parser = parser;
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            this.interner = interner;
+            this.collector = collector;
+            this.vector.receivedAt = receivedAt;
+        }
+
+        void feed(DataBuffer buffer) {
+            int length = buffer.readableByteCount();
+            if (chunk.length < length) {
+                chunk = new byte[length];
+            }
+            buffer.read(chunk, 0, length);
+            feed(chunk, 0, length);
+        }
+
+        void feed(byte[] bytes, int offset, int length) {
+            try {
+                feeder.feedInput(bytes, offset, offset + length);
+                drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        R finish() {
+            try {
+                feeder.endOfInput();
+                drain();
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return collector.finish();
+        }
+
+        private void drain() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                onToken(token);
+            }
+        }
+
+        private void onToken(JsonToken token) throws IOException {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    depth++;
+                    if (depth == 2 && statesField && token == JsonToken.START_ARRAY) {
+                        inStates = true;
+                    } else if (depth == 3 && inStates && token == JsonToken.START_ARRAY) {
+                        startVector();
+                    }
+                    statesField = false;
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    if (depth == 3 && inVector) {
+                        endVector();
+                    } else if (depth == 2 && inStates) {
+                        inStates = false;
+                    }
+                    depth--;
+                    if (depth == 3 && inVector) {
+                        index++; // a nested value such as the sensors array just ended
+                    }
+                }
+                case FIELD_NAME -> {
+                    if (depth == 1) {
+                        statesField = "states".equals(parser.currentName());
+                    }
+                }
+                default -> {
+                    if (inVector && depth == 3) {
+                        readValue(token);
+                        index++;
+                    }
+                }
+            }
+        }
+
+        private void startVector() {
+            inVector = true;
+            index = 0;
+            vector.reset();
+        }
+
+        private void readValue(JsonToken token) throws IOException {
+            switch (index) {
+                case 0 -> vector.icao24 = text(token);
+                case 1 -> vector.callsign = text(token);
+                case 3 -> vector.timePosition = token.isNumeric() ? parser.getLongValue() * 1000L : 0L;
+                case 5 -> vector.longitude = number(token);
+                case 6 -> vector.latitude = number(token);
+                case 7 -> vector.baroAltitude = number(token);
+                case 8 -> vector.onGround = token == JsonToken.VALUE_TRUE;
+                case 9 -> vector.velocity = number(token);
+                case 10 -> vector.trueTrack = token.isNumeric() ? parser.getDoubleValue() : Double.NaN;
+                case 11 -> vector.verticalRate = number(token);
+                default -> {
+                    // not used by either service
+                }
+            }
+        }
+
+        private void endVector() {
+            inVector = false;
+            if (index >= STATE_VECTOR_FIELDS && vector.icao24 != null && vector.hasPosition()) {
+                collector.accept(vector);
+            }
+        }
+
+        /**
+         * Reads a trimmed string value through the interner, straight from the parser's buffer.
+         */
+        private String text(JsonToken token) throws IOException {
+            if (token != JsonToken.VALUE_STRING) {
+                return null;
+            }
+            char[] chars = parser.getTextCharacters();
+            int start = parser.getTextOffset();
+            int end = start + parser.getTextLength();
+            while (start < end && chars[start] <= ' ') {
+                start++;
+            }
+            while (end > start && chars[end - 1] <= ' ') {
+                end--;
+            }
+            return interner.intern(chars, start, end - start);
+        }
+
+        private double number(JsonToken token) throws IOException {
+            return token.isNumeric() ? parser.getDoubleValue() : 0.0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.flighttracker.common.opensky;
+
+import java.util.Arrays;
+
+/**
+ * Canonicalizes short strings straight from a char buffer.
+ *
+ * The same icao24 codes and callsigns come back on every poll. Looking them up by
+ * their characters returns the String from the previous poll without allocating,
+ * so only aircraft that are new to the feed create strings. The table is cleared
+ * when it fills up, which bounds memory as the fleet churns.
+ */
+final class StringInterner {
+
+    private final String[] table;
+    private final int maxEntries;
+    private int entries;
+
+    StringInterner(int capacity) {
+        this.table = new String[Integer.highestOneBit(Math.max(16, capacity - 1)) << 1];
+        this.maxEntries = table.length / 2;
+    }
+
+    synchronized String intern(char[] chars, int offset, int length) {
+        int mask = table.length - 1;
+        int slot = hash(chars, offset, length) & mask;
+        String existing;
+        while ((existing = table[slot]) != null) {
+            if (matches(existing, chars, offset, length)) {
+                return existing;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        String value = new String(chars, offset, length);
+        if (entries == maxEntries) {
+            Arrays.fill(table, null);
+            entries = 0;
+            slot = hash(chars, offset, length) & mask;
+        }
+        table[slot] = value;
+        entries++;
+        return value;
+    }
+
+    private static int hash(char[] chars, int offset, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + chars[offset + i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String existing, char[] chars, int offset, int length) {
+        if (existing.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (existing.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,13 +1,30 @@
 package com.flighttracker.common.service;
 
 import com.flighttracker.common.cache.FlightCache;
+import com.flighttracker.common.cache.FlightCacheInvalidationBus;
 import com.flighttracker.common.model.Flight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
 /**
  * Two-tier caching service (L1: in-memory, L2: Redis).
  * Provides fast local access with distributed consistency.
@@ -16,6 +33,21 @@ import reactor.core.publisher.Mono;
  * - Reads: Check local first, fallback to Redis, backfill local on hit
  * - Writes: Write to both caches in parallel (write-through)
  * - Deletes: Remove from both caches
+ *
+ * Multi-key variants (getAll/putAll/deleteAll) follow the same strategy but make
+ * one call per tier, so warming thousands of flights costs a few Redis round trips.
+ *
+ * Single-key reads that miss L1 are coalesced: concurrent callers for the same flight
+ * share one pending L2 lookup (and loader call), so a popular key expiring or a cold
+ * node doesn't send a burst of identical requests to Redis and upstream.
+ *
+ * Successful writes, deletes and clears are announced on a
+ * {@link FlightCacheInvalidationBus}, so other nodes drop or refresh their L1 copies
+ * instead of serving them until the L1 TTL expires.
+ *
+ * Metrics: {@code flight.cache.get} latency by where the flight came from (result =
+ * l1_hit, l2_hit, loaded, miss), {@code flight.cache.put} latency, L1 backfills,
+ * coalesced callers, pending loads, and per-key results of batch reads.
  */
 @Service
 public class FlightCacheService {
@@ -24,41 +56,220 @@ public class FlightCacheService {
 
     private final FlightCache localCache; // L1: Caffeine (fast, local)
     private final FlightCache remoteCache; // L2: Redis (shared, persistent)
+    private final FlightCacheInvalidationBus invalidationBus;
+
+    private static final String L1_HIT = "l1_hit";
+    private static final String L2_HIT = "l2_hit";
+    private static final String LOADED = "loaded";
+    private static final String MISS = "miss";
+
+    // Pending L1-miss loads by flight number; an entry lives until its load terminates
+    private final ConcurrentMap<String, Mono<Lookup>> pendingLoads = new ConcurrentHashMap<>();
+    // Pending loads whose flight was invalidated mid-load; their L2 value may predate the change
+    private final Set<String> staleLoads = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Timer> getLatencies = new HashMap<>();
+    private final Map<String, Counter> batchResults = new HashMap<>();
+    private final Timer putLatency;
+    // Off while NearCacheSync runs: tracking echoes this node's own writes back as invalidations
+    private volatile boolean localWrites = true;
+    private final Counter backfills;
+    private final Counter coalesced;
+
+    /**
+     * A flight and the tier it was found in.
+     */
+    private record Lookup(Flight flight, String result) {
+    }
 
     public FlightCacheService(
             @Qualifier("inMemoryFlightCache") FlightCache localCache,
             @Qualifier("redisFlightCache") FlightCache remoteCache) {
+        this(localCache, remoteCache, FlightCacheInvalidationBus.NONE);
+    }
+
+    public FlightCacheService(
+            @Qualifier("inMemoryFlightCache") FlightCache localCache,
+            @Qualifier("redisFlightCache") FlightCache remoteCache,
+            FlightCacheInvalidationBus invalidationBus) {
+        this(localCache, remoteCache, invalidationBus, Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public FlightCacheService(
+            @Qualifier("inMemoryFlightCache") FlightCache localCache,
+            @Qualifier("redisFlightCache") FlightCache remoteCache,
+            FlightCacheInvalidationBus invalidationBus,
+            MeterRegistry meterRegistry) {
         this.localCache = localCache;
         this.remoteCache = remoteCache;
+        this.invalidationBus = invalidationBus;
+
+        for (String result : List.of(L1_HIT, L2_HIT, LOADED, MISS)) {
+            getLatencies.put(result, Timer.builder("flight.cache.get")
+                    .tag("result", result)
+                    .description("Latency of cache reads by the tier that answered")
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+        for (String result : List.of(L1_HIT, L2_HIT, MISS)) {
+            batchResults.put(result, Counter.builder("flight.cache.batch.keys")
+                    .tag("result", result)
+                    .description("Keys requested through getAll, by the tier that answered")
+                    .register(meterRegistry));
+        }
+        this.putLatency = Timer.builder("flight.cache.put")
+                .description("Latency of write-through puts to both tiers")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.backfills = Counter.builder("flight.cache.backfills")
+                .description("Flights copied into L1 after an L2 hit")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("flight.cache.coalesced")
+                .description("Reads that joined a load already in progress instead of starting one")
+                .register(meterRegistry);
+        Gauge.builder("flight.cache.pending.loads", pendingLoads, Map::size)
+                .description("Flights currently being loaded after an L1 miss")
+                .register(meterRegistry);
+
         log.info("FlightCacheService initialized with two-tier caching (local + Redis)");
     }
 
     /**
      * Gets a flight from cache using two-tier strategy:
      * 1. Check local cache (L1) - fastest
-     * 2. If miss, check Redis (L2)
+     * 2. If miss, check Redis (L2), shared with concurrent callers for the same flight
      * 3. If Redis hit, backfill local cache for next request
      * 4. If both miss, return empty
      */
     public Mono<Flight> get(String flightNumber) {
+        return get(flightNumber, key -> Mono.empty());
+    }
+
+    /**
+     * Same as {@link #get(String)}, but on a miss in both tiers calls {@code loader}
+     * and writes what it returns to both tiers.
+     *
+     * Concurrent callers for the same flight join the load already in progress
+     * rather than starting their own, so callers sharing a key should pass equivalent
+     * loaders. The load runs to completion even if the caller that started it
+     * cancels, so the caches are filled for everyone else.
+     */
+    public Mono<Flight> get(String flightNumber, Function<String, Mono<Flight>> loader) {
         if (flightNumber == null) {
             return Mono.empty();
         }
 
-        return localCache.get(flightNumber)
-                .doOnNext(flight -> log.debug("L1 cache HIT for flight {}", flightNumber))
-                .switchIfEmpty(
-                        remoteCache.get(flightNumber)
-                                .doOnNext(flight -> log.debug("L2 cache HIT for flight {} (backfilling L1)", flightNumber))
-                                .flatMap(flight -> localCache.put(flightNumber, flight)
-                                        .doOnError(e -> log.warn("Failed to backfill L1 cache for {}: {}", flightNumber, e.getMessage()))
-                                        .onErrorResume(e -> Mono.empty()) // Don't fail if backfill fails
-                                        .thenReturn(flight))
-                                .switchIfEmpty(Mono.defer(() -> {
-                                    log.debug("Cache MISS (L1 + L2) for flight {}", flightNumber);
-                                    return Mono.empty();
-                                }))
-                );
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return localCache.get(flightNumber)
+                    .doOnNext(flight -> log.debug("L1 cache HIT for flight {}", flightNumber))
+                    .map(flight -> new Lookup(flight, L1_HIT))
+                    .switchIfEmpty(Mono.defer(() -> pendingLoad(flightNumber, loader)))
+                    .doOnSuccess(lookup -> getLatencies.get(lookup != null ? lookup.result() : MISS)
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .map(Lookup::flight);
+        });
+    }
+
+    private Mono<Lookup> pendingLoad(String flightNumber, Function<String, Mono<Flight>> loader) {
+        boolean[] started = {false};
+        Mono<Lookup> pending = pendingLoads.computeIfAbsent(flightNumber, key -> {
+            started[0] = true;
+            return load(key, loader)
+                    .doFinally(signal -> pendingLoads.computeIfPresent(key, (k, load) -> {
+                        staleLoads.remove(k);
+                        return null;
+                    }))
+                    .cache();
+        });
+        if (!started[0]) {
+            coalesced.increment();
+        }
+        return pending;
+    }
+
+    private Mono<Lookup> load(String flightNumber, Function<String, Mono<Flight>> loader) {
+        return remoteCache.get(flightNumber)
+                .doOnNext(flight -> log.debug("L2 cache HIT for flight {} (backfilling L1)", flightNumber))
+                .flatMap(flight -> localCache.put(flightNumber, flight)
+                        .doOnSuccess(v -> backfills.increment())
+                        .then(Mono.defer(() -> dropIfInvalidated(flightNumber)))
+                        .doOnError(e -> log.warn("Failed to backfill L1 cache for {}: {}", flightNumber, e.getMessage()))
+                        .onErrorResume(e -> Mono.empty()) // Don't fail if backfill fails
+                        .thenReturn(new Lookup(flight, L2_HIT)))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.debug("Cache MISS (L1 + L2) for flight {}", flightNumber);
+                    return loader.apply(flightNumber)
+                            .flatMap(flight -> put(flightNumber, flight)
+                                    .onErrorResume(e -> Mono.empty())
+                                    .thenReturn(new Lookup(flight, LOADED)));
+                }));
+    }
+
+    /**
+     * Undoes a backfill whose flight was invalidated while it was being read from L2.
+     * Runs after the put: either the invalidation's eviction comes after the put and
+     * removes it, or its flag is already set and this removes it.
+     */
+    private Mono<Void> dropIfInvalidated(String flightNumber) {
+        if (!staleLoads.contains(flightNumber)) {
+            return Mono.empty();
+        }
+        log.debug("Flight {} changed while loading; not keeping it in L1", flightNumber);
+        return localCache.delete(flightNumber).then();
+    }
+
+    /**
+     * Drops flights from L1 only, for changes reported from outside this node (see
+     * {@link NearCacheSync}). Loads in progress for them are flagged first, so a value
+     * read from L2 before the change isn't left in L1 afterwards.
+     */
+    public Mono<Void> evictLocal(Collection<String> flightNumbers) {
+        for (String flightNumber : flightNumbers) {
+            if (flightNumber != null) {
+                markStale(flightNumber);
+            }
+        }
+        return localCache.deleteAll(flightNumbers).then();
+    }
+
+    /**
+     * Drops every L1 entry, flagging all loads in progress as in {@link #evictLocal}.
+     */
+    public Mono<Void> clearLocal() {
+        pendingLoads.keySet().forEach(this::markStale);
+        return localCache.clear();
+    }
+
+    /**
+     * Flags the flight's load, if one is in progress. Done under the pending entry's lock,
+     * as is clearing the flag when the load ends, so a flag can't outlive its load and
+     * drop the next one's backfill.
+     */
+    private void markStale(String flightNumber) {
+        pendingLoads.computeIfPresent(flightNumber, (key, load) -> {
+            staleLoads.add(key);
+            return load;
+        });
+    }
+
+    /**
+     * Whether put and putAll also write L1. {@link NearCacheSync} turns this off: Redis
+     * broadcast tracking reports this node's own writes too, so an L1 copy written here
+     * would be evicted again as soon as the echo arrives. Reads backfill L1 from L2 instead.
+     */
+    void setLocalWrites(boolean localWrites) {
+        this.localWrites = localWrites;
+    }
+
+    /**
+     * Number of flights currently being loaded after an L1 miss.
+     */
+    public int pendingLoadCount() {
+        return pendingLoads.size();
     }
 
     /**
@@ -71,12 +282,19 @@ public class FlightCacheService {
             return Mono.empty();
         }
 
-        return Mono.when(
-                localCache.put(flightNumber, flight)
-                        .doOnError(e -> log.error("L1 cache PUT failed for {}: {}", flightNumber, e.getMessage())),
-                remoteCache.put(flightNumber, flight)
-                        .doOnError(e -> log.warn("L2 cache PUT failed for {} (L1 still cached): {}", flightNumber, e.getMessage()))
-        ).doOnSuccess(v -> log.debug("Cached flight {} in both L1 and L2", flightNumber));
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.when(
+                    (localWrites ? localCache.put(flightNumber, flight) : Mono.<Void>empty())
+                            .doOnError(e -> log.error("L1 cache PUT failed for {}: {}", flightNumber, e.getMessage())),
+                    remoteCache.put(flightNumber, flight)
+                            .doOnError(e -> log.warn("L2 cache PUT failed for {} (L1 still cached): {}", flightNumber, e.getMessage()))
+            ).doOnSuccess(v -> {
+                putLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                log.debug("Cached flight {} in both L1 and L2", flightNumber);
+                invalidationBus.publish(Set.of(flightNumber));
+            });
+        });
     }
 
     /**
@@ -101,10 +319,93 @@ public class FlightCacheService {
                 log.debug("Deleted flight {} from cache (L1: {}, L2: {})", flightNumber, deletedFromL1, deletedFromL2);
             }
 
+            invalidationBus.publish(Set.of(flightNumber));
             return anyDeleted;
         });
     }
 
+    /**
+     * Gets several flights using the two-tier strategy in one pass:
+     * 1. One L1 lookup for all keys
+     * 2. One L2 lookup for the keys L1 didn't have
+     * 3. One L1 backfill with the L2 hits
+     * Keys missing from both tiers are absent from the result.
+     */
+    public Mono<Map<String, Flight>> getAll(Collection<String> flightNumbers) {
+        if (flightNumbers == null || flightNumbers.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        return localCache.getAll(flightNumbers)
+                .flatMap(localHits -> {
+                    List<String> misses = flightNumbers.stream()
+                            .filter(flightNumber -> flightNumber != null && !localHits.containsKey(flightNumber))
+                            .distinct()
+                            .toList();
+                    batchResults.get(L1_HIT).increment(localHits.size());
+                    if (misses.isEmpty()) {
+                        log.debug("L1 cache HIT for all {} flights", localHits.size());
+                        return Mono.just(localHits);
+                    }
+
+                    return remoteCache.getAll(misses)
+                            .onErrorReturn(Map.of())
+                            .flatMap(remoteHits -> {
+                                log.debug("Cache getAll: {} L1 hits, {} L2 hits, {} misses",
+                                        localHits.size(), remoteHits.size(), misses.size() - remoteHits.size());
+                                batchResults.get(L2_HIT).increment(remoteHits.size());
+                                batchResults.get(MISS).increment(misses.size() - remoteHits.size());
+                                Map<String, Flight> found = new HashMap<>(localHits);
+                                found.putAll(remoteHits);
+                                return localCache.putAll(remoteHits)
+                                        .doOnSuccess(v -> backfills.increment(remoteHits.size()))
+                                        .doOnError(e -> log.warn("Failed to backfill L1 cache with {} flights: {}", remoteHits.size(), e.getMessage()))
+                                        .onErrorResume(e -> Mono.empty()) // Don't fail if backfill fails
+                                        .thenReturn(found);
+                            });
+                });
+    }
+
+    /**
+     * Writes several flights to both cache tiers in parallel, one batch per tier.
+     * Redis write failures are logged but don't fail the operation.
+     */
+    public Mono<Void> putAll(Map<String, Flight> flights) {
+        if (flights == null || flights.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return Mono.when(
+                (localWrites ? localCache.putAll(flights) : Mono.<Void>empty())
+                        .doOnError(e -> log.error("L1 cache PUT failed for {} flights: {}", flights.size(), e.getMessage())),
+                remoteCache.putAll(flights)
+                        .doOnError(e -> log.warn("L2 cache PUT failed for {} flights (L1 still cached): {}", flights.size(), e.getMessage()))
+        ).doOnSuccess(v -> {
+            log.debug("Cached {} flights in both L1 and L2", flights.size());
+            invalidationBus.publish(flights.keySet());
+        });
+    }
+
+    /**
+     * Deletes several flights from both cache tiers.
+     * Returns the larger of the two tiers' delete counts, i.e. a lower bound on how
+     * many of the keys were cached anywhere.
+     */
+    public Mono<Long> deleteAll(Collection<String> flightNumbers) {
+        if (flightNumbers == null || flightNumbers.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        return Mono.zip(
+                localCache.deleteAll(flightNumbers).onErrorReturn(0L),
+                remoteCache.deleteAll(flightNumbers).onErrorReturn(0L)
+        ).map(tuple -> {
+            log.debug("Deleted flights from cache (L1: {}, L2: {})", tuple.getT1(), tuple.getT2());
+            invalidationBus.publish(flightNumbers);
+            return Math.max(tuple.getT1(), tuple.getT2());
+        });
+    }
+
     /**
      * Checks if flight exists in either cache tier.
      * Checks local first for performance.
@@ -138,6 +439,6 @@ public class FlightCacheService {
                     log.error("Failed to clear L2 cache: {}", e.getMessage());
                     return Mono.empty();
                 })
-        );
+        ).doOnSuccess(v -> invalidationBus.publishClear());
     }
 }
@@ -0,0 +1,68 @@
+package com.flighttracker.common.service;
+
+import com.flighttracker.common.cache.FlightCacheInvalidation;
+import com.flighttracker.common.cache.KeyInvalidationSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Keeps the L1 of {@link FlightCacheService} coherent with L2 by applying the key
+ * invalidations L2 reports, e.g. Redis client tracking. With this running, an L1
+ * entry is served until the server says the key changed, and the L1 TTL only bounds
+ * memory use and the damage of a lost connection.
+ * <p>
+ * While running, the service's own writes go to L2 only: the feed reports them back
+ * like any other change, and the next read fills L1 from L2.
+ */
+public class NearCacheSync {
+
+    private static final Logger log = LoggerFactory.getLogger(NearCacheSync.class);
+
+    private final KeyInvalidationSource source;
+    private final FlightCacheService cacheService;
+
+    private Disposable subscription;
+
+    public NearCacheSync(KeyInvalidationSource source, FlightCacheService cacheService) {
+        this.source = source;
+        this.cacheService = cacheService;
+    }
+
+    @PostConstruct
+    public void start() {
+        cacheService.setLocalWrites(false);
+        subscription = source.invalidations()
+                .onBackpressureBuffer() // the source drops messages for slow subscribers
+                .concatMap(this::apply)
+                .doOnError(e -> log.warn("Near-cache invalidation feed failed, resubscribing: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+
+        log.info("Near-cache sync started");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        cacheService.setLocalWrites(true);
+    }
+
+    private Mono<Void> apply(FlightCacheInvalidation invalidation) {
+        log.debug("Applying {}", invalidation);
+        Mono<Void> eviction = invalidation.isAll()
+                ? cacheService.clearLocal()
+                : cacheService.evictLocal(invalidation.getFlightNumbers());
+        return eviction
+                .doOnError(e -> log.warn("Failed to apply {}: {}", invalidation, e.getMessage()))
+                .onErrorResume(e -> Mono.empty());
+    }
+}
@@ -0,0 +1,113 @@
+package com.flighttracker.common.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.common.model.Flight;
+import com.flighttracker.common.model.FlightStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FlightRedisSerializerTest {
+
+    private final FlightRedisSerializer binary = new FlightRedisSerializer(FlightRedisSerializer.Format.BINARY, 0);
+
+    private Flight createFlight() {
+        return new Flight(
+                "id-1",
+                "AA123",
+                "CALL123",
+                "KJFK",
+                "KLAX",
+                "JFK",
+                "Los Ángeles",
+                "10:00",
+                null,
+                "13:00",
+                "13:10",
+                40.12345,
+                -73.98765,
+                10972.8,
+                231.5,
+                FlightStatus.IN_FLIGHT,
+                1_717_000_000_000L
+        );
+    }
+
+    @Test
+    void binary_round_trips_a_flight() {
+        Flight flight = createFlight();
+
+        byte[] bytes = binary.serialize(flight);
+
+        assertThat(binary.deserialize(bytes)).usingRecursiveComparison().isEqualTo(flight);
+        assertThat(bytes.length).isLessThan(new FlightRedisSerializer(FlightRedisSerializer.Format.JSON, 0)
+                .serialize(flight).length / 2);
+    }
+
+    @Test
+    void binary_round_trips_a_sparse_flight() {
+        Flight flight = new Flight();
+        flight.setFlightId("abc123");
+        flight.setLatitude(-33.5);
+        flight.setLongitude(151.25);
+
+        assertThat(binary.deserialize(binary.serialize(flight))).usingRecursiveComparison().isEqualTo(flight);
+    }
+
+    @Test
+    void compressed_values_round_trip() {
+        FlightRedisSerializer compressing = new FlightRedisSerializer(FlightRedisSerializer.Format.BINARY, 1);
+        Flight flight = createFlight();
+        flight.setDepartureAirportName("Airport ".repeat(40));
+
+        byte[] bytes = compressing.serialize(flight);
+
+        assertThat(bytes.length).isLessThan(binary.serialize(flight).length);
+        assertThat(binary.deserialize(bytes)).usingRecursiveComparison().isEqualTo(flight);
+    }
+
+    @Test
+    void rejects_corrupt_compressed_values() {
+        // Plain length 2^32 - 1, which used to wrap to a negative array size
+        byte[] hugeLength = {(byte) 0xC1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 1, 2, 3};
+        byte[] badBlock = {(byte) 0xC1, 100, (byte) 0xF0, 0, 0, 0};
+
+        assertThatThrownBy(() -> binary.deserialize(hugeLength)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> binary.deserialize(badBlock)).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void reads_existing_json_entries() throws Exception {
+        Flight flight = createFlight();
+        // Written by the previous Jackson2JsonRedisSerializer, including derived properties
+        byte[] legacy = new ObjectMapper().writeValueAsBytes(flight);
+
+        assertThat(binary.deserialize(legacy)).usingRecursiveComparison().isEqualTo(flight);
+    }
+
+    @Test
+    void json_format_writes_json() {
+        FlightRedisSerializer json = new FlightRedisSerializer(FlightRedisSerializer.Format.JSON, 0);
+
+        byte[] bytes = json.serialize(createFlight());
+
+        assertThat(bytes[0]).isEqualTo((byte) '{');
+        assertThat(binary.deserialize(bytes)).usingRecursiveComparison().isEqualTo(createFlight());
+    }
+
+    @Test
+    void handles_null_and_rejects_corrupt_values() {
+        assertThat(binary.serialize(null)).isEmpty();
+        assertThat(binary.deserialize(null)).isNull();
+        assertThat(binary.deserialize(new byte[0])).isNull();
+
+        byte[] truncated = Arrays.copyOf(binary.serialize(createFlight()), 10);
+        assertThatThrownBy(() -> binary.deserialize(truncated)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> binary.deserialize(new byte[]{0x7F})).isInstanceOf(SerializationException.class);
+    }
+}
@@ -2,10 +2,19 @@ package com.flighttracker.common.cache;
 
 import com.flighttracker.common.model.Flight;
 import com.flighttracker.common.model.FlightStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class InMemoryFlightCacheTest {
@@ -87,4 +96,129 @@ public class InMemoryFlightCacheTest {
 
         assertThat(cache.getStats().size()).isZero();
     }
+
+    @Test
+    void getAll_returns_only_cached_entries() {
+        Flight flight = createFlight();
+        cache.put("A", flight).block();
+
+        StepVerifier.create(cache.getAll(List.of("A", "MISSING")))
+                .assertNext(found -> assertThat(found).containsOnlyKeys("A"))
+                .verifyComplete();
+    }
+
+    @Test
+    void putAll_stores_every_entry() {
+        Flight flight = createFlight();
+
+        StepVerifier.create(cache.putAll(Map.of("A", flight, "B", flight))).verifyComplete();
+
+        StepVerifier.create(cache.getAll(List.of("A", "B")))
+                .assertNext(found -> assertThat(found).containsOnlyKeys("A", "B"))
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteAll_returns_number_of_entries_that_existed() {
+        Flight flight = createFlight();
+        cache.putAll(Map.of("A", flight, "B", flight)).block();
+
+        StepVerifier.create(cache.deleteAll(List.of("A", "B", "MISSING"))).expectNext(2L).verifyComplete();
+
+        StepVerifier.create(cache.exists("A")).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void refresh_serves_old_value_and_reloads_in_background() {
+        AtomicLong nanos = new AtomicLong();
+        AtomicInteger reloads = new AtomicInteger();
+        List<Runnable> background = new ArrayList<>();
+        Flight fresh = createFlight();
+        fresh.setAltitude(12000);
+        InMemoryFlightCache refreshing = new InMemoryFlightCache(100, Duration.ofMinutes(10),
+                Duration.ofMinutes(8), Duration.ofMinutes(2),
+                key -> Mono.fromSupplier(() -> {
+                    reloads.incrementAndGet();
+                    return fresh;
+                }),
+                nanos::get, background::add);
+        Flight flight = createFlight();
+        refreshing.put("AA123", flight).block();
+
+        nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+        StepVerifier.create(refreshing.get("AA123")).expectNext(flight).verifyComplete();
+        assertThat(reloads).hasValue(0);
+
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos()); // past refreshAfter and ttl, inside the stale window
+        StepVerifier.create(refreshing.get("AA123"))
+                .assertNext(served -> assertThat(served.getAltitude()).isEqualTo(flight.getAltitude()))
+                .verifyComplete();
+        assertThat(reloads).hasValue(0);
+
+        while (!background.isEmpty()) {
+            background.remove(0).run();
+        }
+        assertThat(reloads).hasValue(1);
+        StepVerifier.create(refreshing.get("AA123"))
+                .assertNext(served -> assertThat(served.getAltitude()).isEqualTo(12000))
+                .verifyComplete();
+    }
+
+    @Test
+    void refresh_removes_entry_the_source_no_longer_has() {
+        AtomicLong nanos = new AtomicLong();
+        InMemoryFlightCache refreshing = new InMemoryFlightCache(100, Duration.ofMinutes(10),
+                Duration.ofMinutes(8), Duration.ofMinutes(2), key -> Mono.empty(), nanos::get, Runnable::run);
+        refreshing.put("AA123", createFlight()).block();
+
+        nanos.addAndGet(Duration.ofMinutes(9).toNanos());
+        refreshing.get("AA123").block();
+
+        StepVerifier.create(refreshing.exists("AA123")).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void refresh_keeps_entry_when_the_source_fails() {
+        AtomicLong nanos = new AtomicLong();
+        InMemoryFlightCache refreshing = new InMemoryFlightCache(100, Duration.ofMinutes(10),
+                Duration.ofMinutes(8), Duration.ofMinutes(2),
+                key -> Mono.error(new IllegalStateException("Redis unavailable")), nanos::get, Runnable::run);
+        Flight flight = createFlight();
+        refreshing.put("AA123", flight).block();
+
+        nanos.addAndGet(Duration.ofMinutes(9).toNanos());
+        refreshing.get("AA123").block();
+
+        StepVerifier.create(refreshing.get("AA123")).expectNext(flight).verifyComplete();
+    }
+
+    @Test
+    void entries_expire_after_ttl_plus_stale_window() {
+        AtomicLong nanos = new AtomicLong();
+        InMemoryFlightCache refreshing = new InMemoryFlightCache(100, Duration.ofMinutes(10),
+                Duration.ofMinutes(8), Duration.ofMinutes(2), key -> Mono.never(), nanos::get, Runnable::run);
+        refreshing.put("AA123", createFlight()).block();
+
+        nanos.addAndGet(Duration.ofMinutes(12).plusSeconds(1).toNanos());
+
+        StepVerifier.create(refreshing.get("AA123")).verifyComplete();
+    }
+
+    @Test
+    void bindMetrics_reports_evictions_by_cause() {
+        AtomicLong nanos = new AtomicLong();
+        InMemoryFlightCache expiring = new InMemoryFlightCache(100, Duration.ofMinutes(10),
+                Duration.ZERO, Duration.ZERO, null, nanos::get, Runnable::run);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        expiring.bindMetrics(registry, "l1");
+        expiring.put("AA123", createFlight()).block();
+
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+        expiring.get("AA123").block();
+
+        assertThat(registry.get("flight.cache.evictions").tag("cause", "expired").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "l1").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+    }
 }
@@ -0,0 +1,78 @@
+package com.flighttracker.common.cache;
+
+import com.flighttracker.common.model.Flight;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RedisFlightCacheInvalidationBusTest {
+
+    private InMemoryFlightCache localCache;
+    private InMemoryFlightCache remoteCache;
+
+    @BeforeEach
+    void setUp() {
+        localCache = new InMemoryFlightCache(100, 10);
+        remoteCache = new InMemoryFlightCache(100, 10);
+    }
+
+    // apply() doesn't touch Redis, so no template is needed
+    private RedisFlightCacheInvalidationBus bus(RedisFlightCacheInvalidationBus.Mode mode) {
+        return new RedisFlightCacheInvalidationBus(null, localCache, remoteCache, mode, Duration.ofMillis(50), 500);
+    }
+
+    private Flight createFlight(String flightNumber, double altitude) {
+        Flight flight = new Flight();
+        flight.setFlightId("id-" + flightNumber);
+        flight.setFlightNumber(flightNumber);
+        flight.setAltitude(altitude);
+        return flight;
+    }
+
+    @Test
+    void evict_drops_invalidated_entries() {
+        localCache.put("AA1", createFlight("AA1", 1000)).block();
+        localCache.put("AA2", createFlight("AA2", 1000)).block();
+
+        StepVerifier.create(bus(RedisFlightCacheInvalidationBus.Mode.EVICT)
+                        .apply(new FlightCacheInvalidation("other", false, List.of("AA1"))))
+                .verifyComplete();
+
+        StepVerifier.create(localCache.exists("AA1")).expectNext(false).verifyComplete();
+        StepVerifier.create(localCache.exists("AA2")).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    void refresh_reloads_held_entries_from_l2() {
+        localCache.put("AA1", createFlight("AA1", 1000)).block();
+        localCache.put("AA2", createFlight("AA2", 1000)).block();
+        remoteCache.put("AA1", createFlight("AA1", 2000)).block();
+        remoteCache.put("AA3", createFlight("AA3", 2000)).block();
+
+        StepVerifier.create(bus(RedisFlightCacheInvalidationBus.Mode.REFRESH)
+                        .apply(new FlightCacheInvalidation("other", false, List.of("AA1", "AA2", "AA3"))))
+                .verifyComplete();
+
+        StepVerifier.create(localCache.get("AA1"))
+                .assertNext(flight -> assertThat(flight.getAltitude()).isEqualTo(2000))
+                .verifyComplete();
+        StepVerifier.create(localCache.exists("AA2")).expectNext(false).verifyComplete(); // gone from L2
+        StepVerifier.create(localCache.exists("AA3")).expectNext(false).verifyComplete(); // never held here
+    }
+
+    @Test
+    void clear_message_empties_l1() {
+        localCache.put("AA1", createFlight("AA1", 1000)).block();
+
+        StepVerifier.create(bus(RedisFlightCacheInvalidationBus.Mode.REFRESH)
+                        .apply(new FlightCacheInvalidation("other", true, List.of())))
+                .verifyComplete();
+
+        StepVerifier.create(localCache.exists("AA1")).expectNext(false).verifyComplete();
+    }
+}
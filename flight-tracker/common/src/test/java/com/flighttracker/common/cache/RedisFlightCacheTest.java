@@ -1,12 +1,264 @@
 package com.flighttracker.common.cache;
 
+import com.flighttracker.common.model.Flight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.PublisherProbe;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the cache against a mocked template, checking which commands reach Redis and
+ * how their failures are answered.
+ */
 public class RedisFlightCacheTest {
 
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private ReactiveRedisTemplate<String, Flight> template;
+    private ReactiveValueOperations<String, Flight> valueOps;
+    private SimpleMeterRegistry registry;
+    private RedisFlightCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        template = mock(ReactiveRedisTemplate.class);
+        valueOps = mock(ReactiveValueOperations.class);
+        when(template.opsForValue()).thenReturn(valueOps);
+        registry = new SimpleMeterRegistry();
+        cache = new RedisFlightCache(template, 10, 1, 1000, 2, registry);
+    }
+
+    private static Flight flight(String flightNumber) {
+        Flight flight = new Flight();
+        flight.setFlightId("id-" + flightNumber);
+        flight.setFlightNumber(flightNumber);
+        return flight;
+    }
+
+    private static Flux<String> keys(int count) {
+        return Flux.range(0, count).map(i -> "flight:AA" + i);
+    }
+
+    private double errors(String type) {
+        return registry.get("flight.cache.redis.errors").tag("type", type).counter().count();
+    }
+
+    @Test
+    void get_all_maps_mget_answers_by_position_and_skips_missing_keys() {
+        Flight aa1 = flight("AA1");
+        Flight aa3 = flight("AA3");
+        when(valueOps.multiGet(List.of("flight:AA1", "flight:AA2", "flight:AA3")))
+                .thenReturn(Mono.just(Arrays.asList(aa1, null, aa3)));
+
+        StepVerifier.create(cache.getAll(Arrays.asList("AA1", "AA2", null, "AA1", "AA3")))
+                .assertNext(found -> assertThat(found).containsOnly(Map.entry("AA1", aa1), Map.entry("AA3", aa3)))
+                .verifyComplete();
+
+        verify(valueOps, times(1)).multiGet(anyList());
+    }
+
     @Test
-    void testSomething() {
-        // TODO: finish this test
+    void put_all_issues_sets_without_waiting_for_each_reply() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<String> written = new ArrayList<>();
+        when(valueOps.set(anyString(), any(Flight.class), eq(TTL))).thenAnswer(call -> {
+            synchronized (written) {
+                written.add(call.getArgument(0));
+            }
+            return Mono.defer(() -> {
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        return Mono.delay(Duration.ofMillis(5)).thenReturn(true);
+                    })
+                    .doOnTerminate(inFlight::decrementAndGet);
+        });
+
+        Map<String, Flight> flights = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            flights.put("AA" + i, flight("AA" + i));
+        }
+        flights.put("NULL", null);
+
+        StepVerifier.create(cache.putAll(flights)).verifyComplete();
+
+        assertThat(written).hasSize(1000).contains("flight:AA0", "flight:AA999");
+        // Pipelined, but with a bounded number of replies outstanding
+        assertThat(maxInFlight.get()).isGreaterThan(1).isLessThanOrEqualTo(256);
+    }
+
+    @Test
+    void delete_all_sends_one_multi_key_del() {
+        List<Object[]> calls = new ArrayList<>();
+        when(template.delete(any(String[].class))).thenAnswer(call -> {
+            calls.add(call.getArguments());
+            return Mono.just(2L);
+        });
+
+        StepVerifier.create(cache.deleteAll(Arrays.asList("AA1", null, "AA2")))
+                .expectNext(2L)
+                .verifyComplete();
+
+        assertThat(calls).hasSize(1);
+        assertThat(calls.get(0)).containsExactly("flight:AA1", "flight:AA2");
+    }
+
+    @Test
+    void connection_failures_are_answered_as_misses() {
+        RedisConnectionFailureException down = new RedisConnectionFailureException("down");
+        when(valueOps.get(anyString())).thenReturn(Mono.error(down));
+        when(valueOps.multiGet(anyList())).thenReturn(Mono.error(down));
+        when(valueOps.set(anyString(), any(Flight.class), eq(TTL))).thenReturn(Mono.error(down));
+        when(template.delete(any(String[].class))).thenReturn(Mono.error(down));
+        when(template.hasKey(anyString())).thenReturn(Mono.error(down));
+
+        StepVerifier.create(cache.get("AA1")).verifyComplete();
+        StepVerifier.create(cache.getAll(List.of("AA1", "AA2"))).expectNext(Map.of()).verifyComplete();
+        StepVerifier.create(cache.put("AA1", flight("AA1"))).verifyComplete();
+        StepVerifier.create(cache.putAll(Map.of("AA1", flight("AA1")))).verifyComplete();
+        StepVerifier.create(cache.delete("AA1")).expectNext(false).verifyComplete();
+        StepVerifier.create(cache.deleteAll(List.of("AA1", "AA2"))).expectNext(0L).verifyComplete();
+        StepVerifier.create(cache.exists("AA1")).expectNext(false).verifyComplete();
+
+        assertThat(errors("connection")).isEqualTo(7);
+    }
+
+    @Test
+    void timeouts_are_answered_as_misses() {
+        when(valueOps.get(anyString())).thenReturn(Mono.never());
+
+        StepVerifier.withVirtualTime(() -> cache.get("AA1"))
+                .thenAwait(Duration.ofSeconds(1))
+                .verifyComplete();
+
+        assertThat(errors("timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void load_passes_redis_errors_through() {
+        when(valueOps.get(anyString())).thenReturn(Mono.error(new RedisConnectionFailureException("down")));
+
+        StepVerifier.create(cache.load("AA1"))
+                .verifyError(RedisConnectionFailureException.class);
+    }
+
+    @Test
+    void other_errors_are_not_swallowed() {
+        when(valueOps.get(anyString())).thenReturn(Mono.error(new IllegalStateException("bad value")));
+
+        StepVerifier.create(cache.get("AA1")).verifyError(IllegalStateException.class);
+
+        assertThat(errors("other")).isEqualTo(1);
+    }
+
+    @Test
+    void clear_scans_for_flight_keys_and_unlinks_them_page_by_page() {
+        List<ScanOptions> scans = new ArrayList<>();
+        when(template.scan(any(ScanOptions.class))).thenAnswer(call -> {
+            scans.add(call.getArgument(0));
+            return keys(2500);
+        });
+        List<Integer> batches = new ArrayList<>();
+        when(template.unlink(any(String[].class))).thenAnswer(call -> {
+            batches.add(call.getArguments().length);
+            return Mono.just((long) call.getArguments().length);
+        });
+
+        StepVerifier.create(cache.clearInBatches())
+                .expectNext(1000L, 2000L, 2500L)
+                .verifyComplete();
+
+        assertThat(scans).hasSize(1);
+        assertThat(scans.get(0).getPattern()).isEqualTo("flight:*");
+        assertThat(scans.get(0).getCount()).isEqualTo(1000L);
+        assertThat(batches).containsExactly(1000, 1000, 500);
+        verify(template, never()).delete(any(String[].class));
+    }
+
+    @Test
+    void clear_totals_what_redis_actually_removed() {
+        when(template.scan(any(ScanOptions.class))).thenReturn(keys(2000));
+        // Keys that expired between SCAN and UNLINK aren't counted
+        when(template.unlink(any(String[].class))).thenReturn(Mono.just(900L), Mono.just(1000L));
+
+        StepVerifier.create(cache.clearInBatches())
+                .expectNext(900L, 1900L)
+                .verifyComplete();
+    }
+
+    @Test
+    void clear_keeps_at_most_the_configured_batches_in_flight() {
+        when(template.scan(any(ScanOptions.class))).thenReturn(keys(10_000));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(template.unlink(any(String[].class))).thenAnswer(call -> Mono.defer(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return Mono.delay(Duration.ofMillis(5)).thenReturn(1000L);
+                })
+                .doOnTerminate(inFlight::decrementAndGet));
+
+        StepVerifier.create(cache.clearInBatches().last())
+                .expectNext(10_000L)
+                .verifyComplete();
+
+        assertThat(maxInFlight.get()).isEqualTo(2);
+    }
+
+    @Test
+    void cancelling_a_clear_stops_issuing_unlinks() {
+        AtomicInteger scanned = new AtomicInteger();
+        when(template.scan(any(ScanOptions.class)))
+                .thenReturn(keys(10_000).doOnNext(key -> scanned.incrementAndGet()));
+        PublisherProbe<Long> stuck = PublisherProbe.of(Mono.never());
+        AtomicInteger unlinks = new AtomicInteger();
+        when(template.unlink(any(String[].class))).thenAnswer(call -> unlinks.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(10)).thenReturn(1000L)
+                : stuck.mono());
+
+        StepVerifier.create(cache.clearInBatches())
+                .expectNext(1000L)
+                .thenCancel()
+                .verify();
+
+        // The batch still in flight is abandoned and no further pages are unlinked
+        stuck.assertWasCancelled();
+        assertThat(unlinks.get()).isLessThanOrEqualTo(3);
+        // SCAN is only pulled as far as the batches it can feed
+        assertThat(scanned.get()).isLessThan(10_000);
+    }
+
+    @Test
+    void clear_completes_when_there_is_nothing_to_remove() {
+        when(template.scan(any(ScanOptions.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(cache.clear()).verifyComplete();
 
+        verify(template, never()).unlink(any(String[].class));
     }
 }
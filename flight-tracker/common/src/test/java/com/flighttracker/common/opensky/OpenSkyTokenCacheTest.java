@@ -0,0 +1,114 @@
+package com.flighttracker.common.opensky;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class OpenSkyTokenCacheTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final MutableClock clock = new MutableClock();
+
+    private Mono<Map<?, ?>> tokenRequest(long expiresIn) {
+        return Mono.fromCallable(() -> Map.of(
+                "access_token", "token-" + requests.incrementAndGet(),
+                "expires_in", expiresIn));
+    }
+
+    @Test
+    void cached_token_is_reused_until_refresh_is_due() {
+        OpenSkyTokenCache cache = new OpenSkyTokenCache(tokenRequest(1800), e -> true, clock);
+
+        StepVerifier.create(cache.getToken()).expectNext("token-1").verifyComplete();
+        clock.advance(Duration.ofMinutes(20));
+        StepVerifier.create(cache.getToken()).expectNext("token-1").verifyComplete();
+
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void concurrent_callers_share_one_request() {
+        Mono<Map<?, ?>> slow = tokenRequest(1800).delayElement(Duration.ofMillis(50));
+        OpenSkyTokenCache cache = new OpenSkyTokenCache(slow, e -> true, clock);
+
+        StepVerifier.create(Mono.zip(cache.getToken(), cache.getToken(), cache.getToken()))
+                .expectNextMatches(tokens -> tokens.getT1().equals("token-1")
+                        && tokens.getT2().equals("token-1")
+                        && tokens.getT3().equals("token-1"))
+                .verifyComplete();
+
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void token_past_its_refresh_point_is_served_while_the_next_is_fetched() {
+        OpenSkyTokenCache cache = new OpenSkyTokenCache(tokenRequest(1800), e -> true, clock);
+        cache.getToken().block();
+
+        clock.advance(Duration.ofMinutes(26));
+        StepVerifier.create(cache.getToken()).expectNext("token-1").verifyComplete();
+        StepVerifier.create(cache.getToken()).expectNext("token-2").verifyComplete();
+    }
+
+    @Test
+    void expired_token_waits_for_a_new_one() {
+        OpenSkyTokenCache cache = new OpenSkyTokenCache(tokenRequest(60), e -> true, clock);
+        cache.getToken().block();
+
+        clock.advance(Duration.ofMinutes(2));
+        StepVerifier.create(cache.getToken()).expectNext("token-2").verifyComplete();
+    }
+
+    @Test
+    void non_retryable_failure_is_not_retried() {
+        Mono<Map<?, ?>> rejected = Mono.defer(() -> {
+            requests.incrementAndGet();
+            return Mono.error(new IllegalArgumentException("401 Unauthorized"));
+        });
+        OpenSkyTokenCache cache = new OpenSkyTokenCache(rejected, e -> false, clock);
+
+        StepVerifier.create(cache.getToken()).expectError(IllegalArgumentException.class).verify();
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void response_without_a_token_is_an_error() {
+        OpenSkyTokenCache cache = new OpenSkyTokenCache(Mono.just(Map.of("error", "invalid_client")), e -> false, clock);
+
+        StepVerifier.create(cache.getToken()).expectError(IllegalStateException.class).verify();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-05-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,4 +1,182 @@
 package com.flighttracker.common.service;
 
+import com.flighttracker.common.cache.FlightCacheInvalidationBus;
+import com.flighttracker.common.cache.InMemoryFlightCache;
+import com.flighttracker.common.model.Flight;
+import com.flighttracker.common.model.FlightStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 public class FlightCacheServiceTest {
+
+    private InMemoryFlightCache localCache;
+    private InMemoryFlightCache remoteCache;
+    private FlightCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        localCache = new InMemoryFlightCache(100, 10);
+        remoteCache = new InMemoryFlightCache(100, 10);
+        service = new FlightCacheService(localCache, remoteCache);
+    }
+
+    private Flight createFlight(String flightNumber) {
+        Flight flight = new Flight();
+        flight.setFlightId("id-" + flightNumber);
+        flight.setFlightNumber(flightNumber);
+        flight.setStatus(FlightStatus.IN_FLIGHT);
+        return flight;
+    }
+
+    @Test
+    void getAll_combines_l1_and_l2_hits_and_backfills_l1() {
+        localCache.put("AA1", createFlight("AA1")).block();
+        remoteCache.put("AA2", createFlight("AA2")).block();
+
+        StepVerifier.create(service.getAll(List.of("AA1", "AA2", "AA3")))
+                .assertNext(found -> assertThat(found).containsOnlyKeys("AA1", "AA2"))
+                .verifyComplete();
+
+        StepVerifier.create(localCache.exists("AA2")).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    void getAll_skips_l2_when_l1_has_every_key() {
+        localCache.put("AA1", createFlight("AA1")).block();
+        remoteCache.put("AA1", createFlight("OTHER")).block();
+
+        StepVerifier.create(service.getAll(List.of("AA1")))
+                .assertNext(found -> assertThat(found.get("AA1").getFlightNumber()).isEqualTo("AA1"))
+                .verifyComplete();
+    }
+
+    @Test
+    void putAll_writes_both_tiers() {
+        StepVerifier.create(service.putAll(Map.of("AA1", createFlight("AA1"), "AA2", createFlight("AA2"))))
+                .verifyComplete();
+
+        StepVerifier.create(localCache.getAll(List.of("AA1", "AA2")))
+                .assertNext(found -> assertThat(found).hasSize(2))
+                .verifyComplete();
+        StepVerifier.create(remoteCache.getAll(List.of("AA1", "AA2")))
+                .assertNext(found -> assertThat(found).hasSize(2))
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteAll_removes_from_both_tiers() {
+        service.putAll(Map.of("AA1", createFlight("AA1"), "AA2", createFlight("AA2"))).block();
+
+        StepVerifier.create(service.deleteAll(List.of("AA1", "AA2"))).expectNext(2L).verifyComplete();
+
+        StepVerifier.create(service.exists("AA1")).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void get_coalesces_concurrent_misses_into_one_load() {
+        AtomicInteger loads = new AtomicInteger();
+        Mono<Flight> slowSource = Mono.fromCallable(() -> {
+            loads.incrementAndGet();
+            return createFlight("AA1");
+        }).delayElement(Duration.ofMillis(100));
+
+        StepVerifier.create(Flux.range(0, 20).flatMap(i -> service.get("AA1", key -> slowSource)).collectList())
+                .assertNext(flights -> assertThat(flights).hasSize(20))
+                .verifyComplete();
+
+        assertThat(loads).hasValue(1);
+        assertThat(service.pendingLoadCount()).isZero();
+        StepVerifier.create(remoteCache.exists("AA1")).expectNext(true).verifyComplete();
+        StepVerifier.create(localCache.exists("AA1")).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    void get_finishes_shared_load_when_first_caller_cancels() {
+        AtomicInteger loads = new AtomicInteger();
+        Mono<Flight> slowSource = Mono.fromCallable(() -> {
+            loads.incrementAndGet();
+            return createFlight("AA1");
+        }).delayElement(Duration.ofMillis(100));
+
+        StepVerifier.create(service.get("AA1", key -> slowSource))
+                .thenAwait(Duration.ofMillis(10))
+                .thenCancel()
+                .verify();
+        StepVerifier.create(service.get("AA1", key -> slowSource))
+                .assertNext(flight -> assertThat(flight.getFlightNumber()).isEqualTo("AA1"))
+                .verifyComplete();
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_starts_a_new_load_after_a_miss_completes() {
+        AtomicInteger loads = new AtomicInteger();
+
+        StepVerifier.create(service.get("AA1", key -> Mono.fromRunnable(loads::incrementAndGet))).verifyComplete();
+        StepVerifier.create(service.get("AA1", key -> Mono.fromRunnable(loads::incrementAndGet))).verifyComplete();
+
+        assertThat(loads).hasValue(2);
+        assertThat(service.pendingLoadCount()).isZero();
+    }
+
+    @Test
+    void writes_and_deletes_are_published_to_the_invalidation_bus() {
+        List<String> published = new ArrayList<>();
+        List<Boolean> clears = new ArrayList<>();
+        FlightCacheInvalidationBus bus = new FlightCacheInvalidationBus() {
+            @Override
+            public void publish(Collection<String> flightNumbers) {
+                published.addAll(flightNumbers);
+            }
+
+            @Override
+            public void publishClear() {
+                clears.add(true);
+            }
+        };
+        service = new FlightCacheService(localCache, remoteCache, bus);
+
+        service.put("AA1", createFlight("AA1")).block();
+        service.putAll(Map.of("AA2", createFlight("AA2"))).block();
+        service.delete("AA1").block();
+        service.deleteAll(List.of("AA2")).block();
+        service.clear().block();
+
+        assertThat(published).containsExactly("AA1", "AA2", "AA1", "AA2");
+        assertThat(clears).hasSize(1);
+    }
+
+    @Test
+    void reads_are_timed_by_the_tier_that_answered() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service = new FlightCacheService(localCache, remoteCache, FlightCacheInvalidationBus.NONE, registry);
+        localCache.put("AA1", createFlight("AA1")).block();
+        remoteCache.put("AA2", createFlight("AA2")).block();
+
+        service.get("AA1").block();
+        service.get("AA2").block();
+        service.get("AA3").block();
+        service.get("AA4", key -> Mono.just(createFlight(key))).block();
+
+        assertThat(registry.get("flight.cache.get").tag("result", "l1_hit").timer().count()).isEqualTo(1);
+        assertThat(registry.get("flight.cache.get").tag("result", "l2_hit").timer().count()).isEqualTo(1);
+        assertThat(registry.get("flight.cache.get").tag("result", "miss").timer().count()).isEqualTo(1);
+        assertThat(registry.get("flight.cache.get").tag("result", "loaded").timer().count()).isEqualTo(1);
+        assertThat(registry.get("flight.cache.backfills").counter().count()).isEqualTo(1);
+        assertThat(registry.get("flight.cache.put").timer().count()).isEqualTo(1);
+    }
 }
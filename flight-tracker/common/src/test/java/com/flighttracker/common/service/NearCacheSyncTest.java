@@ -0,0 +1,140 @@
+package com.flighttracker.common.service;
+
+import com.flighttracker.common.cache.InMemoryFlightCache;
+import com.flighttracker.common.cache.TrackingInMemoryFlightCache;
+import com.flighttracker.common.model.Flight;
+import com.flighttracker.common.model.FlightStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NearCacheSyncTest {
+
+    private TrackingInMemoryFlightCache remoteCache;
+    private InMemoryFlightCache localCache;
+    private FlightCacheService service;
+    private NearCacheSync sync;
+
+    @BeforeEach
+    void setUp() {
+        remoteCache = new TrackingInMemoryFlightCache(new InMemoryFlightCache(100, 10));
+        localCache = new InMemoryFlightCache(100, 10);
+        service = new FlightCacheService(localCache, remoteCache);
+        sync = new NearCacheSync(remoteCache, service);
+        sync.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sync.stop();
+    }
+
+    private Flight createFlight(String flightNumber, double altitude) {
+        Flight flight = new Flight();
+        flight.setFlightId("id-" + flightNumber);
+        flight.setFlightNumber(flightNumber);
+        flight.setAltitude(altitude);
+        flight.setStatus(FlightStatus.IN_FLIGHT);
+        return flight;
+    }
+
+    @Test
+    void write_from_another_node_evicts_this_nodes_l1() {
+        FlightCacheService otherNode = new FlightCacheService(new InMemoryFlightCache(100, 10), remoteCache);
+        service.put("AA1", createFlight("AA1", 1000)).block();
+        service.get("AA1").block();
+
+        otherNode.put("AA1", createFlight("AA1", 2000)).block();
+
+        StepVerifier.create(localCache.exists("AA1")).expectNext(false).verifyComplete();
+        StepVerifier.create(service.get("AA1"))
+                .assertNext(flight -> assertThat(flight.getAltitude()).isEqualTo(2000))
+                .verifyComplete();
+    }
+
+    @Test
+    void own_writes_go_to_l2_only_and_reads_fill_l1() {
+        service.put("AA1", createFlight("AA1", 1000)).block();
+
+        StepVerifier.create(localCache.exists("AA1")).expectNext(false).verifyComplete();
+        StepVerifier.create(service.get("AA1"))
+                .assertNext(flight -> assertThat(flight.getAltitude()).isEqualTo(1000))
+                .verifyComplete();
+        StepVerifier.create(localCache.exists("AA1")).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    void clear_of_l2_clears_l1() {
+        service.putAll(Map.of("AA1", createFlight("AA1", 1000), "AA2", createFlight("AA2", 1000))).block();
+        service.getAll(List.of("AA1", "AA2")).block();
+
+        remoteCache.clear().block();
+
+        StepVerifier.create(localCache.getAll(List.of("AA1", "AA2")))
+                .assertNext(found -> assertThat(found).isEmpty())
+                .verifyComplete();
+    }
+
+    @Test
+    void invalidation_during_a_load_keeps_the_loaded_value_out_of_l1() {
+        Sinks.One<Flight> slowRead = Sinks.one();
+        InMemoryFlightCache slowRemote = new InMemoryFlightCache(100, 10) {
+            @Override
+            public Mono<Flight> get(String flightNumber) {
+                return slowRead.asMono();
+            }
+        };
+        service = new FlightCacheService(localCache, slowRemote);
+
+        StepVerifier.create(service.get("AA1"))
+                .then(() -> {
+                    // The key changes in L2 after the read was answered but before L1 is filled
+                    service.evictLocal(List.of("AA1")).block();
+                    slowRead.tryEmitValue(createFlight("AA1", 1000));
+                })
+                .assertNext(flight -> assertThat(flight.getFlightNumber()).isEqualTo("AA1"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        StepVerifier.create(localCache.exists("AA1")).expectNext(false).verifyComplete();
+        assertThat(service.pendingLoadCount()).isZero();
+    }
+
+    @Test
+    void invalidation_flags_end_with_their_load() {
+        Sinks.One<Flight> slowRead = Sinks.one();
+        AtomicBoolean slow = new AtomicBoolean(true);
+        InMemoryFlightCache slowRemote = new InMemoryFlightCache(100, 10) {
+            @Override
+            public Mono<Flight> get(String flightNumber) {
+                return slow.get() ? slowRead.asMono() : Mono.just(createFlight(flightNumber, 2000));
+            }
+        };
+        service = new FlightCacheService(localCache, slowRemote);
+
+        StepVerifier.create(service.get("AA1"))
+                .then(() -> {
+                    service.evictLocal(List.of("AA1")).block();
+                    slowRead.tryEmitValue(createFlight("AA1", 1000));
+                })
+                .expectNextCount(1)
+                .verifyComplete();
+        // Nothing is loading now, so this eviction has no load to flag
+        service.evictLocal(List.of("AA1")).block();
+        slow.set(false);
+
+        StepVerifier.create(service.get("AA1")).expectNextCount(1).verifyComplete();
+
+        StepVerifier.create(localCache.exists("AA1")).expectNext(true).verifyComplete();
+    }
+}
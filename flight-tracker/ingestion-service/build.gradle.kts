@@ -1,3 +1,18 @@
 dependencies {
     implementation(project(":common"))
+
+    // WebClient for streaming the OpenSky response
+    implementation("org.springframework.boot:spring-boot-starter-webflux")
+
+    // Snapshot hash and event channel
+    implementation("org.springframework.boot:spring-boot-starter-data-redis-reactive")
+
+    // Health endpoints for the Docker HEALTHCHECK and k8s probes
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.1")
+    testImplementation("io.projectreactor:reactor-test:3.6.1")
+    testImplementation("org.assertj:assertj-core:3.24.2")
+    testImplementation("org.mockito:mockito-core:5.7.0")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
@@ -0,0 +1,16 @@
+package com.flighttracker.ingestion;
+
+import com.flighttracker.common.FlightEvent;
+import reactor.core.publisher.Mono;
+
+/**
+ * Destination for fleet changes produced by the poller.
+ */
+public interface FleetPublisher {
+
+    /**
+     * Applies the event to the shared snapshot and notifies consumers.
+     * Completes once both are done; errors if either fails.
+     */
+    Mono<Void> publish(FlightEvent event);
+}
@@ -0,0 +1,100 @@
+package com.flighttracker.ingestion;
+
+import com.flighttracker.common.FlightEvent;
+import com.flighttracker.common.model.Flight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compares each poll with the previous one and reports what changed.
+ *
+ * Numeric fields are compared after quantization, so sub-threshold jitter in
+ * position, altitude or speed doesn't count as a change. The first poll, and the
+ * first poll after {@link #reset()}, produce a full event carrying the whole fleet.
+ *
+ * Not thread-safe; the poller calls it from its single poll loop.
+ */
+@Component
+public class FlightChangeDetector {
+
+    private final double positionQuantum;
+    private final double altitudeQuantum;
+    private final double speedQuantum;
+
+    private Map<String, Flight> previous = Map.of();
+    private boolean full = true;
+
+    public FlightChangeDetector(
+            @Value("${ingestion.change.position-degrees:0.0001}") double positionQuantum,
+            @Value("${ingestion.change.altitude-meters:10}") double altitudeQuantum,
+            @Value("${ingestion.change.speed-mps:0.5}") double speedQuantum) {
+        this.positionQuantum = positionQuantum;
+        this.altitudeQuantum = altitudeQuantum;
+        this.speedQuantum = speedQuantum;
+    }
+
+    /**
+     * Returns the changes since the last call. The sequence number is left at 0;
+     * the publisher assigns it.
+     */
+    public FlightEvent detect(List<Flight> flights, long fetchedAt) {
+        Map<String, Flight> current = new HashMap<>(Math.max(16, flights.size() * 4 / 3 + 1));
+        List<Flight> upserted = new ArrayList<>();
+
+        for (Flight flight : flights) {
+            // First occurrence wins if upstream repeats an icao24
+            if (current.putIfAbsent(flight.getFlightId(), flight) != null) {
+                continue;
+            }
+            Flight before = previous.get(flight.getFlightId());
+            if (full || before == null || changed(before, flight)) {
+                upserted.add(flight);
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        if (!full) {
+            for (String flightId : previous.keySet()) {
+                if (!current.containsKey(flightId)) {
+                    removed.add(flightId);
+                }
+            }
+        }
+
+        FlightEvent event = new FlightEvent(0, fetchedAt, full, upserted, removed);
+        previous = current;
+        full = false;
+        return event;
+    }
+
+    /**
+     * Makes the next event a full one. Called when a publish fails, since consumers
+     * may then have missed changes that this detector already considers sent.
+     */
+    public void reset() {
+        full = true;
+    }
+
+    private boolean changed(Flight before, Flight after) {
+        return moved(before.getLatitude(), after.getLatitude(), positionQuantum)
+                || moved(before.getLongitude(), after.getLongitude(), positionQuantum)
+                || moved(before.getAltitude(), after.getAltitude(), altitudeQuantum)
+                || moved(before.getSpeed(), after.getSpeed(), speedQuantum)
+                || before.getStatus() != after.getStatus()
+                || !Objects.equals(before.getCallsign(), after.getCallsign());
+    }
+
+    /**
+     * Compares values on a fixed grid rather than by difference, so slow drift is
+     * still reported once it crosses a grid line.
+     */
+    private static boolean moved(double before, double after, double quantum) {
+        return Math.round(before / quantum) != Math.round(after / quantum);
+    }
+}
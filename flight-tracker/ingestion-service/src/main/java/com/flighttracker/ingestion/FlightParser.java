@@ -1,4 +1,64 @@
 package com.flighttracker.ingestion;
 
+import com.flighttracker.common.model.Flight;
+import com.flighttracker.common.model.FlightStatus;
+import com.flighttracker.common.opensky.StateVector;
+import com.flighttracker.common.opensky.StateVectorCollector;
+import com.flighttracker.common.opensky.StateVectorParser;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses OpenSky {@code /states/all} responses into Flight objects with the
+ * shared {@link StateVectorParser}.
+ */
+@Component
 public class FlightParser {
+
+    private final StateVectorParser parser = new StateVectorParser();
+
+    /**
+     * Parses a response body as it streams in.
+     */
+    public Mono<List<Flight>> parse(Flux<DataBuffer> body) {
+        return parser.parse(body, FlightCollector::new);
+    }
+
+    /**
+     * Parses a complete response body held in memory.
+     */
+    public List<Flight> parse(byte[] body) {
+        return parser.parse(body, new FlightCollector());
+    }
+
+    private static final class FlightCollector implements StateVectorCollector<List<Flight>> {
+
+        private final List<Flight> flights = new ArrayList<>();
+
+        @Override
+        public void accept(StateVector vector) {
+            Flight flight = new Flight();
+            flight.setFlightId(vector.icao24());
+            flight.setCallsign(vector.callsign());
+            flight.setLongitude(vector.longitude());
+            flight.setLatitude(vector.latitude());
+            flight.setAltitude(vector.baroAltitude());
+            flight.setSpeed(vector.velocity());
+            flight.setStatus(vector.onGround() ? FlightStatus.LANDED : FlightStatus.IN_FLIGHT);
+            flight.setLastUpdated(vector.reportedAt());
+            flight.setHeading(Double.isNaN(vector.trueTrack()) ? null : vector.trueTrack());
+            flight.setVerticalRate(vector.verticalRate());
+            flights.add(flight);
+        }
+
+        @Override
+        public List<Flight> finish() {
+            return flights;
+        }
+    }
 }
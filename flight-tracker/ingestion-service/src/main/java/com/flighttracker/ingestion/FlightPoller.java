@@ -1,4 +1,103 @@
 package com.flighttracker.ingestion;
 
+import com.flighttracker.common.FlightEvent;
+import com.flighttracker.common.model.Flight;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Polls OpenSky on a fixed interval and publishes what changed.
+ *
+ * This is the only component in the deployment that calls the upstream API;
+ * every API node reads the fleet from Redis instead.
+ */
+@Component
 public class FlightPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightPoller.class);
+
+    private final WebClient openSkyWebClient;
+    private final OpenSkyAuthClient authClient;
+    private final FlightParser parser;
+    private final FlightChangeDetector changeDetector;
+    private final FleetPublisher publisher;
+    private final Duration pollInterval;
+
+    private Disposable poller;
+
+    public FlightPoller(
+            WebClient openSkyWebClient,
+            OpenSkyAuthClient authClient,
+            FlightParser parser,
+            FlightChangeDetector changeDetector,
+            FleetPublisher publisher,
+            @Value("${ingestion.poll-interval-seconds:5}") int pollIntervalSeconds) {
+        this.openSkyWebClient = openSkyWebClient;
+        this.authClient = authClient;
+        this.parser = parser;
+        this.changeDetector = changeDetector;
+        this.publisher = publisher;
+        this.pollInterval = Duration.ofSeconds(pollIntervalSeconds);
+    }
+
+    @PostConstruct
+    public void start() {
+        // onBackpressureDrop + concatMap: a slow poll or publish skips ticks instead of stacking them
+        poller = Flux.interval(Duration.ZERO, pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> pollOnce(), 1)
+                .subscribe(null, e -> log.error("Flight poller stopped: {}", e.getMessage()));
+
+        log.info("FlightPoller started with poll interval {}s, {}", pollInterval.toSeconds(),
+                authClient.isConfigured() ? "authenticated" : "anonymous");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.dispose();
+        }
+    }
+
+    /**
+     * Runs one poll: fetch, detect changes, publish. Never errors; failures are
+     * logged and the next tick tries again.
+     */
+    Mono<FlightEvent> pollOnce() {
+        return fetch()
+                .filter(flights -> !flights.isEmpty())
+                .map(flights -> changeDetector.detect(flights, System.currentTimeMillis()))
+                .filter(event -> !event.isEmpty())
+                .flatMap(event -> publisher.publish(event)
+                        .thenReturn(event)
+                        .doOnError(e -> {
+                            // Consumers may have missed this event; resend the whole fleet next time
+                            changeDetector.reset();
+                            log.warn("Failed to publish {}: {}", event, e.getMessage());
+                        }))
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    private Mono<List<Flight>> fetch() {
+        return authClient.authorization()
+                .flatMap(authorization -> openSkyWebClient.get()
+                        .uri("/states/all")
+                        .headers(authorization)
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class)
+                        .as(parser::parse))
+                .doOnError(e -> log.warn("OpenSky poll failed: {}", e.getMessage()));
+    }
 }
@@ -1,4 +1,21 @@
 package com.flighttracker.ingestion;
 
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Ingestion Service entry point.
+ * The single poller of the OpenSky API; publishes the fleet to Redis for every API node.
+ *
+ * FlightPoller → polls OpenSky on a fixed interval
+ * FlightParser → streams state vectors into Flight objects
+ * FlightChangeDetector → turns consecutive polls into upserts and removals
+ * RedisFleetPublisher → writes the snapshot hash and publishes the event
+ */
+@SpringBootApplication
 public class IngestionApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(IngestionApplication.class, args);
+    }
 }
@@ -1,4 +1,23 @@
 package com.flighttracker.ingestion;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
 public class IngestionConfig {
+
+    /**
+     * WebClient for the OpenSky API. The base URL is configurable so tests and local
+     * runs can point it at a replay server serving a canned response.
+     */
+    @Bean
+    public WebClient openSkyWebClient(
+            WebClient.Builder builder,
+            @Value("${ingestion.opensky.base-url:https://opensky-network.org/api}") String baseUrl) {
+        return builder
+                .baseUrl(baseUrl)
+                .build();
+    }
 }
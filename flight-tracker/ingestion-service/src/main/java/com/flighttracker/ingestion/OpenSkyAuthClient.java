@@ -0,0 +1,67 @@
+package com.flighttracker.ingestion;
+
+import com.flighttracker.common.opensky.OpenSkyTokenCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * OAuth2 client-credentials login for the poller, from OPENSKY_CLIENT_ID and
+ * OPENSKY_CLIENT_SECRET. Without credentials polls go out anonymously, which
+ * OpenSky rate-limits too tightly for a 5 s interval but is enough for a replay
+ * server or a local run.
+ */
+@Component
+public class OpenSkyAuthClient {
+
+    private final boolean configured;
+    private final OpenSkyTokenCache tokenCache;
+
+    public OpenSkyAuthClient(
+            WebClient.Builder builder,
+            @Value("${ingestion.opensky.auth-url:https://auth.opensky-network.org/auth/realms/opensky-network/protocol/openid-connect/token}") String authUrl,
+            @Value("${ingestion.opensky.client-id:}") String clientId,
+            @Value("${ingestion.opensky.client-secret:}") String clientSecret) {
+        this.configured = !clientId.isBlank() && !clientSecret.isBlank();
+        Mono<Map<?, ?>> tokenRequest = builder.build().post()
+                .uri(authUrl)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData("grant_type", "client_credentials")
+                        .with("client_id", clientId)
+                        .with("client_secret", clientSecret))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<?, ?>>() { });
+        this.tokenCache = new OpenSkyTokenCache(tokenRequest, OpenSkyAuthClient::isRetryable);
+    }
+
+    public boolean isConfigured() {
+        return configured;
+    }
+
+    /**
+     * Headers to add to an OpenSky request: a bearer token when credentials are
+     * configured, nothing otherwise. Errors if a token is needed and can't be obtained.
+     */
+    public Mono<Consumer<HttpHeaders>> authorization() {
+        if (!configured) {
+            return Mono.just(headers -> { });
+        }
+        return tokenCache.getToken().map(token -> headers -> headers.setBearerAuth(token));
+    }
+
+    /**
+     * Client errors such as rejected credentials won't go away on retry.
+     */
+    private static boolean isRetryable(Throwable error) {
+        return !(error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+    }
+}
@@ -0,0 +1,144 @@
+package com.flighttracker.ingestion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.common.FleetRedisKeys;
+import com.flighttracker.common.FlightEvent;
+import com.flighttracker.common.model.Flight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes fleet changes to Redis (see {@link FleetRedisKeys} for the layout).
+ *
+ * Per event: the snapshot hash is updated in chunks of HSET/HDEL commands, then the
+ * sequence key is set, then the event is published. All chunk commands are issued
+ * together on the shared Lettuce connection, so they are pipelined rather than paying
+ * one round trip each. Because the sequence is written last, a reader that loads
+ * the sequence and then the hash never sees an older hash than the sequence claims.
+ *
+ * A full event is staged in a separate hash and swapped in with RENAME, so readers
+ * never see a half-written fleet; it is published without its flights, and consumers
+ * reload the snapshot hash instead.
+ *
+ * Assumes a single ingestion instance writes to the keys.
+ */
+@Component
+public class RedisFleetPublisher implements FleetPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisFleetPublisher.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveHashOperations<String, String, String> hashOps;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    // Last sequence this instance wrote, or -1 when it must be read back from Redis
+    private volatile long lastSequence = -1;
+
+    public RedisFleetPublisher(
+            ReactiveStringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${ingestion.redis.batch-size:500}") int batchSize) {
+        this.redisTemplate = redisTemplate;
+        this.hashOps = redisTemplate.opsForHash();
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Mono<Void> publish(FlightEvent event) {
+        return nextSequence()
+                .flatMap(sequence -> {
+                    event.setSequence(sequence);
+                    return writeSnapshot(event)
+                            .then(redisTemplate.opsForValue().set(FleetRedisKeys.SEQUENCE, Long.toString(sequence)))
+                            .then(redisTemplate.convertAndSend(FleetRedisKeys.EVENTS_CHANNEL, toJson(notification(event))))
+                            .doOnSuccess(receivers -> {
+                                lastSequence = sequence;
+                                log.debug("Published {} to {} subscribers", event, receivers);
+                            });
+                })
+                .doOnError(e -> lastSequence = -1)
+                .then();
+    }
+
+    private Mono<Long> nextSequence() {
+        long last = lastSequence;
+        if (last >= 0) {
+            return Mono.just(last + 1);
+        }
+        return redisTemplate.opsForValue().get(FleetRedisKeys.SEQUENCE)
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L)
+                .map(stored -> stored + 1);
+    }
+
+    private Mono<Void> writeSnapshot(FlightEvent event) {
+        if (!event.isFull()) {
+            return Flux.merge(putAll(FleetRedisKeys.SNAPSHOT, event.getUpserted()),
+                            removeAll(event.getRemoved()))
+                    .then();
+        }
+
+        if (event.getUpserted().isEmpty()) {
+            return redisTemplate.delete(FleetRedisKeys.SNAPSHOT).then();
+        }
+        return redisTemplate.delete(FleetRedisKeys.SNAPSHOT_STAGING)
+                .thenMany(putAll(FleetRedisKeys.SNAPSHOT_STAGING, event.getUpserted()))
+                .then(redisTemplate.rename(FleetRedisKeys.SNAPSHOT_STAGING, FleetRedisKeys.SNAPSHOT))
+                .then();
+    }
+
+    private Flux<Boolean> putAll(String key, List<Flight> flights) {
+        List<Map<String, String>> batches = new ArrayList<>();
+        Map<String, String> batch = new LinkedHashMap<>();
+        for (Flight flight : flights) {
+            batch.put(flight.getFlightId(), toJson(flight));
+            if (batch.size() == batchSize) {
+                batches.add(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return Flux.fromIterable(batches).flatMap(fields -> hashOps.putAll(key, fields), batches.size() + 1);
+    }
+
+    private Flux<Long> removeAll(List<String> flightIds) {
+        List<Object[]> batches = new ArrayList<>();
+        for (int from = 0; from < flightIds.size(); from += batchSize) {
+            batches.add(flightIds.subList(from, Math.min(from + batchSize, flightIds.size())).toArray());
+        }
+        return Flux.fromIterable(batches)
+                .flatMap(ids -> hashOps.remove(FleetRedisKeys.SNAPSHOT, ids), batches.size() + 1);
+    }
+
+    private static FlightEvent notification(FlightEvent event) {
+        if (!event.isFull()) {
+            return event;
+        }
+        // Consumers reload the hash on a full event, so the fleet is not repeated on the channel
+        return new FlightEvent(event.getSequence(), event.getFetchedAt(), true, List.of(), List.of());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + value, e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.flighttracker.ingestion;
+
+import com.flighttracker.common.FlightEvent;
+import com.flighttracker.common.model.Flight;
+import com.flighttracker.common.model.FlightStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightChangeDetectorTest {
+
+    private FlightChangeDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new FlightChangeDetector(0.0001, 10, 0.5);
+    }
+
+    private Flight flight(String id, double latitude, double altitude) {
+        Flight flight = new Flight();
+        flight.setFlightId(id);
+        flight.setCallsign("CALL" + id);
+        flight.setLatitude(latitude);
+        flight.setLongitude(10.0);
+        flight.setAltitude(altitude);
+        flight.setSpeed(200.0);
+        flight.setStatus(FlightStatus.IN_FLIGHT);
+        return flight;
+    }
+
+    @Test
+    void first_poll_is_a_full_event() {
+        FlightEvent event = detector.detect(List.of(flight("a", 50.0, 1000), flight("b", 51.0, 1000)), 1L);
+
+        assertThat(event.isFull()).isTrue();
+        assertThat(event.getUpserted()).hasSize(2);
+        assertThat(event.getRemoved()).isEmpty();
+    }
+
+    @Test
+    void later_polls_report_only_added_changed_and_removed_flights() {
+        detector.detect(List.of(flight("a", 50.0, 1000), flight("b", 51.0, 1000), flight("c", 52.0, 1000)), 1L);
+
+        FlightEvent event = detector.detect(List.of(
+                flight("a", 50.0, 1000),
+                flight("b", 51.5, 1000),
+                flight("d", 53.0, 1000)), 2L);
+
+        assertThat(event.isFull()).isFalse();
+        assertThat(event.getUpserted()).extracting(Flight::getFlightId).containsExactlyInAnyOrder("b", "d");
+        assertThat(event.getRemoved()).containsExactly("c");
+    }
+
+    @Test
+    void changes_below_the_quanta_are_ignored() {
+        detector.detect(List.of(flight("a", 50.0, 1000)), 1L);
+
+        FlightEvent event = detector.detect(List.of(flight("a", 50.00001, 1002)), 2L);
+
+        assertThat(event.isEmpty()).isTrue();
+    }
+
+    @Test
+    void reset_makes_the_next_event_full() {
+        detector.detect(List.of(flight("a", 50.0, 1000)), 1L);
+        detector.reset();
+
+        FlightEvent event = detector.detect(List.of(flight("a", 50.0, 1000)), 2L);
+
+        assertThat(event.isFull()).isTrue();
+        assertThat(event.getUpserted()).hasSize(1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.flighttracker.ingestion;
+
+import com.flighttracker.common.model.Flight;
+import com.flighttracker.common.model.FlightStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightParserTest {
+
+    private final FlightParser parser = new FlightParser();
+
+    static byte[] sample() throws IOException {
+        try (InputStream in = FlightParserTest.class.getResourceAsStream("/opensky-sample.json")) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void parse_maps_state_vectors_and_skips_flights_without_position() throws IOException {
+        List<Flight> flights = parser.parse(sample());
+
+        assertThat(flights).extracting(Flight::getFlightId).containsExactly("4b1815", "a808c5", "c03b2a");
+
+        Flight swiss = flights.get(0);
+        assertThat(swiss.getCallsign()).isEqualTo("SWR100");
+        assertThat(swiss.getLatitude()).isEqualTo(47.4582);
+        assertThat(swiss.getLongitude()).isEqualTo(8.5492);
+        assertThat(swiss.getAltitude()).isEqualTo(10668.0);
+        assertThat(swiss.getSpeed()).isEqualTo(231.5);
+        assertThat(swiss.getStatus()).isEqualTo(FlightStatus.IN_FLIGHT);
+        assertThat(swiss.getHeading()).isEqualTo(45.2);
+        assertThat(swiss.getVerticalRate()).isZero();
+    }
+
+    @Test
+    void parse_reads_on_ground_and_skips_nested_sensors_array() throws IOException {
+        Flight united = parser.parse(sample()).get(1);
+
+        assertThat(united.getStatus()).isEqualTo(FlightStatus.LANDED);
+        assertThat(united.getSpeed()).isEqualTo(5.1);
+    }
+
+    @Test
+    void parse_gives_same_result_when_body_arrives_in_small_chunks() throws IOException {
+        byte[] body = sample();
+        List<DataBuffer> chunks = new ArrayList<>();
+        for (int from = 0; from < body.length; from += 7) {
+            chunks.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(body, from, Math.min(from + 7, body.length))));
+        }
+
+        StepVerifier.create(parser.parse(Flux.fromIterable(chunks)))
+                .assertNext(flights -> assertThat(flights)
+                        .extracting(Flight::getFlightId)
+                        .containsExactly("4b1815", "a808c5", "c03b2a"))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,175 @@
+package com.flighttracker.ingestion;
+
+import com.flighttracker.common.FlightEvent;
+import com.flighttracker.common.model.Flight;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the poller against a local server replaying a canned OpenSky response,
+ * with an in-memory publisher standing in for Redis.
+ */
+public class FlightPollerTest {
+
+    private HttpServer replayServer;
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private final AtomicReference<String> authorization = new AtomicReference<>();
+    private final InMemoryFleetPublisher publisher = new InMemoryFleetPublisher();
+    private FlightPoller poller;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        byte[] body = FlightParserTest.sample();
+        replayServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        replayServer.createContext("/api/states/all", exchange -> {
+            authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status.get(), status.get() == 200 ? body.length : -1);
+            try (OutputStream out = exchange.getResponseBody()) {
+                if (status.get() == 200) {
+                    out.write(body);
+                }
+            }
+        });
+        byte[] token = "{\"access_token\":\"abc\",\"expires_in\":1800}".getBytes(StandardCharsets.UTF_8);
+        replayServer.createContext("/auth/token", exchange -> {
+            tokenRequests.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, token.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(token);
+            }
+        });
+        replayServer.start();
+
+        poller = poller("", "");
+    }
+
+    private FlightPoller poller(String clientId, String clientSecret) {
+        String base = "http://localhost:" + replayServer.getAddress().getPort();
+        OpenSkyAuthClient authClient = new OpenSkyAuthClient(WebClient.builder(), base + "/auth/token",
+                clientId, clientSecret);
+        return new FlightPoller(WebClient.create(base + "/api"), authClient, new FlightParser(),
+                new FlightChangeDetector(0.0001, 10, 0.5), publisher, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replayServer.stop(0);
+    }
+
+    @Test
+    void first_poll_publishes_the_full_fleet() {
+        StepVerifier.create(poller.pollOnce())
+                .assertNext(event -> assertThat(event.isFull()).isTrue())
+                .verifyComplete();
+
+        assertThat(publisher.snapshot).containsOnlyKeys("4b1815", "a808c5", "c03b2a");
+        assertThat(publisher.events).hasSize(1);
+    }
+
+    @Test
+    void polls_without_credentials_are_anonymous() {
+        poller.pollOnce().block();
+
+        assertThat(authorization.get()).isNull();
+        assertThat(tokenRequests).hasValue(0);
+    }
+
+    @Test
+    void polls_with_credentials_send_a_cached_bearer_token() {
+        FlightPoller authenticated = poller("client", "secret");
+
+        StepVerifier.create(authenticated.pollOnce()).expectNextCount(1).verifyComplete();
+        assertThat(authorization.get()).isEqualTo("Bearer abc");
+
+        StepVerifier.create(authenticated.pollOnce()).verifyComplete();
+        assertThat(authorization.get()).isEqualTo("Bearer abc");
+        assertThat(tokenRequests).hasValue(1);
+    }
+
+    @Test
+    void unchanged_fleet_publishes_nothing() {
+        poller.pollOnce().block();
+
+        StepVerifier.create(poller.pollOnce()).verifyComplete();
+
+        assertThat(publisher.events).hasSize(1);
+    }
+
+    @Test
+    void upstream_failure_skips_the_tick() {
+        status.set(503);
+
+        StepVerifier.create(poller.pollOnce()).verifyComplete();
+
+        assertThat(publisher.events).isEmpty();
+    }
+
+    @Test
+    void publish_failure_makes_the_next_event_full() throws IOException {
+        poller.pollOnce().block();
+        publisher.failNext = true;
+        byte[] moved = new String(FlightParserTest.sample(), StandardCharsets.UTF_8)
+                .replace("47.4582", "47.5")
+                .getBytes(StandardCharsets.UTF_8);
+        replayServer.removeContext("/api/states/all");
+        replayServer.createContext("/api/states/all", exchange -> {
+            exchange.sendResponseHeaders(200, moved.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(moved);
+            }
+        });
+
+        StepVerifier.create(poller.pollOnce()).verifyComplete();
+        StepVerifier.create(poller.pollOnce())
+                .assertNext(event -> assertThat(event.isFull()).isTrue())
+                .verifyComplete();
+    }
+
+    /**
+     * Applies events to a map the way the Redis publisher applies them to the snapshot hash.
+     */
+    private static final class InMemoryFleetPublisher implements FleetPublisher {
+
+        final Map<String, Flight> snapshot = new HashMap<>();
+        final List<FlightEvent> events = new ArrayList<>();
+        boolean failNext;
+
+        @Override
+        public Mono<Void> publish(FlightEvent event) {
+            return Mono.fromRunnable(() -> {
+                if (failNext) {
+                    failNext = false;
+                    throw new IllegalStateException("Redis unavailable");
+                }
+                if (event.isFull()) {
+                    snapshot.clear();
+                }
+                event.getUpserted().forEach(flight -> snapshot.put(flight.getFlightId(), flight));
+                event.getRemoved().forEach(snapshot::remove);
+                event.setSequence(events.size() + 1);
+                events.add(event);
+            });
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.flighttracker.ingestion;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flighttracker.common.FleetRedisKeys;
+import com.flighttracker.common.FlightEvent;
+import com.flighttracker.common.model.Flight;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the publisher against a template backed by in-memory hashes, strings and a
+ * channel log, standing in for Redis.
+ */
+public class RedisFleetPublisherTest {
+
+    // Configured like Spring Boot's, which ignores derived getters such as isEmpty()
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final Map<String, Map<String, String>> hashes = new HashMap<>();
+    private final Map<String, String> strings = new HashMap<>();
+    private final List<String> published = new ArrayList<>();
+    private final AtomicInteger sequenceReads = new AtomicInteger();
+    private final AtomicInteger hashWrites = new AtomicInteger();
+    private boolean failNextPublish;
+
+    private RedisFleetPublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReactiveStringRedisTemplate template = mock(ReactiveStringRedisTemplate.class);
+        ReactiveHashOperations<String, Object, Object> hashOps = mock(ReactiveHashOperations.class);
+        ReactiveValueOperations<String, String> valueOps = mock(ReactiveValueOperations.class);
+
+        when(template.opsForHash()).thenReturn(hashOps);
+        when(template.opsForValue()).thenReturn(valueOps);
+        when(hashOps.putAll(anyString(), anyMap())).thenAnswer(call -> Mono.fromCallable(() -> {
+            hashWrites.incrementAndGet();
+            Map<String, String> fields = call.getArgument(1);
+            hashes.computeIfAbsent(call.getArgument(0), key -> new LinkedHashMap<>()).putAll(fields);
+            return true;
+        }));
+        when(hashOps.remove(anyString(), any(Object[].class))).thenAnswer(call -> Mono.fromCallable(() -> {
+            Map<String, String> hash = hashes.getOrDefault(call.<String>getArgument(0), Map.of());
+            // Mockito expands varargs into separate arguments
+            long removed = 0;
+            for (int i = 1; i < call.getArguments().length; i++) {
+                removed += hash.remove(call.getArgument(i)) != null ? 1 : 0;
+            }
+            return removed;
+        }));
+        when(valueOps.get(anyString())).thenAnswer(call -> Mono.fromCallable(() -> {
+            sequenceReads.incrementAndGet();
+            return strings.get(call.<String>getArgument(0));
+        }));
+        when(valueOps.set(anyString(), anyString())).thenAnswer(call -> Mono.fromCallable(() -> {
+            strings.put(call.getArgument(0), call.getArgument(1));
+            return true;
+        }));
+        when(template.delete(any(String[].class))).thenAnswer(call -> Mono.fromCallable(() -> {
+            long deleted = 0;
+            for (Object key : call.getArguments()) {
+                deleted += hashes.remove(key) != null ? 1 : 0;
+            }
+            return deleted;
+        }));
+        when(template.rename(anyString(), anyString())).thenAnswer(call -> Mono.fromCallable(() -> {
+            hashes.put(call.getArgument(1), hashes.remove(call.<String>getArgument(0)));
+            return true;
+        }));
+        when(template.convertAndSend(anyString(), anyString())).thenAnswer(call -> Mono.fromCallable(() -> {
+            if (failNextPublish) {
+                failNextPublish = false;
+                throw new IllegalStateException("Redis unavailable");
+            }
+            assertThat(call.<String>getArgument(0)).isEqualTo(FleetRedisKeys.EVENTS_CHANNEL);
+            published.add(call.getArgument(1));
+            return 1L;
+        }));
+
+        publisher = new RedisFleetPublisher(template, objectMapper, 2);
+    }
+
+    private static Flight flight(String id, double latitude) {
+        Flight flight = new Flight();
+        flight.setFlightId(id);
+        flight.setLatitude(latitude);
+        flight.setLongitude(8.5);
+        return flight;
+    }
+
+    private FlightEvent lastPublished() throws Exception {
+        return objectMapper.readValue(published.get(published.size() - 1), FlightEvent.class);
+    }
+
+    private Map<String, String> snapshot() {
+        return hashes.getOrDefault(FleetRedisKeys.SNAPSHOT, Map.of());
+    }
+
+    @Test
+    void sequence_continues_from_the_stored_value_and_is_then_tracked_locally() throws Exception {
+        strings.put(FleetRedisKeys.SEQUENCE, "41");
+
+        StepVerifier.create(publisher.publish(new FlightEvent(0, 1, true, List.of(flight("a", 1)), List.of())))
+                .verifyComplete();
+        StepVerifier.create(publisher.publish(new FlightEvent(0, 2, false, List.of(flight("a", 2)), List.of())))
+                .verifyComplete();
+
+        assertThat(lastPublished().getSequence()).isEqualTo(43);
+        assertThat(strings).containsEntry(FleetRedisKeys.SEQUENCE, "43");
+        assertThat(sequenceReads).hasValue(1);
+    }
+
+    @Test
+    void full_event_swaps_in_a_new_snapshot_and_is_published_without_flights() throws Exception {
+        hashes.put(FleetRedisKeys.SNAPSHOT, new LinkedHashMap<>(Map.of("stale", "{}")));
+
+        List<Flight> fleet = List.of(flight("a", 1), flight("b", 2), flight("c", 3));
+        StepVerifier.create(publisher.publish(new FlightEvent(0, 1, true, fleet, List.of()))).verifyComplete();
+
+        assertThat(snapshot()).containsOnlyKeys("a", "b", "c");
+        assertThat(hashes).doesNotContainKey(FleetRedisKeys.SNAPSHOT_STAGING);
+        // Batches of two: three flights take two HSETs
+        assertThat(hashWrites).hasValue(2);
+        FlightEvent event = lastPublished();
+        assertThat(event.isFull()).isTrue();
+        assertThat(event.getUpserted()).isEmpty();
+        assertThat(event.getSequence()).isEqualTo(1);
+    }
+
+    @Test
+    void changed_event_patches_the_snapshot_and_carries_its_changes() throws Exception {
+        publisher.publish(new FlightEvent(0, 1, true, List.of(flight("a", 1), flight("b", 2)), List.of())).block();
+
+        StepVerifier.create(publisher.publish(new FlightEvent(0, 2, false, List.of(flight("a", 5)), List.of("b"))))
+                .verifyComplete();
+
+        assertThat(snapshot()).containsOnlyKeys("a");
+        assertThat(objectMapper.readValue(snapshot().get("a"), Flight.class).getLatitude()).isEqualTo(5);
+        FlightEvent event = lastPublished();
+        assertThat(event.isFull()).isFalse();
+        assertThat(event.getSequence()).isEqualTo(2);
+        assertThat(event.getUpserted()).extracting(Flight::getFlightId).containsExactly("a");
+        assertThat(event.getRemoved()).containsExactly("b");
+    }
+
+    @Test
+    void failed_publish_reads_the_sequence_back_from_redis() throws Exception {
+        publisher.publish(new FlightEvent(0, 1, true, List.of(flight("a", 1)), List.of())).block();
+        failNextPublish = true;
+
+        StepVerifier.create(publisher.publish(new FlightEvent(0, 2, false, List.of(flight("a", 2)), List.of())))
+                .verifyError(IllegalStateException.class);
+        StepVerifier.create(publisher.publish(new FlightEvent(0, 3, true, List.of(flight("a", 3)), List.of())))
+                .verifyComplete();
+
+        // The failed event's sequence was stored before the channel publish failed
+        assertThat(sequenceReads).hasValue(2);
+        assertThat(lastPublished().getSequence()).isEqualTo(3);
+    }
+}
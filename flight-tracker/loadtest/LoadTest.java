@@ -0,0 +1,146 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop HTTP load test for the api-service lookup and search endpoints.
+ * <p>
+ * Each of {@code concurrency} virtual users sends a request, waits for the response
+ * and sends the next, for {@code seconds}. Requests are asynchronous, so the
+ * generator itself needs only a few threads at any concurrency. Prints throughput,
+ * latency percentiles and failures.
+ * <p>
+ * Needs only a JDK (17+):
+ * <pre>
+ * java loadtest/LoadTest.java http://localhost:8080 200 30
+ * java loadtest/LoadTest.java http://localhost:8080 2000 30
+ * </pre>
+ * Run it against the service in both modes (spring.main.web-application-type
+ * servlet and reactive) to compare them at the same concurrency. Optional further
+ * arguments replace the default request paths.
+ */
+public class LoadTest {
+
+    private static final List<String> DEFAULT_PATHS = List.of(
+            "/api/search/flights?query=DLH&size=20",
+            "/api/search/flights/callsign?callsign=UAL",
+            "/api/search/flights/airport?icao=KJFK",
+            "/api/search/flights/area?minLat=40&maxLat=55&minLon=-10&maxLon=20",
+            "/api/search/flights/nearby?lat=51.47&lon=-0.45&limit=20",
+            "/api/flights/3c6444",
+            "/api/flights/3c6444/metadata");
+
+    // Latency histogram with 1 ms buckets up to 10 s; slower responses land in the last bucket
+    private static final int BUCKETS = 10_001;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: java LoadTest.java <base-url> <concurrency> <seconds> [path...]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        int concurrency = Integer.parseInt(args[1]);
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[2]));
+        List<String> paths = args.length > 3 ? Arrays.asList(args).subList(3, args.length) : DEFAULT_PATHS;
+
+        List<HttpRequest> requests = new ArrayList<>();
+        for (String path : paths) {
+            requests.add(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+
+        Stats stats = new Stats();
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int user = 0; user < concurrency; user++) {
+            send(client, requests, user, deadline, stats, done);
+        }
+        done.await();
+        executor.shutdown();
+
+        stats.print(concurrency, duration);
+    }
+
+    /**
+     * Sends one request and, when it completes, the next, until the deadline.
+     */
+    private static void send(HttpClient client, List<HttpRequest> requests, int index, long deadline,
+                             Stats stats, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        long start = System.nanoTime();
+        client.sendAsync(requests.get(index % requests.size()), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    stats.record(System.nanoTime() - start, error == null ? response.statusCode() : -1);
+                    send(client, requests, index + 1, deadline, stats, done);
+                });
+    }
+
+    private static final class Stats {
+
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong serverErrors = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos, int status) {
+            requests.incrementAndGet();
+            if (status < 0) {
+                failures.incrementAndGet();
+                return;
+            }
+            if (status >= 500) {
+                serverErrors.incrementAndGet();
+            }
+            histogram.incrementAndGet((int) Math.min(BUCKETS - 1, nanos / 1_000_000));
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void print(int concurrency, Duration duration) {
+            long total = requests.get();
+            System.out.printf("concurrency      %d%n", concurrency);
+            System.out.printf("requests         %d%n", total);
+            System.out.printf("throughput       %.0f req/s%n", total / (double) duration.toSeconds());
+            System.out.printf("latency p50      %d ms%n", percentile(0.50));
+            System.out.printf("latency p99      %d ms%n", percentile(0.99));
+            System.out.printf("latency max      %d ms%n", maxNanos.get() / 1_000_000);
+            System.out.printf("5xx responses    %d%n", serverErrors.get());
+            System.out.printf("failed requests  %d%n", failures.get());
+        }
+
+        private long percentile(double quantile) {
+            long answered = requests.get() - failures.get();
+            long rank = (long) Math.ceil(answered * quantile);
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += histogram.get(bucket);
+                if (seen >= rank && seen > 0) {
+                    return bucket;
+                }
+            }
+            return 0;
+        }
+    }
+}